@@ -27,4 +27,35 @@ public interface Timing {
      * @return the delay measured by the Timing object as a double
      */
     double delay();
+
+    /**
+     * Returns the amount of events measured by the Timing object. Implementations that only keep the most recent
+     * delay report at most one event.
+     *
+     * @return the amount of measured events
+     */
+    default long count() {
+        return delay() >= 0 ? 1 : 0;
+    }
+
+    /**
+     * Returns the duration of the measured events at the given quantile, for example 0.99 for the 99th percentile.
+     * Implementations that only keep the most recent delay return that delay.
+     *
+     * @param quantile the quantile between 0 and 1
+     * @return the duration in milliseconds, or 0 if nothing was measured
+     */
+    default double percentile(double quantile) {
+        return Math.max(0, delay());
+    }
+
+    /**
+     * Returns the longest duration measured by the Timing object. Implementations that only keep the most recent
+     * delay return that delay.
+     *
+     * @return the maximum duration in milliseconds
+     */
+    default double max() {
+        return Math.max(0, delay());
+    }
 }
@@ -1,5 +1,9 @@
 package de.feelix.sierraapi.timing;
 
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+import de.feelix.sierraapi.annotation.Nullable;
+import de.feelix.sierraapi.check.CheckType;
+
 /**
  * The TimingHandler interface represents an object that provides timing tasks for various operations.
  * The implementation of this interface should provide methods to retrieve different Timing objects
@@ -43,4 +47,20 @@ public interface TimingHandler {
      * @see Timing
      */
     Timing getFrequencyTask();
+
+    /**
+     * Retrieves the Timing object measuring a check while it handles a packet type. Check timings are shared by all
+     * players.
+     *
+     * @param checkType  the type of the check
+     * @param packetType the type of the handled packet
+     * @return the Timing object for measuring the check on the packet type, or null if the implementation does not
+     * measure checks
+     *
+     * @see Timing
+     */
+    @Nullable
+    default Timing getCheckTiming(CheckType checkType, PacketTypeCommon packetType) {
+        return null;
+    }
 }
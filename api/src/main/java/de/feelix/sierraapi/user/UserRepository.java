@@ -3,9 +3,12 @@ package de.feelix.sierraapi.user;
 import de.feelix.sierraapi.history.History;
 import de.feelix.sierraapi.user.impl.SierraUser;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * The UserRepository interface represents a repository for querying SierraUser objects based on different criteria.
@@ -39,8 +42,58 @@ public interface UserRepository {
 
     /**
      * Retrieves the local action history of a user.
+     * <p>
+     * The history is kept on disk and may hold up to {@code history-max-entries} entries. Every call decodes all of
+     * them into a new list, so calling this per event is expensive.
      *
      * @return A List of History objects representing the user's action history. The list may be empty if no history is available.
+     * @deprecated loads the whole history on every call, use {@link #streamLocalActionHistory()} or
+     * {@link #queryLocalActionHistory(int, int)} instead
      */
+    @Deprecated
     List<History> getLocalActionHistory();
+
+    /**
+     * Streams the local action history, oldest first. The stream is thread-safe and reads the entries lazily, so
+     * it does not load the whole history at once.
+     *
+     * @return A Stream of History objects representing the action history.
+     */
+    default Stream<History> streamLocalActionHistory() {
+        return getLocalActionHistory().stream();
+    }
+
+    /**
+     * Retrieves a page of the local action history, newest first.
+     *
+     * @param offset the amount of newer entries to skip
+     * @param limit  the maximum amount of returned entries
+     * @return A List of History objects of the requested page. The list may be empty.
+     */
+    default List<History> queryLocalActionHistory(int offset, int limit) {
+        if (offset < 0 || limit <= 0) return new ArrayList<>();
+        List<History> histories = new ArrayList<>(getLocalActionHistory());
+        histories.sort(Comparator.comparingLong(History::timestamp).reversed());
+        int from = Math.min(offset, histories.size());
+        return histories.subList(from, from + Math.min(limit, histories.size() - from));
+    }
+
+    /**
+     * Retrieves a page of the local action history of a single user, newest first.
+     *
+     * @param username the name of the user, case-insensitive
+     * @param offset   the amount of newer entries of the user to skip
+     * @param limit    the maximum amount of returned entries
+     * @return A List of History objects of the requested page. The list may be empty.
+     */
+    default List<History> queryLocalActionHistory(String username, int offset, int limit) {
+        if (offset < 0 || limit <= 0) return new ArrayList<>();
+        List<History> histories = new ArrayList<>();
+        for (History history : getLocalActionHistory()) {
+            if (history.username().equalsIgnoreCase(username)) histories.add(history);
+        }
+        histories.sort(Comparator.comparingLong(History::timestamp).reversed());
+        int from = Math.min(offset, histories.size());
+        return histories.subList(from, from + Math.min(limit, histories.size() - from));
+    }
 }
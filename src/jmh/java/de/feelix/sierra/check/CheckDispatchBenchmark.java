@@ -0,0 +1,207 @@
+package de.feelix.sierra.check;
+
+import com.github.retrooper.packetevents.event.PacketReceiveEvent;
+import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+import de.feelix.sierra.manager.packet.IngoingProcessor;
+import de.feelix.sierra.manager.storage.PlayerData;
+import de.feelix.sierraapi.check.CheckType;
+import de.feelix.sierraapi.check.impl.SierraCheck;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-packet-type dispatch table of {@link CheckManager} with the loop it replaced, which offered every
+ * packet to every check that is an {@link IngoingProcessor}.
+ * <p>
+ * The table is built by {@link CheckManager#buildIngoingTable(List)} itself. PacketEvents events can only be built on
+ * a live channel and the real checks need a player, so the checks are stand-ins that declare the packet types of the
+ * checks registered by {@link CheckManager} and, like those, test the packet type before doing anything. The packet
+ * stream is a fixed mix dominated by movement, as seen from a player walking around. Run it with
+ * {@code ./gradlew jmh}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CheckDispatchBenchmark {
+
+    private static final int STREAM = 1024;
+
+    private PacketType.Play.Client[] stream;
+    private List<SierraCheck>        checks;
+    private IngoingProcessor[][]     table;
+    private Blackhole                blackhole;
+
+    // The packet being dispatched, read by the stand-ins in place of the event
+    private PacketTypeCommon packetType;
+
+    @Setup
+    public void setup() {
+        Check[] declared = {
+            // FrequencyDetection, every incoming packet
+            new Check(null),
+            // BookValidation
+            new Check(new PacketTypeCommon[]{
+                PacketType.Play.Client.EDIT_BOOK,
+                PacketType.Play.Client.PLUGIN_MESSAGE,
+                PacketType.Play.Client.PLAYER_BLOCK_PLACEMENT,
+                PacketType.Play.Client.CREATIVE_INVENTORY_ACTION,
+                PacketType.Play.Client.CLICK_WINDOW
+            }),
+            // ProtocolValidation, every incoming packet
+            new Check(null),
+            // MovementValidation
+            new Check(new PacketTypeCommon[]{
+                PacketType.Play.Client.PLAYER_FLYING,
+                PacketType.Play.Client.PLAYER_POSITION,
+                PacketType.Play.Client.PLAYER_POSITION_AND_ROTATION,
+                PacketType.Play.Client.PLAYER_ROTATION,
+                PacketType.Play.Client.VEHICLE_MOVE,
+                PacketType.Play.Client.PONG,
+                PacketType.Play.Client.WINDOW_CONFIRMATION
+            }),
+            // CreativeCrasher
+            new Check(new PacketTypeCommon[]{
+                PacketType.Play.Client.CREATIVE_INVENTORY_ACTION,
+                PacketType.Play.Client.CLICK_WINDOW,
+                PacketType.Play.Client.PLAYER_BLOCK_PLACEMENT
+            }),
+            // PostCheck
+            new Check(new PacketTypeCommon[]{
+                PacketType.Play.Client.PLAYER_FLYING,
+                PacketType.Play.Client.PLAYER_POSITION,
+                PacketType.Play.Client.PLAYER_POSITION_AND_ROTATION,
+                PacketType.Play.Client.PLAYER_ROTATION,
+                PacketType.Play.Client.PONG,
+                PacketType.Play.Client.WINDOW_CONFIRMATION,
+                PacketType.Play.Client.PLAYER_ABILITIES,
+                PacketType.Play.Client.INTERACT_ENTITY,
+                PacketType.Play.Client.PLAYER_BLOCK_PLACEMENT,
+                PacketType.Play.Client.USE_ITEM,
+                PacketType.Play.Client.PLAYER_DIGGING,
+                PacketType.Play.Client.CLICK_WINDOW,
+                PacketType.Play.Client.ANIMATION,
+                PacketType.Play.Client.ENTITY_ACTION
+            }),
+            // CommandValidation
+            new Check(new PacketTypeCommon[]{
+                PacketType.Play.Client.UPDATE_COMMAND_BLOCK,
+                PacketType.Play.Client.CHAT_MESSAGE,
+                PacketType.Play.Client.NAME_ITEM,
+                PacketType.Play.Client.CHAT_COMMAND
+            })
+        };
+
+        checks = new ArrayList<>();
+        List<IngoingProcessor> processors = new ArrayList<>();
+        for (Check check : declared) {
+            checks.add(check);
+            processors.add(check);
+        }
+        table = CheckManager.buildIngoingTable(processors);
+
+        PacketType.Play.Client[] mix = {
+            PacketType.Play.Client.PLAYER_POSITION_AND_ROTATION,
+            PacketType.Play.Client.PLAYER_POSITION_AND_ROTATION,
+            PacketType.Play.Client.PLAYER_POSITION,
+            PacketType.Play.Client.PLAYER_POSITION,
+            PacketType.Play.Client.PLAYER_ROTATION,
+            PacketType.Play.Client.PLAYER_FLYING,
+            PacketType.Play.Client.PONG,
+            PacketType.Play.Client.KEEP_ALIVE,
+            PacketType.Play.Client.ANIMATION,
+            PacketType.Play.Client.ENTITY_ACTION,
+            PacketType.Play.Client.HELD_ITEM_CHANGE,
+            PacketType.Play.Client.CLICK_WINDOW,
+            PacketType.Play.Client.CHAT_MESSAGE
+        };
+        Random random = new Random(42);
+        stream = new PacketType.Play.Client[STREAM];
+        for (int i = 0; i < STREAM; i++) {
+            stream[i] = mix[random.nextInt(mix.length)];
+        }
+    }
+
+    @Benchmark
+    public void loop(Blackhole blackhole) {
+        this.blackhole = blackhole;
+        for (PacketType.Play.Client type : stream) {
+            packetType = type;
+            for (SierraCheck check : checks) {
+                if (check instanceof IngoingProcessor) {
+                    ((IngoingProcessor) check).handle(null, null);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void table(Blackhole blackhole) {
+        this.blackhole = blackhole;
+        for (PacketType.Play.Client type : stream) {
+            packetType = type;
+            for (IngoingProcessor processor : table[type.ordinal()]) {
+                processor.handle(null, null);
+            }
+        }
+    }
+
+    private final class Check implements SierraCheck, IngoingProcessor {
+
+        private final PacketTypeCommon[] declared;
+
+        private Check(PacketTypeCommon[] declared) {
+            this.declared = declared;
+        }
+
+        // The checks compare the packet type against each handled type in turn before doing any work
+        @Override
+        public void handle(PacketReceiveEvent event, PlayerData playerData) {
+            if (declared == null) {
+                blackhole.consume(packetType);
+                return;
+            }
+            for (PacketTypeCommon type : declared) {
+                if (type == packetType) {
+                    blackhole.consume(packetType);
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public PacketTypeCommon[] ingoingPacketTypes() {
+            return declared;
+        }
+
+        @Override
+        public double violations() {
+            return 0;
+        }
+
+        @Override
+        public long lastDetection() {
+            return 0;
+        }
+
+        @Override
+        public void setViolations(double violations) {
+        }
+
+        @Override
+        public CheckType checkType() {
+            return null;
+        }
+    }
+}
@@ -1,13 +1,19 @@
 package de.feelix.sierra;
 
+import de.feelix.sierra.check.DetectionPipeline;
 import de.feelix.sierra.compatibility.CompatibilityHandler;
 import de.feelix.sierra.manager.event.AbstractEventBus;
 import de.feelix.sierra.manager.config.PunishmentConfig;
 import de.feelix.sierra.manager.config.SierraConfigEngine;
 import de.feelix.sierra.manager.init.InitManager;
+import de.feelix.sierra.manager.metrics.MetricsExporter;
+import de.feelix.sierra.manager.metrics.MetricsRegistry;
+import de.feelix.sierra.manager.packet.ItemVerdictCache;
 import de.feelix.sierra.manager.server.SierraServerManager;
 import de.feelix.sierra.manager.storage.AddressStorage;
 import de.feelix.sierra.manager.storage.SierraDataManager;
+import de.feelix.sierra.manager.storage.logger.LogService;
+import de.feelix.sierra.manager.storage.timings.CheckTimings;
 import de.feelix.sierra.utilities.message.ConfigValue;
 import de.feelix.sierra.utilities.update.UpdateChecker;
 import de.feelix.sierraapi.LoaderAPI;
@@ -118,11 +124,39 @@ public final class Sierra extends JavaPlugin implements SierraApi {
     private final InitManager initManager = new InitManager();
 
     /**
-     * The AddressStorage class is responsible for storing and managing IP addresses
-     * along with their corresponding added time.
+     * The AddressStorage class keeps the addresses that are blocked after a ban, along with their expiry.
      */
     private AddressStorage addressStorage = new AddressStorage();
 
+    /**
+     * The ItemVerdictCache remembers items that passed every item check, so repeated items skip the deep checks.
+     * It is shared by all players and cleared whenever the configuration is reloaded.
+     */
+    private ItemVerdictCache itemVerdictCache;
+
+    /**
+     * The DetectionPipeline reports detections on its own worker thread, so violations never stall the netty event
+     * loops with logging, console output or staff alerts.
+     */
+    private DetectionPipeline detectionPipeline;
+
+    /**
+     * The CheckTimings measure every check on every packet type, shared by all players.
+     */
+    private final CheckTimings checkTimings = new CheckTimings();
+
+    /**
+     * The MetricsRegistry collects the server-wide metrics, exported by the MetricsExporter.
+     */
+    private final MetricsRegistry metricsRegistry = new MetricsRegistry();
+
+    private final MetricsExporter metricsExporter = new MetricsExporter(metricsRegistry);
+
+    /**
+     * The LogService writes the logs of all players on a single background thread.
+     */
+    private LogService logService;
+
     /**
      * This method is called when the plugin is being enabled.
      * It initializes various components of the Sierra plugin,
@@ -132,6 +166,7 @@ public final class Sierra extends JavaPlugin implements SierraApi {
     public void onLoad() {
         plugin = this;
         sierraConfigEngine = new SierraConfigEngine();
+        itemVerdictCache = new ItemVerdictCache(sierraConfigEngine.settings().getItemVerdictCacheSize());
         initManager.load();
         updateChecker = new UpdateChecker();
     }
@@ -144,7 +179,10 @@ public final class Sierra extends JavaPlugin implements SierraApi {
     @Override
     public void onEnable() {
         long startTime = System.currentTimeMillis();
+        this.logService = new LogService(sierraConfigEngine.settings().getLogBufferSize());
         this.sierraDataManager = new SierraDataManager();
+        this.detectionPipeline = new DetectionPipeline(sierraConfigEngine.settings().getDetectionQueueSize());
+        this.addressStorage.start();
         setPrefix();
         initManager.start();
 
@@ -172,11 +210,22 @@ public final class Sierra extends JavaPlugin implements SierraApi {
     /**
      * This method is called when the plugin is being disabled.
      * It terminates the PacketEvents API if it is not null
-     * and cancels the ticker task.
+     * and cancels the ticker task. Pending detections are reported before the plugin shuts down.
      */
     @Override
     public void onDisable() {
         this.initManager.stop();
+        if (this.detectionPipeline != null) {
+            this.detectionPipeline.shutdown();
+        }
+        if (this.logService != null) {
+            this.logService.shutdown();
+        }
+        if (this.sierraDataManager != null) {
+            this.sierraDataManager.getHistoryStore().close();
+        }
+        this.addressStorage.shutdown();
+        this.metricsExporter.shutdown();
     }
 
     /**
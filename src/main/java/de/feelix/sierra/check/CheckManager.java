@@ -2,6 +2,9 @@ package de.feelix.sierra.check;
 
 import com.github.retrooper.packetevents.event.PacketReceiveEvent;
 import com.github.retrooper.packetevents.event.PacketSendEvent;
+import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+import de.feelix.sierra.Sierra;
 import de.feelix.sierra.check.impl.book.BookValidation;
 import de.feelix.sierra.check.impl.command.CommandValidation;
 import de.feelix.sierra.check.impl.creative.CreativeCrasher;
@@ -12,11 +15,13 @@ import de.feelix.sierra.check.impl.frequency.FrequencyDetection;
 import de.feelix.sierra.manager.packet.IngoingProcessor;
 import de.feelix.sierra.manager.packet.OutgoingProcessor;
 import de.feelix.sierra.manager.storage.PlayerData;
+import de.feelix.sierra.manager.storage.timings.CheckTimings;
 import de.feelix.sierraapi.check.impl.SierraCheck;
 import lombok.Getter;
 import de.feelix.sierraapi.check.CheckRepository;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -28,6 +33,27 @@ public class CheckManager implements CheckRepository {
     private final List<SierraCheck> packetChecks = new ArrayList<>();
     private final PlayerData        playerData;
 
+    /**
+     * Incoming dispatch table indexed by {@link PacketType.Play.Client} ordinal. Each slot holds the processors that
+     * subscribed to that packet type, in registration order.
+     */
+    private final IngoingProcessor[][] ingoingTable;
+
+    /**
+     * Outgoing dispatch table indexed by {@link PacketType.Play.Server} ordinal.
+     */
+    private final OutgoingProcessor[][] outgoingTable;
+
+    /**
+     * All incoming processors, used for packet types outside the play state enum.
+     */
+    private final IngoingProcessor[] allIngoing;
+
+    /**
+     * All outgoing processors, used for packet types outside the play state enum.
+     */
+    private final OutgoingProcessor[] allOutgoing;
+
     public CheckManager(PlayerData playerData) {
         this.playerData = playerData;
         packetChecks.add(new FrequencyDetection(playerData));
@@ -37,21 +63,106 @@ public class CheckManager implements CheckRepository {
         packetChecks.add(new CreativeCrasher(playerData));
         packetChecks.add(new PostCheck(playerData));
         packetChecks.add(new CommandValidation(playerData));
+
+        List<IngoingProcessor>  ingoing  = new ArrayList<>();
+        List<OutgoingProcessor> outgoing = new ArrayList<>();
+        for (SierraCheck check : packetChecks) {
+            if (check instanceof IngoingProcessor) ingoing.add((IngoingProcessor) check);
+            if (check instanceof OutgoingProcessor) outgoing.add((OutgoingProcessor) check);
+        }
+        this.allIngoing = ingoing.toArray(new IngoingProcessor[0]);
+        this.allOutgoing = outgoing.toArray(new OutgoingProcessor[0]);
+        this.ingoingTable = buildIngoingTable(ingoing);
+        this.outgoingTable = buildOutgoingTable(outgoing);
     }
 
-    public void processAvailableChecksReceive(PacketReceiveEvent event) {
-        for (SierraCheck availableCheck : packetChecks) {
-            if (availableCheck instanceof IngoingProcessor) {
-                ((IngoingProcessor) availableCheck).handle(event, playerData);
+    /**
+     * Builds the incoming dispatch table. A processor without declared packet types lands in every slot.
+     *
+     * @param processors the incoming processors in registration order
+     * @return the table indexed by client packet ordinal
+     */
+    static IngoingProcessor[][] buildIngoingTable(List<IngoingProcessor> processors) {
+        PacketType.Play.Client[] types = PacketType.Play.Client.values();
+        IngoingProcessor[][]     table = new IngoingProcessor[types.length][];
+
+        for (PacketType.Play.Client type : types) {
+            List<IngoingProcessor> slot = new ArrayList<>();
+            for (IngoingProcessor processor : processors) {
+                if (subscribes(processor.ingoingPacketTypes(), type)) slot.add(processor);
             }
+            table[type.ordinal()] = slot.toArray(new IngoingProcessor[0]);
         }
+        return table;
     }
 
-    public void processAvailableChecksSend(PacketSendEvent event) {
-        for (SierraCheck availableCheck : packetChecks) {
-            if (availableCheck instanceof OutgoingProcessor) {
-                ((OutgoingProcessor) availableCheck).handle(event, playerData);
+    /**
+     * Builds the outgoing dispatch table. A processor without declared packet types lands in every slot.
+     *
+     * @param processors the outgoing processors in registration order
+     * @return the table indexed by server packet ordinal
+     */
+    private static OutgoingProcessor[][] buildOutgoingTable(List<OutgoingProcessor> processors) {
+        PacketType.Play.Server[] types = PacketType.Play.Server.values();
+        OutgoingProcessor[][]    table = new OutgoingProcessor[types.length][];
+
+        for (PacketType.Play.Server type : types) {
+            List<OutgoingProcessor> slot = new ArrayList<>();
+            for (OutgoingProcessor processor : processors) {
+                if (subscribes(processor.outgoingPacketTypes(), type)) slot.add(processor);
             }
+            table[type.ordinal()] = slot.toArray(new OutgoingProcessor[0]);
+        }
+        return table;
+    }
+
+    private static boolean subscribes(PacketTypeCommon[] declared, PacketTypeCommon type) {
+        return declared == null || Arrays.asList(declared).contains(type);
+    }
+
+    /**
+     * Passes an incoming packet to every check subscribed to its type.
+     *
+     * @param event the incoming packet
+     */
+    public void processAvailableChecksReceive(PacketReceiveEvent event) {
+        PacketTypeCommon packetType = event.getPacketType();
+        IngoingProcessor[] processors = packetType instanceof PacketType.Play.Client
+            ? ingoingTable[((PacketType.Play.Client) packetType).ordinal()]
+            : allIngoing;
+
+        CheckTimings timings = Sierra.getPlugin().getCheckTimings();
+        for (IngoingProcessor processor : processors) {
+            long start = System.nanoTime();
+            processor.handle(event, playerData);
+            timings.recordIngoing(((SierraCheck) processor).checkType(), packetType, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Passes an outgoing packet to every check subscribed to its type.
+     *
+     * @param event the outgoing packet
+     * @param timed whether this packet was sampled for timing
+     */
+    public void processAvailableChecksSend(PacketSendEvent event, boolean timed) {
+        PacketTypeCommon packetType = event.getPacketType();
+        OutgoingProcessor[] processors = packetType instanceof PacketType.Play.Server
+            ? outgoingTable[((PacketType.Play.Server) packetType).ordinal()]
+            : allOutgoing;
+
+        if (!timed) {
+            for (OutgoingProcessor processor : processors) {
+                processor.handle(event, playerData);
+            }
+            return;
+        }
+
+        CheckTimings timings = Sierra.getPlugin().getCheckTimings();
+        for (OutgoingProcessor processor : processors) {
+            long start = System.nanoTime();
+            processor.handle(event, playerData);
+            timings.recordOutgoing(((SierraCheck) processor).checkType(), packetType, System.nanoTime() - start);
         }
     }
 
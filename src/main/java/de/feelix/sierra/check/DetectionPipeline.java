@@ -0,0 +1,150 @@
+package de.feelix.sierra.check;
+
+import de.feelix.sierra.Sierra;
+import de.feelix.sierra.utilities.MpscRingBuffer;
+import de.feelix.sierra.utilities.TokenBucket;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+
+/**
+ * The DetectionPipeline class moves the reporting side of a detection off the netty event loops. Checks only cancel
+ * the packet and count the violation inline, everything else (logging, console output, staff alerts and the API
+ * event) is submitted as a task to a bounded, lock-free {@link MpscRingBuffer} that many netty threads write to and
+ * a single worker thread drains. Producers never contend on a lock, they only wake the worker when it is parked.
+ * <p>
+ * If the queue is full, the pipeline applies backpressure instead of growing: ordinary tasks are dropped and
+ * counted. Critical tasks, the reports of kicks and bans, move to a small reserved queue the worker drains first. Only
+ * if that one is full as well, a critical task runs on the submitting thread, at most {@link #INLINE_PER_SECOND} per
+ * second; beyond that it is dropped and counted too. The punishment itself never depends on the pipeline.
+ */
+public class DetectionPipeline {
+
+    private static final int  INLINE_PER_SECOND = 8;
+    private static final long IDLE_PARK         = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final MpscRingBuffer<Runnable> queue;
+    private final MpscRingBuffer<Runnable> criticalQueue;
+    private final TokenBucket              inlineBudget = new TokenBucket(INLINE_PER_SECOND, INLINE_PER_SECOND);
+    private final Thread                   worker;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder dropped   = new LongAdder();
+    private final LongAdder inline    = new LongAdder();
+
+    private volatile boolean running = true;
+
+    // Set by the worker before it parks, so producers only unpark it when it may be waiting
+    private volatile boolean parked;
+
+    /**
+     * Creates a new pipeline and starts its worker thread.
+     *
+     * @param capacity the maximum amount of pending tasks
+     */
+    public DetectionPipeline(int capacity) {
+        this.queue = new MpscRingBuffer<>(Math.max(capacity, 16));
+        this.criticalQueue = new MpscRingBuffer<>(Math.max(capacity / 8, 16));
+        this.worker = new Thread(this::drain, "Sierra Detection Worker");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Submits a reporting task without blocking the calling thread.
+     *
+     * @param task     the task to run on the worker thread
+     * @param critical whether the task may use the reserved queue and the inline fallback if the queue is full
+     */
+    public void submit(Runnable task, boolean critical) {
+        if (running && (queue.offer(task) || (critical && criticalQueue.offer(task)))) {
+            submitted.increment();
+            if (parked) LockSupport.unpark(worker);
+            return;
+        }
+        if (critical && inlineBudget.tryAcquire(1)) {
+            inline.increment();
+            run(task);
+        } else {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Stops accepting tasks, waits for the worker to run every task that is still pending and runs the tasks that
+     * were submitted while it stopped.
+     */
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // The queues only allow a single consumer, so they are only drained here once the worker is gone
+        if (worker.isAlive()) return;
+        Runnable task;
+        while ((task = next()) != null) {
+            run(task);
+        }
+    }
+
+    public long submitted() {
+        return submitted.sum();
+    }
+
+    public long processed() {
+        return processed.sum();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    public long inline() {
+        return inline.sum();
+    }
+
+    public int pending() {
+        return queue.size() + criticalQueue.size();
+    }
+
+    private void drain() {
+        while (true) {
+            boolean  stopping = !running;
+            Runnable task     = next();
+            if (task != null) {
+                run(task);
+                continue;
+            }
+            if (stopping) return;
+
+            parked = true;
+            // A task submitted before the flag was visible did not unpark, so look once more before parking
+            if ((task = next()) == null) {
+                LockSupport.parkNanos(this, IDLE_PARK);
+            }
+            parked = false;
+            if (task != null) run(task);
+        }
+    }
+
+    private Runnable next() {
+        Runnable task = criticalQueue.poll();
+        return task != null ? task : queue.poll();
+    }
+
+    private void run(Runnable task) {
+        try {
+            task.run();
+        } catch (Exception e) {
+            Sierra.getPlugin().getLogger().log(Level.WARNING, "Unable to report detection", e);
+        } finally {
+            processed.increment();
+        }
+    }
+}
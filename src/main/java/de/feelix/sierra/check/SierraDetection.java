@@ -3,8 +3,10 @@ package de.feelix.sierra.check;
 import com.github.retrooper.packetevents.event.ProtocolPacketEvent;
 import com.github.retrooper.packetevents.protocol.player.User;
 import de.feelix.sierra.Sierra;
+import de.feelix.sierra.check.violation.ViolationDecay;
 import de.feelix.sierra.check.violation.ViolationDocument;
 import de.feelix.sierra.manager.config.SierraConfigEngine;
+import de.feelix.sierra.manager.metrics.MetricsRegistry;
 import de.feelix.sierra.manager.storage.PlayerData;
 import de.feelix.sierra.manager.storage.SierraDataManager;
 import de.feelix.sierra.manager.storage.logger.LogTag;
@@ -14,7 +16,7 @@ import de.feelix.sierraapi.check.SierraCheckData;
 import de.feelix.sierraapi.check.impl.SierraCheck;
 import de.feelix.sierraapi.events.impl.AsyncUserDetectionEvent;
 import io.github.retrooper.packetevents.adventure.serializer.legacy.LegacyComponentSerializer;
-import io.github.retrooper.packetevents.util.folia.FoliaScheduler;
+import lombok.AccessLevel;
 import lombok.Getter;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.event.ClickEvent;
@@ -22,8 +24,9 @@ import net.kyori.adventure.text.event.HoverEvent;
 import de.feelix.sierraapi.check.CheckType;
 import de.feelix.sierraapi.violation.MitigationStrategy;
 
-import java.util.Collection;
 import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.logging.Logger;
 
 /**
@@ -37,7 +40,21 @@ public class SierraDetection implements SierraCheck {
     private String friendlyName;
     private long lastDetectionTime = 0;
     private int checkId;
-    private int violations = 0;
+
+    private static final AtomicLongFieldUpdater<SierraDetection> VIOLATIONS =
+        AtomicLongFieldUpdater.newUpdater(SierraDetection.class, "violations");
+
+    // Packed violation state: milliseconds since EPOCH in the upper 40 bits, the level in the lower 24 bits
+    private static final long EPOCH      = System.currentTimeMillis();
+    private static final int  LEVEL_BITS = 24;
+    private static final long LEVEL_MASK = (1L << LEVEL_BITS) - 1;
+
+    /**
+     * The violation level and the time it was last updated, packed into one value so both change in a single
+     * compare-and-set. The current level is derived lazily by the {@link ViolationDecay} of the check type.
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile long violations = 0;
 
     /**
      * Initializes a new SierraDetection instance with the provided player data.
@@ -67,29 +84,44 @@ public class SierraDetection implements SierraCheck {
     }
 
     /**
-     * Dispatches a ProtocolPacketEvent with a ViolationDocument.
+     * Dispatches a ProtocolPacketEvent with a ViolationDocument. Only the cancellation, the violation counter and
+     * the punishment run on the calling netty thread, the detection is reported by the {@link DetectionPipeline}.
      *
      * @param event             The ProtocolPacketEvent to be dispatched.
      * @param violationDocument The ViolationDocument containing information about the violation.
      */
     public void dispatch(ProtocolPacketEvent event, ViolationDocument violationDocument) {
         playerData.cancelEvent(event);
-        this.lastDetectionTime = System.currentTimeMillis();
+        MetricsRegistry metrics = Sierra.getPlugin().getMetricsRegistry();
+        metrics.cancellation(this.checkType());
+        long now = System.currentTimeMillis();
+        this.lastDetectionTime = now;
 
-        playerData.getSierraLogger().log(LogTag.DETECTION, violationDocument.toString());
+        DetectionPipeline pipeline = Sierra.getPlugin().getDetectionPipeline();
+        String            document = violationDocument.toString();
 
-        if (playerData.isReceivedPunishment()) return;
+        if (playerData.isReceivedPunishment()) {
+            pipeline.submit(() -> playerData.getSierraLogger().log(LogTag.DETECTION, document), false);
+            return;
+        }
 
-        this.violations++;
+        int violations = incrementViolations(now);
         correctViolation(violationDocument);
-        throwDetectionEvent(violationDocument);
+        metrics.violation(this.checkType(), violationDocument.getMitigationStrategy());
+
+        // The player keeps changing on the netty thread, so the alert reads a snapshot taken at the detection
+        AlertDetails details  = new AlertDetails(event.getUser().getName(), playerData);
+        boolean      punished = violationDocument.getMitigationStrategy().mitigationOrdinal()
+                                >= MitigationStrategy.KICK.mitigationOrdinal();
 
-        User user = event.getUser();
-        logViolation(user, violationDocument);
-        alertStaff(user, violationDocument);
+        pipeline.submit(() -> {
+            playerData.getSierraLogger().log(LogTag.DETECTION, document);
+            throwDetectionEvent(violationDocument, violations);
+            logViolation(details, violationDocument, violations);
+            alertStaff(details, violationDocument, violations);
+        }, punished);
 
-        if (violationDocument.getMitigationStrategy().mitigationOrdinal()
-            >= MitigationStrategy.KICK.mitigationOrdinal()) {
+        if (punished) {
             handlePunishment(violationDocument);
         }
     }
@@ -107,38 +139,39 @@ public class SierraDetection implements SierraCheck {
     }
 
     /**
-     * Throws a detection event asynchronously.
+     * Throws a detection event on the detection worker.
      *
      * @param violationDocument The ViolationDocument containing information about the violation.
+     * @param violations        The violation count at the time of the detection.
      */
-    private void throwDetectionEvent(ViolationDocument violationDocument) {
-        FoliaScheduler.getAsyncScheduler().runNow(Sierra.getPlugin(), o -> Sierra.getPlugin()
+    private void throwDetectionEvent(ViolationDocument violationDocument, int violations) {
+        Sierra.getPlugin()
             .getEventBus()
-            .publish(new AsyncUserDetectionEvent(violationDocument, playerData, checkType(), this.violations))
-        );
+            .publish(new AsyncUserDetectionEvent(violationDocument, playerData, checkType(), violations));
     }
 
     /**
      * Logs a message to the console.
      *
-     * @param user              The User object representing the player.
+     * @param details           The details of the player at the time of the detection.
      * @param violationDocument The ViolationDocument containing information about the violation.
+     * @param violations        The violation count at the time of the detection.
      */
-    private void logViolation(User user, ViolationDocument violationDocument) {
-        if (!Sierra.getPlugin().getSierraConfigEngine().config().getBoolean("log-violation-to-console", true)
+    private void logViolation(AlertDetails details, ViolationDocument violationDocument, int violations) {
+        if (!configEngine().settings().isLogViolationToConsole()
             || violationDocument.getMitigationStrategy() == MitigationStrategy.MITIGATE) {
             return;
         }
 
         Logger logger = Sierra.getPlugin().getLogger();
-        logger.info(createGeneralMessage(user, violationDocument.getMitigationStrategy()));
+        logger.info(createGeneralMessage(details.username, violationDocument.getMitigationStrategy()));
         logger.info(createGeneralInformation(violationDocument));
-        logger.info(createGeneralCheck());
+        logger.info(createGeneralCheck(violations));
     }
 
-    private String createGeneralMessage(User user, MitigationStrategy mitigationStrategy) {
+    private String createGeneralMessage(String username, MitigationStrategy mitigationStrategy) {
         return String.format(
-            "Player %s got %s sending a protocol packet", user.getName(), mitigationStrategy.friendlyMessage());
+            "Player %s got %s sending a protocol packet", username, mitigationStrategy.friendlyMessage());
     }
 
     private String createGeneralInformation(ViolationDocument violationDocument) {
@@ -148,54 +181,56 @@ public class SierraDetection implements SierraCheck {
                 : violationDocument.debugInformation());
     }
 
-    private String createGeneralCheck() {
-        return String.format("Check Information: %s/%d - VL: %d", this.friendlyName, this.checkId, this.violations);
+    private String createGeneralCheck(int violations) {
+        return String.format("Check Information: %s/%d - VL: %d", this.friendlyName, this.checkId, violations);
     }
 
     /**
-     * Sends an alert message to staff members with information about the violation.
+     * Sends an alert message to staff members with information about the violation. The alert component is built
+     * once and sent to every subscribed staff member.
      *
-     * @param user              The User object representing the player.
+     * @param details           The details of the player at the time of the detection.
      * @param violationDocument The ViolationDocument containing information about the violation.
+     * @param violations        The violation count at the time of the detection.
      */
-    private void alertStaff(User user, ViolationDocument violationDocument) {
+    private void alertStaff(AlertDetails details, ViolationDocument violationDocument, int violations) {
+        SierraDataManager dataManager = Sierra.getPlugin().getSierraDataManager();
+        Set<User> recipients = violationDocument.getMitigationStrategy() == MitigationStrategy.MITIGATE
+            ? dataManager.getMitigationSubscribers()
+            : dataManager.getAlertSubscribers();
+
+        if (recipients.isEmpty()) return;
+
         String staffAlert = formatStaffAlertMessage(
-            user, violationDocument.getMitigationStrategy(), violationDocument.getDescription());
-        String content = formatAlertContent(user, violationDocument);
-
-        Collection<PlayerData> playerDataList = Sierra.getPlugin().getSierraDataManager().getPlayerData().values();
-        playerDataList.forEach(playerData -> {
-            if (shouldAlertPlayer(playerData, violationDocument.getMitigationStrategy())) {
-                playerData.getUser().sendMessage(
-                    LegacyComponentSerializer.legacy('&')
-                        .deserialize(staffAlert)
-                        .clickEvent(
-                            ClickEvent.clickEvent(ClickEvent.Action.RUN_COMMAND, getPunishmentCommand(user.getName())))
-                        .hoverEvent(HoverEvent.showText(Component.text(content)))
-                );
-            }
-        });
-    }
+            details.username, violationDocument.getMitigationStrategy(), violationDocument.getDescription(),
+            violations);
+        String content = formatAlertContent(details, violationDocument);
+
+        Component alert = LegacyComponentSerializer.legacy('&')
+            .deserialize(staffAlert)
+            .clickEvent(ClickEvent.clickEvent(ClickEvent.Action.RUN_COMMAND, getPunishmentCommand(details.username)))
+            .hoverEvent(HoverEvent.showText(Component.text(content)));
 
-    private boolean shouldAlertPlayer(PlayerData playerData, MitigationStrategy mitigationStrategy) {
-        return (mitigationStrategy == MitigationStrategy.MITIGATE && playerData.getMitigationSettings().enabled()) ||
-               (mitigationStrategy != MitigationStrategy.MITIGATE && playerData.getAlertSettings().enabled());
+        for (User recipient : recipients) {
+            recipient.sendMessage(alert);
+        }
     }
 
-    private String formatStaffAlertMessage(User user, MitigationStrategy mitigationStrategy, String description) {
+    private String formatStaffAlertMessage(String username, MitigationStrategy mitigationStrategy, String description,
+                                           int violations) {
         return new ConfigValue(
             "layout.detection-message.staff-alert",
             "{prefix} &b{username} &8┃ &f{mitigation} &b{checkname} &8┃ &3x{violations}", true
         )
             .colorize().replacePrefix()
-            .replace("{username}", user.getName())
+            .replace("{username}", username)
             .replace("{mitigation}", mitigationStrategy.friendlyMessage())
             .replace("{description}", description)
             .replace("{checkname}", this.friendlyName)
             .replace("{violations}", String.valueOf(violations)).message();
     }
 
-    private String formatAlertContent(User user, ViolationDocument violationDocument) {
+    private String formatAlertContent(AlertDetails details, ViolationDocument violationDocument) {
         return new ConfigValue(
             "layout.detection-message.alert-content",
             " &7Username: &b{username}{n} &7Version: &b{clientVersion}{n} &7Brand: &b{brand}{n} &7Exist since: "
@@ -203,13 +238,11 @@ public class SierraDetection implements SierraCheck {
             + "&7Debug info: &b{debugInfo}{n}{n} {alertNote}",
             true
         )
-            .replace("{username}", user.getName())
-            .replace("{clientVersion}", playerData.getUser().getClientVersion().getReleaseName()
-                .replace("V_", "")
-                .replace("_", "."))
-            .replace("{brand}", playerData.brand())
-            .replace("{ticksExisted}", playerData.ticksExisted() + " ticks")
-            .replace("{gameMode}", playerData.gameMode().name())
+            .replace("{username}", details.username)
+            .replace("{clientVersion}", details.clientVersion)
+            .replace("{brand}", details.brand)
+            .replace("{ticksExisted}", details.ticksExisted + " ticks")
+            .replace("{gameMode}", details.gameMode)
             .replace("{description}", violationDocument.getDescription())
             .replace("{tags}", this.friendlyName.toLowerCase())
             .replace("{debugInfo}", FormatUtils.shortenString(violationDocument.debugInformation()))
@@ -232,7 +265,7 @@ public class SierraDetection implements SierraCheck {
         Sierra plugin = Sierra.getPlugin();
         SierraDataManager sierraDataManager = plugin.getSierraDataManager();
 
-        sierraDataManager.addKick(this.checkType());
+        plugin.getMetricsRegistry().punishment(this.checkType());
         sierraDataManager.createPunishmentHistory(playerData.username(), playerData.version(),
                                                   violationDocument.getMitigationStrategy(),
                                                   playerData.getPingProcessor().getPing(),
@@ -245,12 +278,10 @@ public class SierraDetection implements SierraCheck {
 
     private void blockAddressIfEnabled(ViolationDocument violation) {
         boolean punishmentSetting = Sierra.getPlugin().getPunishmentConfig().isBan();
-        boolean blockConnections = Sierra.getPlugin().getSierraConfigEngine().config()
-            .getBoolean("block-connections-after-ban", true);
+        boolean blockConnections = configEngine().settings().isBlockConnectionsAfterBan();
 
         if (violation.getMitigationStrategy() == MitigationStrategy.BAN && punishmentSetting && blockConnections) {
-            Sierra.getPlugin().getAddressStorage()
-                .addIPAddress(this.playerData.getUser().getAddress().getAddress().getHostAddress());
+            Sierra.getPlugin().getAddressStorage().block(this.playerData.getUser().getAddress().getAddress());
         }
     }
 
@@ -263,9 +294,42 @@ public class SierraDetection implements SierraCheck {
         return Sierra.getPlugin().getSierraConfigEngine();
     }
 
+    /**
+     * Decays the violation level to the given time and adds one violation, in a single compare-and-set.
+     *
+     * @param now the current time in milliseconds
+     * @return the new violation level
+     */
+    private int incrementViolations(long now) {
+        while (true) {
+            long current = this.violations;
+            int  level   = (int) Math.min(violationsAt(current, now) + 1L, LEVEL_MASK);
+            if (VIOLATIONS.compareAndSet(this, current, pack(level, now))) return level;
+        }
+    }
+
+    /**
+     * Returns the violation level of a packed state at the given time, decayed by the {@link ViolationDecay} of the
+     * check type.
+     *
+     * @param state the packed violation state
+     * @param now   the current time in milliseconds
+     * @return the decayed violation level
+     */
+    private int violationsAt(long state, long now) {
+        int level = (int) (state & LEVEL_MASK);
+        if (level == 0 || rawCheckType == null) return level;
+        long updated = EPOCH + (state >>> LEVEL_BITS);
+        return configEngine().settings().violationDecay(rawCheckType).apply(level, now - updated);
+    }
+
+    private static long pack(int level, long time) {
+        return Math.max(0, time - EPOCH) << LEVEL_BITS | level & LEVEL_MASK;
+    }
+
     @Override
     public double violations() {
-        return this.violations;
+        return violationsAt(this.violations, System.currentTimeMillis());
     }
 
     @Override
@@ -273,13 +337,44 @@ public class SierraDetection implements SierraCheck {
         return this.lastDetectionTime;
     }
 
+    /**
+     * Sets the violation level. The time of the last update is kept, so the level keeps decaying from there.
+     *
+     * @param violations the new violation level
+     */
     @Override
     public void setViolations(double violations) {
-        this.violations = (int) violations;
+        int level = (int) Math.max(0, Math.min(violations, LEVEL_MASK));
+        while (true) {
+            long current = this.violations;
+            if (VIOLATIONS.compareAndSet(this, current, current & ~LEVEL_MASK | level)) return;
+        }
     }
 
     @Override
     public CheckType checkType() {
         return this.rawCheckType;
     }
+
+    /**
+     * The details of a player an alert shows, captured on the netty thread when the violation is detected.
+     */
+    private static final class AlertDetails {
+
+        private final String username;
+        private final String clientVersion;
+        private final String brand;
+        private final int    ticksExisted;
+        private final String gameMode;
+
+        private AlertDetails(String username, PlayerData playerData) {
+            this.username = username;
+            this.clientVersion = playerData.getUser().getClientVersion().getReleaseName()
+                .replace("V_", "")
+                .replace("_", ".");
+            this.brand = playerData.brand();
+            this.ticksExisted = playerData.ticksExisted();
+            this.gameMode = playerData.gameMode().name();
+        }
+    }
 }
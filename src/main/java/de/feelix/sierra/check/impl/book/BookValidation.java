@@ -6,8 +6,6 @@ import com.github.retrooper.packetevents.netty.buffer.UnpooledByteBufAllocationH
 import com.github.retrooper.packetevents.protocol.item.ItemStack;
 import com.github.retrooper.packetevents.protocol.item.type.ItemTypes;
 import com.github.retrooper.packetevents.protocol.nbt.NBTCompound;
-import com.github.retrooper.packetevents.protocol.nbt.NBTList;
-import com.github.retrooper.packetevents.protocol.nbt.NBTString;
 import com.github.retrooper.packetevents.protocol.packettype.PacketType;
 import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
 import com.github.retrooper.packetevents.protocol.player.GameMode;
@@ -19,7 +17,6 @@ import de.feelix.sierra.check.violation.Debug;
 import de.feelix.sierra.check.violation.ViolationDocument;
 import de.feelix.sierra.manager.packet.IngoingProcessor;
 import de.feelix.sierra.manager.storage.PlayerData;
-import de.feelix.sierra.utilities.CastUtil;
 import de.feelix.sierra.utilities.FieldReader;
 import de.feelix.sierra.utilities.FormatUtils;
 import de.feelix.sierra.utilities.Triple;
@@ -42,13 +39,24 @@ public class BookValidation extends SierraDetection implements IngoingProcessor
         super(playerData);
     }
 
+    @Override
+    public PacketTypeCommon[] ingoingPacketTypes() {
+        return new PacketTypeCommon[]{
+            PacketType.Play.Client.EDIT_BOOK,
+            PacketType.Play.Client.PLUGIN_MESSAGE,
+            PacketType.Play.Client.PLAYER_BLOCK_PLACEMENT,
+            PacketType.Play.Client.CREATIVE_INVENTORY_ACTION,
+            PacketType.Play.Client.CLICK_WINDOW
+        };
+    }
+
     @Override
     public void handle(PacketReceiveEvent event, PlayerData data) {
-        if (!configEngine().config().getBoolean("prevent-book-crasher", true)) {
+        if (!configEngine().settings().isPreventBookCrasher()) {
             return;
         }
 
-        boolean blockBooks = configEngine().config().getBoolean("disable-books-completely", false);
+        boolean blockBooks = configEngine().settings().isDisableBooksCompletely();
         List<String> pageList = new ArrayList<>();
 
         PacketTypeCommon packetType = event.getPacketType();
@@ -85,14 +93,14 @@ public class BookValidation extends SierraDetection implements IngoingProcessor
             return;
         }
 
-        pageList.addAll(CastUtil.getSupplier(
-            () -> new WrapperPlayClientEditBook(event), data::exceptionDisconnect).getPages());
+        pageList.addAll(data.getPacketContext().decode(
+            event, WrapperPlayClientEditBook.class, WrapperPlayClientEditBook::new).getPages());
     }
 
     private void handlePluginMessage(PacketReceiveEvent event, PlayerData data, boolean blockBooks,
                                      List<String> pageList) {
-        WrapperPlayClientPluginMessage wrapper = CastUtil.getSupplier(
-            () -> new WrapperPlayClientPluginMessage(event), data::exceptionDisconnect);
+        WrapperPlayClientPluginMessage wrapper = data.getPacketContext().decode(
+            event, WrapperPlayClientPluginMessage.class, WrapperPlayClientPluginMessage::new);
 
         if (wrapper.getChannelName().contains("MC|BEdit") || wrapper.getChannelName().contains("MC|BSign")) {
             processPluginMessage(event, blockBooks, pageList, wrapper);
@@ -125,8 +133,8 @@ public class BookValidation extends SierraDetection implements IngoingProcessor
 
     private void handleBlockPlacement(PacketReceiveEvent event, PlayerData data, boolean blockBooks,
                                       List<String> pageList) {
-        WrapperPlayClientPlayerBlockPlacement wrapper = CastUtil.getSupplier(
-            () -> new WrapperPlayClientPlayerBlockPlacement(event), data::exceptionDisconnect);
+        WrapperPlayClientPlayerBlockPlacement wrapper = data.getPacketContext().decode(
+            event, WrapperPlayClientPlayerBlockPlacement.class, WrapperPlayClientPlayerBlockPlacement::new);
 
         if (wrapper.getItemStack().isPresent()) {
             ItemStack itemStack = wrapper.getItemStack().get();
@@ -148,8 +156,8 @@ public class BookValidation extends SierraDetection implements IngoingProcessor
             return;
         }
 
-        WrapperPlayClientCreativeInventoryAction wrapper = CastUtil.getSupplier(
-            () -> new WrapperPlayClientCreativeInventoryAction(event), data::exceptionDisconnect);
+        WrapperPlayClientCreativeInventoryAction wrapper = data.getPacketContext().decode(
+            event, WrapperPlayClientCreativeInventoryAction.class, WrapperPlayClientCreativeInventoryAction::new);
 
         int slot = wrapper.getSlot();
 
@@ -169,6 +177,7 @@ public class BookValidation extends SierraDetection implements IngoingProcessor
     private void checkGeneral(PacketReceiveEvent event, boolean blockBooks, List<String> pageList,
                               ItemStack itemStack) {
         if (checkForInvalidAuthor(event, blockBooks, itemStack)) return;
+        if (isKnownGood(event, itemStack)) return;
 
         if (invalidTitleOrAuthor(itemStack)) {
             replaceTags(itemStack);
@@ -179,7 +188,7 @@ public class BookValidation extends SierraDetection implements IngoingProcessor
                 .build());
         }
 
-        pageList.addAll(getPages(itemStack));
+        pageList.addAll(getPages(event, itemStack));
     }
 
     private boolean checkForInvalidAuthor(PacketReceiveEvent event, boolean blockBooks, ItemStack itemStack) {
@@ -197,8 +206,8 @@ public class BookValidation extends SierraDetection implements IngoingProcessor
 
     private void handleClickWindow(PacketReceiveEvent event, PlayerData data, boolean blockBooks,
                                    List<String> pageList) {
-        WrapperPlayClientClickWindow wrapper = CastUtil.getSupplier(
-            () -> new WrapperPlayClientClickWindow(event), data::exceptionDisconnect);
+        WrapperPlayClientClickWindow wrapper = data.getPacketContext().decode(
+            event, WrapperPlayClientClickWindow.class, WrapperPlayClientClickWindow::new);
 
         if (wrapper == null) return;
 
@@ -221,6 +230,7 @@ public class BookValidation extends SierraDetection implements IngoingProcessor
         if (itemStack.getType() != ItemTypes.WRITABLE_BOOK && itemStack.getType() != ItemTypes.WRITTEN_BOOK) {
             return;
         }
+        if (isKnownGood(event, itemStack)) return;
 
         if (invalidTitleOrAuthor(itemStack)) {
             replaceTags(itemStack);
@@ -231,7 +241,7 @@ public class BookValidation extends SierraDetection implements IngoingProcessor
                 .build());
         }
 
-        pageList.addAll(getPages(itemStack));
+        pageList.addAll(getPages(event, itemStack));
     }
 
     private void replaceTags(ItemStack carriedItemStack) {
@@ -353,8 +363,8 @@ public class BookValidation extends SierraDetection implements IngoingProcessor
     private static @Nullable Triple<String, MitigationStrategy, List<Debug<?>>> checkFieldReadable(String pageContent) {
         if (FieldReader.isReadable(pageContent) && !pageContent.isEmpty() && !Sierra.getPlugin()
             .getSierraConfigEngine()
-            .config()
-            .getBoolean("skip-book-readable-check", false)) {
+            .settings()
+            .isSkipBookReadableCheck()) {
             return new Triple<>(
                 "interacted with an invalid item", MitigationStrategy.MITIGATE,
                 Collections.singletonList(new Debug<>("Tag", "Not readable"))
@@ -426,16 +436,12 @@ public class BookValidation extends SierraDetection implements IngoingProcessor
         return false;
     }
 
-    private List<String> getPages(ItemStack itemStack) {
-        List<String> pageList = new ArrayList<>();
-        if (itemStack.getNBT() != null) {
-            NBTList<NBTString> nbtList = itemStack.getNBT().getStringListTagOrNull("pages");
-            if (nbtList != null) {
-                for (NBTString tag : nbtList.getTags()) {
-                    pageList.add(tag.getValue());
-                }
-            }
-        }
-        return pageList;
+    private boolean isKnownGood(PacketReceiveEvent event, ItemStack itemStack) {
+        return itemStack.getNBT() != null && playerData.getPacketContext().analyze(event, itemStack).isKnownGood();
+    }
+
+    private List<String> getPages(PacketReceiveEvent event, ItemStack itemStack) {
+        if (itemStack.getNBT() == null) return Collections.emptyList();
+        return playerData.getPacketContext().analyze(event, itemStack).getPages();
     }
 }
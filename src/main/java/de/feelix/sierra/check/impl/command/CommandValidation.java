@@ -11,7 +11,8 @@ import de.feelix.sierra.check.violation.ViolationDocument;
 import de.feelix.sierra.manager.config.SierraConfigEngine;
 import de.feelix.sierra.manager.packet.IngoingProcessor;
 import de.feelix.sierra.manager.storage.PlayerData;
-import de.feelix.sierra.utilities.CastUtil;
+import de.feelix.sierra.utilities.RateLimit;
+import de.feelix.sierra.utilities.RateLimiter;
 import de.feelix.sierraapi.check.SierraCheckData;
 import de.feelix.sierraapi.check.CheckType;
 import de.feelix.sierraapi.violation.MitigationStrategy;
@@ -36,43 +37,55 @@ public class CommandValidation extends SierraDetection implements IngoingProcess
     private long   lastEntry            = 0;
     private int    commandSpamBuffer    = 0;
 
+    private final RateLimiter commandRateLimiter = new RateLimiter(1);
+
     public CommandValidation(PlayerData playerData) {
         super(playerData);
     }
 
+    @Override
+    public PacketTypeCommon[] ingoingPacketTypes() {
+        return new PacketTypeCommon[]{
+            PacketType.Play.Client.UPDATE_COMMAND_BLOCK,
+            PacketType.Play.Client.CHAT_MESSAGE,
+            PacketType.Play.Client.NAME_ITEM,
+            PacketType.Play.Client.CHAT_COMMAND
+        };
+    }
+
     @Override
     public void handle(PacketReceiveEvent event, PlayerData playerData) {
-        if (!configEngine().config().getBoolean("block-disallowed-commands", true)) {
+        if (!configEngine().settings().isBlockDisallowedCommands()) {
             return;
         }
 
         PacketTypeCommon packetType = event.getPacketType();
         if (packetType.equals(PacketType.Play.Client.UPDATE_COMMAND_BLOCK)) {
 
-            WrapperPlayClientUpdateCommandBlock commandBlockWrapper = CastUtil.getSupplier(
-                () -> new WrapperPlayClientUpdateCommandBlock(event), playerData::exceptionDisconnect);
+            WrapperPlayClientUpdateCommandBlock commandBlockWrapper = playerData.getPacketContext().decode(
+                event, WrapperPlayClientUpdateCommandBlock.class, WrapperPlayClientUpdateCommandBlock::new);
 
             checkDisallowedCommand(event, commandBlockWrapper.getCommand().toLowerCase().replaceAll("\\s+",
                                                                                                     " "));
 
         } else if (packetType.equals(PacketType.Play.Client.CHAT_MESSAGE)) {
 
-            WrapperPlayClientChatMessage chatMessageWrapper = CastUtil.getSupplier(
-                () -> new WrapperPlayClientChatMessage(event), playerData::exceptionDisconnect);
+            WrapperPlayClientChatMessage chatMessageWrapper = playerData.getPacketContext().decode(
+                event, WrapperPlayClientChatMessage.class, WrapperPlayClientChatMessage::new);
 
             handleChatMessage(event, chatMessageWrapper.getMessage().toLowerCase().replaceAll("\\s+",
                                                                                               " "));
         } else if (packetType.equals(PacketType.Play.Client.NAME_ITEM)) {
 
-            WrapperPlayClientNameItem nameItemWrapper = CastUtil.getSupplier(
-                () -> new WrapperPlayClientNameItem(event), playerData::exceptionDisconnect);
+            WrapperPlayClientNameItem nameItemWrapper = playerData.getPacketContext().decode(
+                event, WrapperPlayClientNameItem.class, WrapperPlayClientNameItem::new);
 
             checkForLog4J(event, nameItemWrapper.getItemName().toLowerCase().replaceAll("\\s+",
                                                                                         " "));
         } else if (packetType.equals(PacketType.Play.Client.CHAT_COMMAND)) {
 
-            WrapperPlayClientChatCommand chatCommandWrapper = CastUtil.getSupplier(
-                () -> new WrapperPlayClientChatCommand(event), playerData::exceptionDisconnect);
+            WrapperPlayClientChatCommand chatCommandWrapper = playerData.getPacketContext().decode(
+                event, WrapperPlayClientChatCommand.class, WrapperPlayClientChatCommand::new);
 
             handleChatMessage(event, chatCommandWrapper.getCommand().toLowerCase().replaceAll("\\s+",
                                                                                               " "));
@@ -98,17 +111,19 @@ public class CommandValidation extends SierraDetection implements IngoingProcess
     private void checkForPluginExploits(PacketReceiveEvent event, String command) {
         command = command.replace("minecraft:", "").replace("/", "");
 
-        if (System.currentTimeMillis() - lastEntry < 1000) {
-            commandSpamBuffer++;
-            if (commandSpamBuffer > 5) {
-                this.dispatch(event, ViolationDocument.builder()
-                    .description("is using commands too frequent")
-                    .mitigationStrategy(commandSpamBuffer > 50 ? MitigationStrategy.KICK : MitigationStrategy.MITIGATE)
-                    .debugs(Collections.singletonList(new Debug<>("Delay", (System.currentTimeMillis() - lastEntry))))
-                    .build());
-            }
-        } else {
+        RateLimit limit = configEngine().settings().getCommandRateLimit();
+        if (commandRateLimiter.tryAcquire(0, limit, System.nanoTime())) {
             commandSpamBuffer = 0;
+        } else {
+            commandSpamBuffer++;
+            this.dispatch(event, ViolationDocument.builder()
+                .description("is using commands too frequent")
+                .mitigationStrategy(commandSpamBuffer > 50 ? MitigationStrategy.KICK : MitigationStrategy.MITIGATE)
+                .debugs(Arrays.asList(
+                    new Debug<>("Delay", (System.currentTimeMillis() - lastEntry)),
+                    new Debug<>("Limit", limit)
+                ))
+                .build());
         }
 
         for (String placeholder : Arrays.asList("[pos]", "[time]")) {
@@ -146,10 +161,7 @@ public class CommandValidation extends SierraDetection implements IngoingProcess
     }
 
     private void checkDisallowedCommand(PacketReceiveEvent event, String commandLine) {
-        for (String disallowedCommand : Sierra.getPlugin()
-            .getSierraConfigEngine()
-            .config()
-            .getStringList("disallowed-commands")) {
+        for (String disallowedCommand : configEngine().settings().getDisallowedCommands()) {
             if (commandLine.contains(disallowedCommand)) {
                 if (playerHasNoPermission()) {
                     this.dispatch(event, ViolationDocument.builder()
@@ -197,10 +209,7 @@ public class CommandValidation extends SierraDetection implements IngoingProcess
     }
 
     private void checkForDoubleCommands(PacketReceiveEvent event, String message) {
-        for (String disallowedCommand : Sierra.getPlugin()
-            .getSierraConfigEngine()
-            .config()
-            .getStringList("disallowed-commands")) {
+        for (String disallowedCommand : configEngine().settings().getDisallowedCommands()) {
             if (message.contains(disallowedCommand)) {
                 if (playerHasNoPermission()) {
                     this.dispatch(event, ViolationDocument.builder()
@@ -239,18 +248,17 @@ public class CommandValidation extends SierraDetection implements IngoingProcess
 
     /**
      * This method checks if the player has the necessary permission to perform an action.
-     * It retrieves the enable-bypass-permission configuration option from the sierra.yml file
+     * It reads the enable-bypass-permission option from the compiled settings
      * and checks if the player has the bypass permission.
      *
      * @return true if the player does not have the necessary permission, false otherwise
      * @see Sierra#getPlugin()
      * @see Sierra#getSierraConfigEngine()
-     * @see SierraConfigEngine#config()
+     * @see SierraConfigEngine#settings()
      * @see PlayerData#hasBypassPermission()
      */
     private boolean playerHasNoPermission() {
-        return !configEngine().config()
-            .getBoolean("enable-bypass-permission", false) || !playerData.hasBypassPermission();
+        return !configEngine().settings().isEnableBypassPermission() || !playerData.hasBypassPermission();
     }
 
     private boolean isInvalidMultiverseCommand(String testString) {
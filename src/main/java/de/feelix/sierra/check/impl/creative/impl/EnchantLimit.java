@@ -9,6 +9,7 @@ import com.github.retrooper.packetevents.protocol.nbt.NBTNumber;
 import com.github.retrooper.packetevents.protocol.player.ClientVersion;
 import de.feelix.sierra.Sierra;
 import de.feelix.sierra.check.impl.creative.ItemCheck;
+import de.feelix.sierra.manager.config.SierraSettings;
 import de.feelix.sierra.check.violation.Debug;
 import de.feelix.sierra.manager.storage.PlayerData;
 import de.feelix.sierra.utilities.Triple;
@@ -41,6 +42,8 @@ public class EnchantLimit implements ItemCheck {
 
             if (enchantments == null) return null;
 
+            SierraSettings settings = Sierra.getPlugin().getSierraConfigEngine().settings();
+
             for (int i = 0; i < enchantments.size(); i++) {
                 NBTCompound enchantment = enchantments.getTag(i);
                 if (enchantment.getTags().containsKey("lvl")) {
@@ -48,13 +51,8 @@ public class EnchantLimit implements ItemCheck {
 
                     if (number == null) return null;
 
-                    if ((number.getAsInt() < 0 && !Sierra.getPlugin()
-                        .getSierraConfigEngine()
-                        .config()
-                        .getBoolean("allow-negative-enchantments", false)) || number.getAsInt() > Sierra.getPlugin()
-                        .getSierraConfigEngine()
-                        .config()
-                        .getInt("max-enchantment-level", 5)) {
+                    if ((number.getAsInt() < 0 && !settings.isAllowNegativeEnchantments())
+                        || number.getAsInt() > settings.getMaxEnchantmentLevel()) {
 
                         return new Triple<>(
                             "interacted on an item with invalid level", MitigationStrategy.KICK,
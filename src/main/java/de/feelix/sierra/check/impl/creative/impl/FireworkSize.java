@@ -10,7 +10,6 @@ import com.github.retrooper.packetevents.wrapper.play.client.WrapperPlayClientPl
 import de.feelix.sierra.check.impl.creative.ItemCheck;
 import de.feelix.sierra.check.violation.Debug;
 import de.feelix.sierra.manager.storage.PlayerData;
-import de.feelix.sierra.utilities.CastUtil;
 import de.feelix.sierra.utilities.Triple;
 import de.feelix.sierraapi.violation.MitigationStrategy;
 
@@ -32,10 +31,8 @@ public class FireworkSize implements ItemCheck {
 
         if (event.getPacketType() == PacketType.Play.Client.PLAYER_BLOCK_PLACEMENT) {
 
-            WrapperPlayClientPlayerBlockPlacement wrapper = CastUtil.getSupplier(
-                () -> new WrapperPlayClientPlayerBlockPlacement(event),
-                playerData::exceptionDisconnect
-            );
+            WrapperPlayClientPlayerBlockPlacement wrapper = playerData.getPacketContext().decode(
+                event, WrapperPlayClientPlayerBlockPlacement.class, WrapperPlayClientPlayerBlockPlacement::new);
 
             if (wrapper.getItemStack().isPresent()) {
                 if (this.invalid(wrapper.getItemStack().get())) {
@@ -46,10 +43,8 @@ public class FireworkSize implements ItemCheck {
                 }
             }
         } else if (event.getPacketType() == PacketType.Play.Client.CLICK_WINDOW) {
-            WrapperPlayClientClickWindow wrapper = CastUtil.getSupplier(
-                () -> new WrapperPlayClientClickWindow(event),
-                playerData::exceptionDisconnect
-            );
+            WrapperPlayClientClickWindow wrapper = playerData.getPacketContext().decode(
+                event, WrapperPlayClientClickWindow.class, WrapperPlayClientClickWindow::new);
             if (wrapper.getCarriedItemStack() != null) {
                 if (this.invalid(wrapper.getCarriedItemStack())) {
                     return new Triple<>(
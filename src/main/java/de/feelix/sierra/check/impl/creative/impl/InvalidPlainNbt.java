@@ -10,7 +10,6 @@ import com.github.retrooper.packetevents.wrapper.play.client.WrapperPlayClientPl
 import de.feelix.sierra.check.impl.creative.ItemCheck;
 import de.feelix.sierra.check.violation.Debug;
 import de.feelix.sierra.manager.storage.PlayerData;
-import de.feelix.sierra.utilities.CastUtil;
 import de.feelix.sierra.utilities.Triple;
 import de.feelix.sierraapi.violation.MitigationStrategy;
 
@@ -99,18 +98,14 @@ public class InvalidPlainNbt implements ItemCheck {
                                                                           NBTCompound nbtCompound, PlayerData playerData) {
 
         if (event.getPacketType() == PacketType.Play.Client.PLAYER_BLOCK_PLACEMENT) {
-            WrapperPlayClientPlayerBlockPlacement wrapper = CastUtil.getSupplier(
-                () -> new WrapperPlayClientPlayerBlockPlacement(event),
-                playerData::exceptionDisconnect
-            );
+            WrapperPlayClientPlayerBlockPlacement wrapper = playerData.getPacketContext().decode(
+                event, WrapperPlayClientPlayerBlockPlacement.class, WrapperPlayClientPlayerBlockPlacement::new);
             if (wrapper.getItemStack().isPresent()) {
                 return invalidNbt(wrapper.getItemStack().get());
             }
         } else if (event.getPacketType() == PacketType.Play.Client.CLICK_WINDOW) {
-            WrapperPlayClientClickWindow wrapper = CastUtil.getSupplier(
-                () -> new WrapperPlayClientClickWindow(event),
-                playerData::exceptionDisconnect
-            );
+            WrapperPlayClientClickWindow wrapper = playerData.getPacketContext().decode(
+                event, WrapperPlayClientClickWindow.class, WrapperPlayClientClickWindow::new);
             return invalidNbt(wrapper.getCarriedItemStack());
         }
         return null;
@@ -11,31 +11,31 @@ import com.github.retrooper.packetevents.wrapper.play.client.WrapperPlayClientPl
 import com.github.retrooper.packetevents.wrapper.play.client.WrapperPlayClientPluginMessage;
 import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerCloseWindow;
 import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerOpenWindow;
-import de.feelix.sierra.Sierra;
 import de.feelix.sierra.check.SierraDetection;
 import de.feelix.sierra.check.violation.Debug;
 import de.feelix.sierra.check.violation.ViolationDocument;
-import de.feelix.sierra.manager.init.impl.start.Ticker;
+import de.feelix.sierra.manager.config.SierraSettings;
 import de.feelix.sierra.manager.packet.IngoingProcessor;
 import de.feelix.sierra.manager.packet.OutgoingProcessor;
 import de.feelix.sierra.manager.storage.PlayerData;
 import de.feelix.sierra.utilities.CastUtil;
+import de.feelix.sierra.utilities.RateLimit;
+import de.feelix.sierra.utilities.RateLimiter;
 import de.feelix.sierraapi.check.CheckType;
 import de.feelix.sierraapi.check.SierraCheckData;
 import de.feelix.sierraapi.violation.MitigationStrategy;
-import org.bukkit.configuration.file.YamlConfiguration;
 
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 
 @SierraCheckData(checkType = CheckType.FREQUENCY)
 public class FrequencyDetection extends SierraDetection implements IngoingProcessor, OutgoingProcessor {
 
-    private int lastBookEditTick = 0;
-    private int lastDropItemTick = 0;
-    private int lastCraftRequestTick = 0;
-    private int dropCount = 0;
+    // Extra rate limiter slots after the packet slots
+    private static final int BOOK_EDIT_SLOT      = SierraSettings.PACKET_SLOTS;
+    private static final int RECIPE_REQUEST_SLOT = SierraSettings.PACKET_SLOTS + 1;
+    private static final int ITEM_DROP_SLOT      = SierraSettings.PACKET_SLOTS + 2;
+
     private int containerId = -1;
 
     long timerBalanceRealTime = 0;
@@ -51,42 +51,51 @@ public class FrequencyDetection extends SierraDetection implements IngoingProces
 
     boolean hasGottenMovementAfterTransaction = false;
 
-    private final HashMap<PacketTypeCommon, Integer> packetCounts = new HashMap<>();
+    // One token bucket per packet type, indexed by SierraSettings#packetIndex, followed by the action slots
+    private final RateLimiter rateLimiter = new RateLimiter(SierraSettings.PACKET_SLOTS + 3);
 
     public FrequencyDetection(PlayerData playerData) {
         super(playerData);
     }
 
+    @Override
+    public PacketTypeCommon[] outgoingPacketTypes() {
+        return new PacketTypeCommon[]{PacketType.Play.Server.OPEN_WINDOW};
+    }
+
     @Override
     public void handle(PacketReceiveEvent event, PlayerData playerData) {
 
-        if (!configEngine().config().getBoolean("prevent-packet-frequency", true)) {
+        if (!configEngine().settings().isPreventPacketFrequency()) {
             return;
         }
 
         playerData.getTimingProcessor().getFrequencyTask().prepare();
+        process(event, playerData);
+        playerData.getTimingProcessor().getFrequencyTask().end();
+    }
+
+    private void process(PacketReceiveEvent event, PlayerData playerData) {
         PacketTypeCommon packetType = event.getPacketType();
 
         if (!WrapperPlayClientPlayerFlying.isFlying(event.getPacketType())) {
 
-            YamlConfiguration configuration = Sierra.getPlugin().getSierraConfigEngine().config();
-            if (configuration.getStringList("excluded-packets-from-limit").contains(packetType.getName())) return;
-
-            long current = System.currentTimeMillis();
-
-            packetCounts.merge(packetType, 1, Integer::sum);
+            SierraSettings settings = configEngine().settings();
+            int packetIndex = SierraSettings.packetIndex(packetType);
+            if (settings.isExcludedFromLimit(packetIndex)) return;
 
-            int limit = retrieveLimitFromConfiguration(packetType);
-            int packetCount = packetCounts.getOrDefault(packetType, 0);
+            long      current = System.currentTimeMillis();
+            long      now     = System.nanoTime();
+            RateLimit limit   = settings.packetRateLimit(packetIndex);
 
-            if (packetCount > limit) {
+            if (!rateLimiter.tryAcquire(packetIndex, limit, now)) {
                 this.dispatch(event, ViolationDocument.builder()
                     .description("is sending packets too frequent")
-                    .mitigationStrategy(MitigationStrategy.KICK)
+                    .mitigationStrategy(settings.getGenericPacketFrequencyMitigation())
                     .debugs(Arrays.asList(
                         new Debug<>("Packet", packetType.getName()),
                         new Debug<>("Limit", limit),
-                        new Debug<>("Count", packetCount),
+                        new Debug<>("Count", rateLimiter.used(packetIndex, limit, now) + 1),
                         new Debug<>("Alive", playerData.getPingProcessor().getPing()),
                         new Debug<>("Transaction", playerData.getTransactionProcessor().getTransactionPing()),
                         new Debug<>("Version", playerData.getClientVersion().getReleaseName()),
@@ -95,8 +104,6 @@ public class FrequencyDetection extends SierraDetection implements IngoingProces
                     .build());
                 return;
             }
-        } else {
-            this.packetCounts.clear();
         }
 
         if (packetType.equals(PacketType.Play.Client.EDIT_BOOK)) {
@@ -121,8 +128,6 @@ public class FrequencyDetection extends SierraDetection implements IngoingProces
         timerBalanceRealTime += (long) 50e6;
 
         doCheck(event);
-
-        playerData.getTimingProcessor().getFrequencyTask().end();
     }
 
     // Check from: https://github.com/GrimAnticheat/Grim -> Credits to MWHunter
@@ -172,22 +177,8 @@ public class FrequencyDetection extends SierraDetection implements IngoingProces
                packetType == PacketType.Play.Client.WINDOW_CONFIRMATION;
     }
 
-    private int retrieveLimitFromConfiguration(PacketTypeCommon packetType) {
-
-        int limit = configEngine().config().getInt("generic-packet-frequency-default", 50);
-        for (String string : configEngine().config().getStringList("generic-packet-frequency-limit")) {
-
-            String[] parts = string.split(":");
-            if (parts[0].equals(packetType.getName())) {
-                limit = Integer.parseInt(parts[1]);
-                break;
-            }
-        }
-        return limit;
-    }
-
     private void handleEditBook(PacketReceiveEvent event) {
-        if (isSpamming(lastBookEditTick)) {
+        if (isEditingBooksTooFast()) {
             this.dispatch(event, ViolationDocument.builder()
                 .description("is editing books too frequent")
                 .mitigationStrategy(MitigationStrategy.KICK)
@@ -197,12 +188,12 @@ public class FrequencyDetection extends SierraDetection implements IngoingProces
     }
 
     private void handlePluginMessage(PacketReceiveEvent event, PlayerData playerData) {
-        WrapperPlayClientPluginMessage wrapper = CastUtil.getSupplier(
-            () -> new WrapperPlayClientPluginMessage(event), playerData::exceptionDisconnect);
+        WrapperPlayClientPluginMessage wrapper = playerData.getPacketContext().decode(
+            event, WrapperPlayClientPluginMessage.class, WrapperPlayClientPluginMessage::new);
 
         String channelName = wrapper.getChannelName();
         if (channelName.contains("MC|BEdit") || channelName.contains("MC|BSign")) {
-            if (isSpamming(lastBookEditTick)) {
+            if (isEditingBooksTooFast()) {
                 this.dispatch(event, ViolationDocument.builder()
                     .description("is sending payloads too frequent")
                     .mitigationStrategy(MitigationStrategy.KICK)
@@ -213,51 +204,36 @@ public class FrequencyDetection extends SierraDetection implements IngoingProces
     }
 
     private void handleCraftRecipeRequest(PacketReceiveEvent event) {
-        int currentTick = Ticker.getInstance().getCurrentTick();
-        if (lastCraftRequestTick + 10 > currentTick) {
+        RateLimit limit = configEngine().settings().getRecipeRequestRateLimit();
+        if (!rateLimiter.tryAcquire(RECIPE_REQUEST_SLOT, limit, System.nanoTime())) {
             this.dispatch(event, ViolationDocument.builder()
                 .description("is requesting recipes too frequent")
                 .mitigationStrategy(MitigationStrategy.MITIGATE)
                 .debugs(Collections.singletonList(new Debug<>("Tag", "RecipeRequest")))
                 .build());
             event.getUser().sendPacket(new WrapperPlayServerCloseWindow(this.containerId));
-        } else {
-            lastCraftRequestTick = currentTick;
         }
     }
 
     private void handlePlayerDigging(PacketReceiveEvent event, PlayerData playerData) {
-        WrapperPlayClientPlayerDigging wrapper = CastUtil.getSupplier(
-            () -> new WrapperPlayClientPlayerDigging(event), playerData::exceptionDisconnect);
-
-        if (wrapper.getAction() == DiggingAction.DROP_ITEM) {
-            int currentTick = Ticker.getInstance().getCurrentTick();
-
-            if (playerData.getGameMode() != GameMode.SPECTATOR) {
-                if (lastDropItemTick != currentTick) {
-                    dropCount = 0;
-                    lastDropItemTick = currentTick;
-                } else {
-                    dropCount++;
-                    if (dropCount >= 20) {
-                        this.dispatch(event, ViolationDocument.builder()
-                            .description("is digging too frequent")
-                            .mitigationStrategy(MitigationStrategy.KICK)
-                            .debugs(Collections.singletonList(new Debug<>("Tag", "Digging")))
-                            .build());
-                    }
-                }
+        WrapperPlayClientPlayerDigging wrapper = playerData.getPacketContext().decode(
+            event, WrapperPlayClientPlayerDigging.class, WrapperPlayClientPlayerDigging::new);
+
+        if (wrapper.getAction() == DiggingAction.DROP_ITEM && playerData.getGameMode() != GameMode.SPECTATOR) {
+            RateLimit limit = configEngine().settings().getItemDropRateLimit();
+            if (!rateLimiter.tryAcquire(ITEM_DROP_SLOT, limit, System.nanoTime())) {
+                this.dispatch(event, ViolationDocument.builder()
+                    .description("is digging too frequent")
+                    .mitigationStrategy(MitigationStrategy.KICK)
+                    .debugs(Collections.singletonList(new Debug<>("Tag", "Digging")))
+                    .build());
             }
         }
     }
 
-    private boolean isSpamming(int lastActionTick) {
-        int currentTick = Ticker.getInstance().getCurrentTick();
-        boolean isSpamming = lastActionTick + 20 > currentTick;
-        if (!isSpamming) {
-            lastBookEditTick = currentTick;
-        }
-        return isSpamming;
+    private boolean isEditingBooksTooFast() {
+        RateLimit limit = configEngine().settings().getBookEditRateLimit();
+        return !rateLimiter.tryAcquire(BOOK_EDIT_SLOT, limit, System.nanoTime());
     }
 
     @Override
@@ -0,0 +1,48 @@
+package de.feelix.sierra.check.impl.frequency;
+
+import java.util.Locale;
+
+/**
+ * The PacketFrequencyUnit enum decides what the rates of the packet frequency limit are counted in.
+ */
+public enum PacketFrequencyUnit {
+
+    /**
+     * Rates are packets per client tick of 50 milliseconds, the scale of the former per-flying-packet counters.
+     */
+    TICK(20),
+
+    /**
+     * Rates are packets per second, which is twenty times stricter than {@link #TICK}.
+     */
+    SECOND(1);
+
+    private final int perSecond;
+
+    PacketFrequencyUnit(int perSecond) {
+        this.perSecond = perSecond;
+    }
+
+    /**
+     * Returns how many of this unit fit into one second.
+     *
+     * @return the factor that converts a rate in this unit into a rate per second
+     */
+    public int perSecond() {
+        return perSecond;
+    }
+
+    /**
+     * Parses a unit, ignoring the case.
+     *
+     * @param input the name of the unit
+     * @return the unit, or TICK if the input is unknown
+     */
+    public static PacketFrequencyUnit parse(String input) {
+        try {
+            return valueOf(input.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return TICK;
+        }
+    }
+}
@@ -14,7 +14,6 @@ import de.feelix.sierra.check.violation.ViolationDocument;
 import de.feelix.sierra.manager.packet.IngoingProcessor;
 import de.feelix.sierra.manager.storage.PlayerData;
 import de.feelix.sierra.manager.storage.SierraDataManager;
-import de.feelix.sierra.utilities.CastUtil;
 import de.feelix.sierra.utilities.FormatUtils;
 import de.feelix.sierraapi.check.CheckType;
 import de.feelix.sierraapi.check.SierraCheckData;
@@ -46,9 +45,22 @@ public class MovementValidation extends SierraDetection implements IngoingProces
         super(playerData);
     }
 
+    @Override
+    public PacketTypeCommon[] ingoingPacketTypes() {
+        return new PacketTypeCommon[]{
+            PacketType.Play.Client.PLAYER_FLYING,
+            PacketType.Play.Client.PLAYER_POSITION,
+            PacketType.Play.Client.PLAYER_POSITION_AND_ROTATION,
+            PacketType.Play.Client.PLAYER_ROTATION,
+            PacketType.Play.Client.VEHICLE_MOVE,
+            PacketType.Play.Client.PONG,
+            PacketType.Play.Client.WINDOW_CONFIRMATION
+        };
+    }
+
     @Override
     public void handle(PacketReceiveEvent event, PlayerData data) {
-        if (!configEngine().config().getBoolean("prevent-protocol-move", true)) {
+        if (!configEngine().settings().isPreventProtocolMove()) {
             return;
         }
 
@@ -65,8 +77,8 @@ public class MovementValidation extends SierraDetection implements IngoingProces
     }
 
     private void handleFlyingPacket(PacketReceiveEvent event, PlayerData playerData) {
-        WrapperPlayClientPlayerFlying wrapper = CastUtil.getSupplier(
-            () -> new WrapperPlayClientPlayerFlying(event), playerData::exceptionDisconnect);
+        WrapperPlayClientPlayerFlying wrapper = playerData.getPacketContext().decode(
+            event, WrapperPlayClientPlayerFlying.class, WrapperPlayClientPlayerFlying::new);
 
         if (wrapper.hasRotationChanged()) {
             checkInvalidRotation(wrapper, event);
@@ -91,7 +103,7 @@ public class MovementValidation extends SierraDetection implements IngoingProces
     }
 
     private void handleLatencyAbuse(PacketReceiveEvent event, PlayerData data) {
-        if (!configEngine().config().getBoolean("prevent-timer-cheats", true)) {
+        if (!configEngine().settings().isPreventTimerCheats()) {
             return;
         }
 
@@ -148,8 +160,8 @@ public class MovementValidation extends SierraDetection implements IngoingProces
     }
 
     private void handleVehicleMove(PacketReceiveEvent event, PlayerData data) {
-        WrapperPlayClientVehicleMove wrapper = CastUtil.getSupplier(
-            () -> new WrapperPlayClientVehicleMove(event), data::exceptionDisconnect);
+        WrapperPlayClientVehicleMove wrapper = data.getPacketContext().decode(
+            event, WrapperPlayClientVehicleMove.class, WrapperPlayClientVehicleMove::new);
 
         Vector3d location = wrapper.getPosition();
 
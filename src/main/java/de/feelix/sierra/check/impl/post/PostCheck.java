@@ -36,13 +36,38 @@ public class PostCheck extends SierraDetection implements IngoingProcessor, Outg
         super(playerData);
     }
 
+    @Override
+    public PacketTypeCommon[] ingoingPacketTypes() {
+        return new PacketTypeCommon[]{
+            PLAYER_FLYING,
+            PLAYER_POSITION,
+            PLAYER_POSITION_AND_ROTATION,
+            PLAYER_ROTATION,
+            PONG,
+            WINDOW_CONFIRMATION,
+            PLAYER_ABILITIES,
+            INTERACT_ENTITY,
+            PLAYER_BLOCK_PLACEMENT,
+            USE_ITEM,
+            PLAYER_DIGGING,
+            CLICK_WINDOW,
+            ANIMATION,
+            ENTITY_ACTION
+        };
+    }
+
+    @Override
+    public PacketTypeCommon[] outgoingPacketTypes() {
+        return new PacketTypeCommon[]{PacketType.Play.Server.ENTITY_ANIMATION};
+    }
+
     private int exemptFromSwingingCheck = Integer.MIN_VALUE;
     private final ArrayDeque<PacketTypeCommon> postQueue = new ArrayDeque<>();
     private final List<String> flags = new EvictingQueue<>(10);
     private boolean hasSentFlyingPacket = false;
 
     private void handleFlyingPacket(PacketReceiveEvent event) {
-        if (!flags.isEmpty() && configEngine().config().getBoolean("prevent-post-packets", true)) {
+        if (!flags.isEmpty() && configEngine().settings().isPreventPostPackets()) {
 
             // Okay, the user might be cheating, let's double check
             // 1.8 clients have the idle packet, and this shouldn't false on 1.8 clients
@@ -97,7 +122,8 @@ public class PostCheck extends SierraDetection implements IngoingProcessor, Outg
     }
 
     private boolean shouldHandleEntityAction(PacketReceiveEvent event) {
-        WrapperPlayClientEntityAction entityAction = new WrapperPlayClientEntityAction(event);
+        WrapperPlayClientEntityAction entityAction = playerData.getPacketContext().decode(
+            event, WrapperPlayClientEntityAction.class, WrapperPlayClientEntityAction::new);
         return playerData.getClientVersion().isNewerThanOrEquals(ClientVersion.V_1_9)
                || entityAction.getAction() != WrapperPlayClientEntityAction.Action.START_FLYING_WITH_ELYTRA
                   && !isRidingEntityInNewVersion();
@@ -1,6 +1,7 @@
 package de.feelix.sierra.check.impl.protocol;
 
 import com.cryptomorin.xseries.XMaterial;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
 import com.github.retrooper.packetevents.PacketEvents;
 import com.github.retrooper.packetevents.event.PacketReceiveEvent;
 import com.github.retrooper.packetevents.event.PacketSendEvent;
@@ -27,6 +28,8 @@ import de.feelix.sierra.check.impl.command.CommandValidation;
 import de.feelix.sierra.check.violation.Debug;
 import de.feelix.sierra.check.violation.ViolationDocument;
 import de.feelix.sierra.manager.packet.IngoingProcessor;
+import de.feelix.sierra.manager.packet.ItemAnalysis;
+import de.feelix.sierra.manager.config.SierraSettings;
 import de.feelix.sierra.manager.packet.OutgoingProcessor;
 import de.feelix.sierra.manager.storage.PlayerData;
 import de.feelix.sierra.manager.storage.SierraDataManager;
@@ -34,13 +37,13 @@ import de.feelix.sierra.manager.storage.menu.MenuType;
 import de.feelix.sierra.utilities.CastUtil;
 import de.feelix.sierra.utilities.FieldReader;
 import de.feelix.sierra.utilities.FormatUtils;
+import de.feelix.sierra.utilities.TokenBucket;
 import de.feelix.sierra.utilities.attributes.AttributeMapper;
 import de.feelix.sierra.utilities.types.BannerType;
 import de.feelix.sierra.utilities.types.ShulkerBoxType;
 import de.feelix.sierraapi.check.CheckType;
 import de.feelix.sierraapi.check.SierraCheckData;
 import de.feelix.sierraapi.violation.MitigationStrategy;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 
 import java.nio.charset.StandardCharsets;
@@ -66,8 +69,6 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
     private int containerType = -1;
     private int containerId = -1;
 
-    private static final String WURSTCLIENT_URL = "www.wurstclient.net";
-    private static final int MAX_BYTE_SIZE = 262144;
     private static final int MAX_BANNER_LAYERS = 15;
     private static final int MAX_PATTERN_LENGTH = 50;
     private static final int MIN_VALID_COLOR = 0;
@@ -75,13 +76,47 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
     private static final int MAX_VALID_COLOR = 255;
     private final AtomicInteger listContent = new AtomicInteger(0);
 
+    /**
+     * The bandwidth budget of the player, rebuilt whenever the settings or the client version change.
+     */
+    private TokenBucket    bandwidth;
+    private SierraSettings bandwidthSettings;
+    private ClientVersion  bandwidthVersion;
+
     public ProtocolValidation(PlayerData playerData) {
         super(playerData);
     }
 
+    /**
+     * Returns the bandwidth budget of the player, which refills its bytes per second continuously.
+     *
+     * @param playerData the player
+     * @return the token bucket of the bytes the player may send
+     */
+    private TokenBucket bandwidth(PlayerData playerData) {
+        SierraSettings settings      = configEngine().settings();
+        ClientVersion  clientVersion = playerData.getClientVersion();
+        if (bandwidth == null || settings != bandwidthSettings || clientVersion != bandwidthVersion) {
+            int limit = settings.bandwidthLimit(clientVersion);
+            bandwidth = new TokenBucket(limit, limit);
+            bandwidthSettings = settings;
+            bandwidthVersion = clientVersion;
+        }
+        return bandwidth;
+    }
+
+    @Override
+    public PacketTypeCommon[] outgoingPacketTypes() {
+        return new PacketTypeCommon[]{
+            PacketType.Play.Server.SET_EXPERIENCE,
+            PacketType.Play.Server.WINDOW_ITEMS,
+            PacketType.Play.Server.OPEN_WINDOW
+        };
+    }
+
     @Override
     public void handle(PacketReceiveEvent event, PlayerData playerData) {
-        if (!configEngine().config().getBoolean("prevent-protocol-packet", true)) {
+        if (!configEngine().settings().isPreventProtocolPacket()) {
             return;
         }
 
@@ -97,17 +132,16 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
                 .build());
         }
 
-        int readableBytes = ByteBufHelper.readableBytes(event.getByteBuf());
-        int maxBytesPerSecond = 64000 * (playerData.getClientVersion().isOlderThan(ClientVersion.V_1_8) ? 2 : 1);
-        playerData.setBytesSent(playerData.getBytesSent() + readableBytes);
-
-        if (playerData.getBytesSent() > maxBytesPerSecond) {
+        int         readableBytes = ByteBufHelper.readableBytes(event.getByteBuf());
+        long        now           = System.nanoTime();
+        TokenBucket bandwidth     = bandwidth(playerData);
+        if (!bandwidth.tryAcquire(readableBytes, now)) {
             dispatch(event, ViolationDocument.builder()
                 .mitigationStrategy(MitigationStrategy.KICK)
                 .description("sends too big packet in a second")
                 .debugs(Arrays.asList(
-                    new Debug<>("Bytes", playerData.getBytesSent()),
-                    new Debug<>("Max Bytes", maxBytesPerSecond)
+                    new Debug<>("Bytes", bandwidth.used(now) + readableBytes),
+                    new Debug<>("Max Bytes", bandwidth.capacity())
                 ))
                 .build());
         }
@@ -134,8 +168,8 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
 
     private void handleAnvilInventory(PacketReceiveEvent event) {
         if (event.getPacketType() == PacketType.Play.Client.PLUGIN_MESSAGE) {
-            WrapperPlayClientPluginMessage wrapper = CastUtil.getSupplier(
-                () -> new WrapperPlayClientPluginMessage(event), playerData::exceptionDisconnect);
+            WrapperPlayClientPluginMessage wrapper = playerData.getPacketContext().decode(
+                event, WrapperPlayClientPluginMessage.class, WrapperPlayClientPluginMessage::new);
 
             String channelName = wrapper.getChannelName();
 
@@ -154,8 +188,8 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
 
     private void handleClientSettings(PacketReceiveEvent event, PlayerData playerData) {
         if (event.getPacketType() == PacketType.Play.Client.CLIENT_SETTINGS) {
-            WrapperPlayClientSettings wrapper = CastUtil.getSupplier(
-                () -> new WrapperPlayClientSettings(event), playerData::exceptionDisconnect);
+            WrapperPlayClientSettings wrapper = playerData.getPacketContext().decode(
+                event, WrapperPlayClientSettings.class, WrapperPlayClientSettings::new);
 
             if (wrapper == null) return;
 
@@ -194,8 +228,8 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
 
     private void handleCreativeInventoryAction(PacketReceiveEvent event, PlayerData playerData) {
         if (event.getPacketType() == PacketType.Play.Client.CREATIVE_INVENTORY_ACTION) {
-            WrapperPlayClientCreativeInventoryAction wrapper = CastUtil.getSupplier(
-                () -> new WrapperPlayClientCreativeInventoryAction(event), playerData::exceptionDisconnect);
+            WrapperPlayClientCreativeInventoryAction wrapper = playerData.getPacketContext().decode(
+                event, WrapperPlayClientCreativeInventoryAction.class, WrapperPlayClientCreativeInventoryAction::new);
             ItemStack itemStack = wrapper.getItemStack();
             checkItemStack(event, itemStack);
         }
@@ -203,8 +237,8 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
 
     private void handleEntityAction(PacketReceiveEvent event) {
         if (event.getPacketType() == PacketType.Play.Client.ENTITY_ACTION) {
-            WrapperPlayClientEntityAction wrapper = CastUtil.getSupplier(
-                () -> new WrapperPlayClientEntityAction(event), playerData::exceptionDisconnect);
+            WrapperPlayClientEntityAction wrapper = playerData.getPacketContext().decode(
+                event, WrapperPlayClientEntityAction.class, WrapperPlayClientEntityAction::new);
             checkEntityAction(wrapper, event);
         }
     }
@@ -233,8 +267,8 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
 
     private void handleClickWindowButton(PacketReceiveEvent event) {
         if (event.getPacketType() == PacketType.Play.Client.CLICK_WINDOW_BUTTON) {
-            WrapperPlayClientClickWindowButton wrapper = CastUtil.getSupplier(
-                () -> new WrapperPlayClientClickWindowButton(event), playerData::exceptionDisconnect);
+            WrapperPlayClientClickWindowButton wrapper = playerData.getPacketContext().decode(
+                event, WrapperPlayClientClickWindowButton.class, WrapperPlayClientClickWindowButton::new);
             if (wrapper.getButtonId() < 0 || wrapper.getWindowId() < 0) {
 
                 dispatch(event, ViolationDocument.builder()
@@ -251,8 +285,8 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
 
     private void handleChatMessage(PacketReceiveEvent event) {
         if (event.getPacketType() == PacketType.Play.Client.CHAT_MESSAGE) {
-            WrapperPlayClientChatMessage wrapper = CastUtil.getSupplier(
-                () -> new WrapperPlayClientChatMessage(event), playerData::exceptionDisconnect);
+            WrapperPlayClientChatMessage wrapper = playerData.getPacketContext().decode(
+                event, WrapperPlayClientChatMessage.class, WrapperPlayClientChatMessage::new);
             if (wrapper.getMessage().contains("${")) {
 
                 dispatch(event, ViolationDocument.builder()
@@ -266,8 +300,8 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
 
     private void handleHeldItemChange(PacketReceiveEvent event) {
         if (event.getPacketType() == PacketType.Play.Client.HELD_ITEM_CHANGE) {
-            WrapperPlayClientHeldItemChange wrapper = CastUtil.getSupplier(
-                () -> new WrapperPlayClientHeldItemChange(event), playerData::exceptionDisconnect);
+            WrapperPlayClientHeldItemChange wrapper = playerData.getPacketContext().decode(
+                event, WrapperPlayClientHeldItemChange.class, WrapperPlayClientHeldItemChange::new);
             checkHeldItemChange(wrapper, event);
         }
     }
@@ -304,8 +338,8 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
 
     private void handleTabComplete(PacketReceiveEvent event, PlayerData playerData) {
         if (event.getPacketType() == PacketType.Play.Client.TAB_COMPLETE) {
-            WrapperPlayClientTabComplete wrapper = CastUtil.getSupplier(
-                () -> new WrapperPlayClientTabComplete(event), playerData::exceptionDisconnect);
+            WrapperPlayClientTabComplete wrapper = playerData.getPacketContext().decode(
+                event, WrapperPlayClientTabComplete.class, WrapperPlayClientTabComplete::new);
             checkTabComplete(wrapper, event);
         }
     }
@@ -363,8 +397,8 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
 
     private void handleUpdateSign(PacketReceiveEvent event, PlayerData playerData) {
         if (event.getPacketType() == PacketType.Play.Client.UPDATE_SIGN) {
-            WrapperPlayClientUpdateSign wrapper = CastUtil.getSupplier(
-                () -> new WrapperPlayClientUpdateSign(event), playerData::exceptionDisconnect);
+            WrapperPlayClientUpdateSign wrapper = playerData.getPacketContext().decode(
+                event, WrapperPlayClientUpdateSign.class, WrapperPlayClientUpdateSign::new);
             if (wrapper == null) return;
             checkUpdateSign(wrapper, event, playerData);
         }
@@ -401,8 +435,8 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
 
     private void handlePluginMessage(PacketReceiveEvent event, PlayerData playerData) {
         if (event.getPacketType() == PacketType.Play.Client.PLUGIN_MESSAGE) {
-            WrapperPlayClientPluginMessage wrapper = CastUtil.getSupplier(
-                () -> new WrapperPlayClientPluginMessage(event), playerData::exceptionDisconnect);
+            WrapperPlayClientPluginMessage wrapper = playerData.getPacketContext().decode(
+                event, WrapperPlayClientPluginMessage.class, WrapperPlayClientPluginMessage::new);
             checkPluginMessage(wrapper, event, playerData);
         }
     }
@@ -499,8 +533,8 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
 
     private void handlePlayerBlockPlacement(PacketReceiveEvent event, PlayerData playerData) {
         if (event.getPacketType() == PacketType.Play.Client.PLAYER_BLOCK_PLACEMENT) {
-            WrapperPlayClientPlayerBlockPlacement wrapper = CastUtil.getSupplier(
-                () -> new WrapperPlayClientPlayerBlockPlacement(event), playerData::exceptionDisconnect);
+            WrapperPlayClientPlayerBlockPlacement wrapper = playerData.getPacketContext().decode(
+                event, WrapperPlayClientPlayerBlockPlacement.class, WrapperPlayClientPlayerBlockPlacement::new);
 
             if (wrapper == null) return;
 
@@ -557,8 +591,8 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
 
     private void handleSteerVehicle(PacketReceiveEvent event) {
         if (event.getPacketType() == PacketType.Play.Client.STEER_VEHICLE) {
-            WrapperPlayClientSteerVehicle wrapper = CastUtil.getSupplier(
-                () -> new WrapperPlayClientSteerVehicle(event), playerData::exceptionDisconnect);
+            WrapperPlayClientSteerVehicle wrapper = playerData.getPacketContext().decode(
+                event, WrapperPlayClientSteerVehicle.class, WrapperPlayClientSteerVehicle::new);
             checkSteerVehicle(wrapper, event);
         }
     }
@@ -584,8 +618,8 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
 
     private void handleInteractEntity(PacketReceiveEvent event) {
         if (event.getPacketType() == PacketType.Play.Client.INTERACT_ENTITY) {
-            WrapperPlayClientInteractEntity wrapper = CastUtil.getSupplier(
-                () -> new WrapperPlayClientInteractEntity(event), playerData::exceptionDisconnect);
+            WrapperPlayClientInteractEntity wrapper = playerData.getPacketContext().decode(
+                event, WrapperPlayClientInteractEntity.class, WrapperPlayClientInteractEntity::new);
             checkInteractEntity(wrapper, event);
         }
     }
@@ -607,8 +641,8 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
 
     private void handleNameItem(PacketReceiveEvent event) {
         if (event.getPacketType() == PacketType.Play.Client.NAME_ITEM) {
-            WrapperPlayClientNameItem wrapper = CastUtil.getSupplier(
-                () -> new WrapperPlayClientNameItem(event), playerData::exceptionDisconnect);
+            WrapperPlayClientNameItem wrapper = playerData.getPacketContext().decode(
+                event, WrapperPlayClientNameItem.class, WrapperPlayClientNameItem::new);
             checkNameItem(wrapper, event);
         }
     }
@@ -649,8 +683,8 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
         if (event.getPacketType() == PacketType.Play.Client.PLAYER_DIGGING
             && isClientVersion19OrNewer && isVersion19OrNewer) {
 
-            WrapperPlayClientPlayerDigging dig = CastUtil.getSupplier(
-                () -> new WrapperPlayClientPlayerDigging(event), playerData::exceptionDisconnect);
+            WrapperPlayClientPlayerDigging dig = playerData.getPacketContext().decode(
+                event, WrapperPlayClientPlayerDigging.class, WrapperPlayClientPlayerDigging::new);
             checkPlayerDigging(dig, event);
         }
     }
@@ -680,8 +714,8 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
         if (event.getPacketType() == PacketType.Play.Client.USE_ITEM && isClientVersionAtLeastV1_19
             && isVersionAtLeastV1_19) {
 
-            WrapperPlayClientUseItem use = CastUtil.getSupplier(
-                () -> new WrapperPlayClientUseItem(event), playerData::exceptionDisconnect);
+            WrapperPlayClientUseItem use = playerData.getPacketContext().decode(
+                event, WrapperPlayClientUseItem.class, WrapperPlayClientUseItem::new);
 
             if (use.getSequence() < 0) {
                 dispatch(event, ViolationDocument.builder()
@@ -696,8 +730,8 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
     private void handleClickWindow(PacketReceiveEvent event, PlayerData playerData) {
         if (event.getPacketType() == PacketType.Play.Client.CLICK_WINDOW) {
 
-            WrapperPlayClientClickWindow wrapper = CastUtil.getSupplier(
-                () -> new WrapperPlayClientClickWindow(event), playerData::exceptionDisconnect);
+            WrapperPlayClientClickWindow wrapper = playerData.getPacketContext().decode(
+                event, WrapperPlayClientClickWindow.class, WrapperPlayClientClickWindow::new);
 
             if (wrapper == null) return;
 
@@ -730,32 +764,32 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
 
     private void checkItemStack(PacketReceiveEvent event, ItemStack itemStack) {
         if (itemStack == null || itemStack.getNBT() == null) return;
-        checkItemStackTag(event, itemStack);
-        checkGenericBookPages(event, itemStack);
-        checkGenericNBTLimit(event, itemStack);
-        checkLanguageExploit(event, itemStack);
-        checkAttributes(event, itemStack);
+        ItemAnalysis analysis = playerData.getPacketContext().analyze(event, itemStack);
+        if (analysis.isKnownGood()) return;
+        checkForInvalidContainer(event, itemStack, analysis);
+        checkForInvalidShulker(event, itemStack, analysis);
+        if (checkGenericNBTLimit(event, analysis)) return;
+        checkItemStackTag(event, itemStack, analysis);
+        checkGenericBookPages(event, analysis);
+        checkLanguageExploit(event, itemStack, analysis);
+        checkAttributes(event, analysis.getAttributeModifiers());
         checkInvalidNbt(event, itemStack);
         checkForInvalidBanner(event, itemStack);
         checkForInvalidArmorStand(event, itemStack);
-        checkForInvalidContainer(event, itemStack);
-        checkForInvalidShulker(event, itemStack);
         checkNbtTags(event, itemStack);
     }
 
-    private void checkGenericBookPages(PacketReceiveEvent event, ItemStack itemStack) {
-
-        if (itemStack == null || itemStack.getNBT() == null) return;
+    private void checkGenericBookPages(PacketReceiveEvent event, ItemAnalysis analysis) {
 
-        NBTList<NBTString> pages = itemStack.getNBT().getStringListTagOrNull("pages");
+        List<String> pages = analysis.getPages();
 
-        if (pages == null) return;
+        if (pages.isEmpty()) return;
 
-        if (pages.getTags().size() > 50) {
+        if (pages.size() > 50) {
             dispatch(event, ViolationDocument.builder()
                 .mitigationStrategy(MitigationStrategy.KICK)
                 .description("send book with too many pages")
-                .debugs(Collections.singletonList(new Debug<>("Pages", pages.getTags().size())))
+                .debugs(Collections.singletonList(new Debug<>("Pages", pages.size())))
                 .build());
         }
 
@@ -770,40 +804,36 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
         }
     }
 
-    private static int calculateTotalLength(NBTList<NBTString> pages) {
+    private static int calculateTotalLength(List<String> pages) {
         int totalLength = 0;
 
-        for (NBTString tag : pages.getTags()) {
-            totalLength += tag.getValue().length();
+        for (String page : pages) {
+            totalLength += page.length();
         }
         return totalLength;
     }
 
-    private void checkLanguageExploit(PacketReceiveEvent event, ItemStack itemStack) {
+    private void checkLanguageExploit(PacketReceiveEvent event, ItemStack itemStack, ItemAnalysis analysis) {
 
-        if (itemStack == null || itemStack.getNBT() == null) return;
+        int translateCount = analysis.getTranslateCount();
 
-        String mapped = FormatUtils.mapToString(itemStack.getNBT().getTags());
-
-        if (mapped.contains("translate") || mapped.contains("options.snooper.desc")
-            || FormatUtils.countOccurrences(mapped, "translate") > 20) {
+        if (translateCount > 0 || analysis.isSnooperDescription()) {
 
             dispatch(event, ViolationDocument.builder()
                 .mitigationStrategy(MitigationStrategy.MITIGATE)
                 .description("send raw translate request")
                 .debugs(Arrays.asList(
-                    new Debug<>("Contains", mapped.contains("translate")),
-                    new Debug<>("Snooper", mapped.contains("options.snooper.desc")),
-                    new Debug<>("Count", FormatUtils.countOccurrences(mapped, "translate")),
+                    new Debug<>("Contains", translateCount > 0),
+                    new Debug<>("Snooper", analysis.isSnooperDescription()),
+                    new Debug<>("Count", translateCount),
                     new Debug<>("Max Count", 20)
                 )).build());
             itemStack.setNBT(new NBTCompound());
         }
     }
 
-    private void checkAttributes(ProtocolPacketEvent event, ItemStack itemStack) {
-        if (!hasAttributeModifiers(itemStack)) return;
-        List<NBTCompound> tags = getAttributeModifiers(itemStack);
+    private void checkAttributes(ProtocolPacketEvent event, List<NBTCompound> tags) {
+        if (tags.isEmpty()) return;
         boolean vanillaMapping = useVanillaAttributeMapping();
         for (NBTCompound tag : tags) {
             AttributeMapper attributeMapper = getAttributeMapper(tag);
@@ -827,25 +857,34 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
         return itemStack.getNBT().getCompoundListTagOrNull("AttributeModifiers").getTags();
     }
 
-    public void checkGenericNBTLimit(PacketReceiveEvent event, ItemStack itemStack) {
-        if (!configEngine().config().getBoolean("generic-nbt-limit", true)) {
-            return;
-        }
+    /**
+     * Checks the measured nbt of an item against the generic limit. If the measurement was aborted because a budget
+     * was exceeded, the item is mitigated and must not be inspected any further. With the generic limit disabled only
+     * the container size and the nesting depth can abort the measurement.
+     *
+     * @param event    the packet event
+     * @param analysis the analysis of the item
+     * @return true if the nbt exceeded its budget and the remaining checks should be skipped
+     */
+    private boolean checkGenericNBTLimit(PacketReceiveEvent event, ItemAnalysis analysis) {
+        int length = analysis.getBytes();
+        int limit = ItemAnalysis.genericLimit(playerData.getClientVersion());
+        boolean exceeded = configEngine().settings().isGenericNbtLimit() && length > limit;
 
-        if (itemStack == null || itemStack.getNBT() == null) return;
-
-        int length = FormatUtils.mapToString(itemStack.getNBT().getTags()).length();
-
-        int limit = playerData.getClientVersion().isNewerThanOrEquals(ClientVersion.V_1_16) ? 30000 : 25000;
-
-        if (length > limit) {
+        if (exceeded || !analysis.isWithinBudget()) {
 
             dispatch(event, ViolationDocument.builder()
                 .description("send item-stack with too big nbt tag")
                 .mitigationStrategy(MitigationStrategy.MITIGATE)
-                .debugs(Arrays.asList(new Debug<>("Length", length), new Debug<>("Limit", limit)))
+                .debugs(Arrays.asList(
+                    new Debug<>("Length", length),
+                    new Debug<>("Limit", limit),
+                    new Debug<>("Budget", analysis.getViolation()),
+                    new Debug<>("Depth", analysis.getDepth())
+                ))
                 .build());
         }
+        return !analysis.isWithinBudget();
     }
 
     private void handleAttributeViolation(ProtocolPacketEvent event, boolean vanillaMapping,
@@ -883,7 +922,7 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
     }
 
     private boolean useVanillaAttributeMapping() {
-        return configEngine().config().getBoolean("use-vanilla-attribute-mapping", true);
+        return configEngine().settings().isUseVanillaAttributeMapping();
     }
 
     private boolean isAmountInvalid(boolean vanillaMapping, AttributeMapper attributeMapper, double amount) {
@@ -1036,13 +1075,10 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
         }
     }
 
-    private void checkForInvalidShulker(PacketReceiveEvent event, ItemStack itemStack) {
-
-        if (itemStack == null || itemStack.getNBT() == null) return;
+    private void checkForInvalidShulker(PacketReceiveEvent event, ItemStack itemStack, ItemAnalysis analysis) {
 
         if (isShulkerBox(itemStack)) {
-            String string = FormatUtils.mapToString(itemStack.getNBT().getTags());
-            int length = string.getBytes(StandardCharsets.UTF_8).length;
+            int length = analysis.getBytes();
             if (length > 10000) {
 
                 dispatch(event, ViolationDocument.builder()
@@ -1063,31 +1099,25 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
         }
     }
 
-    private void checkForInvalidContainer(PacketReceiveEvent event, ItemStack itemStack) {
-        if (isContainerItem(itemStack)) {
-            //noinspection DataFlowIssue
-            String string = FormatUtils.mapToString(itemStack.getNBT().getTags());
-            checkForInvalidSizeAndPresence(event, string);
+    private void checkForInvalidContainer(PacketReceiveEvent event, ItemStack itemStack, ItemAnalysis analysis) {
+        if (ItemAnalysis.isContainerItem(itemStack)) {
+            checkForInvalidSizeAndPresence(event, analysis);
         }
     }
 
-    private boolean isContainerItem(ItemStack itemStack) {
-        return itemStack.getType() == ItemTypes.CHEST || itemStack.getType() == ItemTypes.HOPPER
-               || itemStack.getType() == ItemTypes.HOPPER_MINECART || itemStack.getType() == ItemTypes.CHEST_MINECART;
-    }
-
-    private void checkForInvalidSizeAndPresence(PacketReceiveEvent event, String string) {
-        if (string.getBytes(StandardCharsets.UTF_8).length > MAX_BYTE_SIZE) {
+    private void checkForInvalidSizeAndPresence(PacketReceiveEvent event, ItemAnalysis analysis) {
+        if (!analysis.isWithinBudget() || analysis.getBytes() > ItemAnalysis.CONTAINER_LIMIT) {
             dispatch(event, ViolationDocument.builder()
                 .description("send to big container")
                 .mitigationStrategy(MitigationStrategy.KICK)
                 .debugs(Arrays.asList(
-                    new Debug<>("Size", string.getBytes(StandardCharsets.UTF_8).length),
-                    new Debug<>("Max", MAX_BYTE_SIZE)
+                    new Debug<>("Size", analysis.getBytes()),
+                    new Debug<>("Max", ItemAnalysis.CONTAINER_LIMIT)
                 ))
                 .build());
+            return;
         }
-        if (string.contains(WURSTCLIENT_URL)) {
+        if (analysis.isWurstClient()) {
             dispatch(event, ViolationDocument.builder()
                 .description("send invalid container")
                 .mitigationStrategy(MitigationStrategy.BAN)
@@ -1430,7 +1460,7 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
     @Override
     public void handle(PacketSendEvent event, PlayerData playerData) {
 
-        if (!configEngine().config().getBoolean("prevent-protocol-packet", true)) {
+        if (!configEngine().settings().isPreventProtocolPacket()) {
             return;
         }
 
@@ -1460,11 +1490,7 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
         boolean isLevelNegative = wrapper.getLevel() < 0;
         boolean totalExperienceNegative = wrapper.getTotalExperience() < 0;
 
-        YamlConfiguration configEngine = Sierra.getPlugin().getSierraConfigEngine().config();
-        boolean skipNegativeExperienceCheck = configEngine.getBoolean(
-            "skip-negative-experience-check",
-            false
-        );
+        boolean skipNegativeExperienceCheck = configEngine().settings().isSkipNegativeExperienceCheck();
         boolean skipNegativeCheck = wrapper.getExperienceBar() < 0 && !skipNegativeExperienceCheck;
 
         if (isLevelNegative || skipNegativeCheck || totalExperienceNegative) {
@@ -1483,8 +1509,8 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
 
     private void checkWindowItems(WrapperPlayServerWindowItems wrapper, PacketSendEvent event) {
         for (ItemStack item : wrapper.getItems()) {
-            if (item.getNBT() == null) continue;
-            checkAttributes(event, item);
+            if (!hasAttributeModifiers(item)) continue;
+            checkAttributes(event, getAttributeModifiers(item));
         }
     }
 
@@ -1508,14 +1534,10 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
         this.containerId = window.getContainerId();
     }
 
-    private void checkItemStackTag(PacketReceiveEvent event, ItemStack itemStack) {
-
-        // Check if references are null
-        if (itemStack == null || itemStack.getNBT() == null) return;
+    private void checkItemStackTag(PacketReceiveEvent event, ItemStack itemStack, ItemAnalysis analysis) {
 
         ItemType itemStackType = itemStack.getType();
         NBTCompound compound = itemStack.getNBT();
-        String formattedTags = FormatUtils.mapToString(compound.getTags());
 
         if (itemStackType == ItemTypes.WRITTEN_BOOK || itemStackType == ItemTypes.WRITABLE_BOOK) {
 
@@ -1546,7 +1568,7 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
                         .build());
                 }
             }
-            if (formattedTags.contains(":[{extra:[{")) {
+            if (FormatUtils.mapToString(compound.getTags()).contains(":[{extra:[{")) {
                 dispatch(event, ViolationDocument.builder()
                     .mitigationStrategy(MitigationStrategy.MITIGATE)
                     .description("send tag with invalid extra")
@@ -1559,6 +1581,7 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
         }
 
         if (itemStackType == ItemTypes.FIREWORK_ROCKET) {
+            String formattedTags = FormatUtils.mapToString(compound.getTags());
             if (formattedTags.length() > 300) {
                 dispatch(event, ViolationDocument.builder()
                     .mitigationStrategy(MitigationStrategy.MITIGATE)
@@ -1569,6 +1592,7 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
         }
 
         if (itemStackType == ItemTypes.FIREWORK_STAR) {
+            String formattedTags = FormatUtils.mapToString(compound.getTags());
             if (formattedTags.length() > 800) {
                 dispatch(event, ViolationDocument.builder()
                     .mitigationStrategy(MitigationStrategy.MITIGATE)
@@ -1582,7 +1606,7 @@ public class ProtocolValidation extends SierraDetection implements IngoingProces
         }
 
         if (itemStackType != ItemTypes.CHEST && itemStackType != ItemTypes.HOPPER && !isShulkerBox(itemStack)) {
-            int encodedLength = formattedTags.getBytes(StandardCharsets.UTF_8).length;
+            int encodedLength = analysis.getBytes();
             if (encodedLength > 10000) {
                 dispatch(event, ViolationDocument.builder()
                     .mitigationStrategy(MitigationStrategy.MITIGATE)
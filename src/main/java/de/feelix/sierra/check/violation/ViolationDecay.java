@@ -0,0 +1,41 @@
+package de.feelix.sierra.check.violation;
+
+import lombok.Getter;
+
+/**
+ * The ViolationDecay class describes how the violations of a check decay: once the check detected nothing for the
+ * delay, its violations drop by the rate. The decay is computed lazily from the time of the last update, so nothing
+ * has to sweep the checks.
+ */
+@Getter
+public final class ViolationDecay {
+
+    /**
+     * The time in milliseconds after the last update before violations start to decay.
+     */
+    private final long delay;
+
+    /**
+     * The amount of violations removed per second once the delay passed.
+     */
+    private final double rate;
+
+    public ViolationDecay(long delay, double rate) {
+        this.delay = Math.max(0, delay);
+        this.rate = Math.max(0, rate);
+    }
+
+    /**
+     * Returns the violation level after the given time passed since it was last updated.
+     *
+     * @param level   the level at the last update
+     * @param elapsed the time in milliseconds since the last update
+     * @return the decayed level, never below zero
+     */
+    public int apply(int level, long elapsed) {
+        if (level <= 0 || elapsed <= delay) return level;
+
+        double decayed = (elapsed - delay) * rate / 1000D;
+        return decayed >= level ? 0 : level - (int) decayed;
+    }
+}
@@ -36,6 +36,7 @@ public class SierraCommand implements CommandExecutor, TabExecutor {
         COMMANDS.put("version", new VersionCommand());
         COMMANDS.put("monitor", new MonitorCommand());
         COMMANDS.put("history", new HistoryCommand());
+        COMMANDS.put("logs", new LogsCommand());
     }
 
     @Override
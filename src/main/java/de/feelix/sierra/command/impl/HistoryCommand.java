@@ -4,9 +4,9 @@ package de.feelix.sierra.command.impl;
 import com.github.retrooper.packetevents.protocol.player.User;
 import de.feelix.sierra.Sierra;
 import de.feelix.sierra.manager.storage.history.HistoryDocument;
+import de.feelix.sierra.manager.storage.history.HistoryStore;
 import de.feelix.sierra.utilities.FormatUtils;
 import de.feelix.sierra.utilities.message.ConfigValue;
-import de.feelix.sierra.utilities.pagination.Pagination;
 import de.feelix.sierraapi.commands.*;
 import de.feelix.sierraapi.history.History;
 import de.feelix.sierraapi.user.impl.SierraUser;
@@ -16,17 +16,18 @@ import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.event.ClickEvent;
 import net.kyori.adventure.text.event.HoverEvent;
 
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 
 /**
  * The HistoryCommand class represents a command that retrieves and displays the history of a player's punishments.
+ * Pages are read directly from the indexed {@link HistoryStore}, optionally filtered by a player.
  * It implements the ISierraCommand interface.
  */
 public class HistoryCommand implements ISierraCommand {
 
+    private static final int ENTRIES_PER_PAGE = 5;
+
     /**
      * This method processes the command by validating the arguments, setting up pagination,
      * sending the appropriate help syntax if arguments are protocol, sending the pagination message
@@ -47,13 +48,19 @@ public class HistoryCommand implements ISierraCommand {
             return;
         }
 
-        Pagination<History> pagination = setupPagination();
+        HistoryStore store    = Sierra.getPlugin().getSierraDataManager().getHistoryStore();
+        String       username = sierraArguments.getArguments().size() > 2 ? sierraArguments.getArguments().get(2) : null;
 
-        int page = correctPage(FormatUtils.toInt(sierraArguments.getArguments().get(1)), pagination.totalPages());
+        int entries    = username == null ? store.size() : store.size(username);
+        int totalPages = Math.max(1, (entries + ENTRIES_PER_PAGE - 1) / ENTRIES_PER_PAGE);
+        int page       = correctPage(FormatUtils.toInt(sierraArguments.getArguments().get(1)), totalPages);
+        int offset     = (page - 1) * ENTRIES_PER_PAGE;
 
-        List<History> historyDocumentList = pagination.itemsForPage(page);
+        List<History> historyDocumentList = username == null
+            ? store.page(offset, ENTRIES_PER_PAGE)
+            : store.page(username, offset, ENTRIES_PER_PAGE);
 
-        sendPaginationMessage(user, page, pagination);
+        sendPaginationMessage(user, page, totalPages, entries, username);
         if (historyDocumentList.isEmpty()) {
             user.sendMessage(
                 new ConfigValue(
@@ -66,10 +73,11 @@ public class HistoryCommand implements ISierraCommand {
         sendHistoryMessages(user, historyDocumentList);
     }
 
-    private void sendPaginationMessage(User user, int currentPage, Pagination<History> pagination) {
+    private void sendPaginationMessage(User user, int currentPage, int totalPages, int entries, String username) {
 
-        boolean hasNextPage = pagination.totalPages() > currentPage;
+        boolean hasNextPage = totalPages > currentPage;
         boolean hasPreviousPage = currentPage > 1;
+        String  suffix = username == null ? "" : " " + username;
 
         TextComponent component = LegacyComponentSerializer.legacy('&')
             .deserialize(new ConfigValue(
@@ -78,8 +86,8 @@ public class HistoryCommand implements ISierraCommand {
                 + "&3{entries} &7entries)",
                 true
             ).replacePrefix().replace("{current}", String.valueOf(currentPage))
-                             .replace("{total}", String.valueOf(pagination.totalPages()))
-                             .replace("{entries}", String.valueOf(pagination.getEntries().size()))
+                             .replace("{total}", String.valueOf(totalPages))
+                             .replace("{entries}", String.valueOf(entries))
                              .colorize()
                              .message())
             .append(Component.text(" "))
@@ -89,7 +97,7 @@ public class HistoryCommand implements ISierraCommand {
                             Component.text(hasPreviousPage ? "View previous page" : "No previous page available")))
                         .clickEvent(ClickEvent.clickEvent(
                             ClickEvent.Action.RUN_COMMAND,
-                            hasPreviousPage ? "/sierra history " + (currentPage - 1) : "/sierra history 1"
+                            hasPreviousPage ? "/sierra history " + (currentPage - 1) + suffix : "/sierra history 1" + suffix
                         )))
             .append(Component.text(" "))
             .append(LegacyComponentSerializer.legacy('&')
@@ -98,7 +106,9 @@ public class HistoryCommand implements ISierraCommand {
                             Component.text(hasNextPage ? "View next page" : "No next page available")))
                         .clickEvent(ClickEvent.clickEvent(
                             ClickEvent.Action.RUN_COMMAND,
-                            hasNextPage ? "/sierra history " + (currentPage + 1) : "/sierra history " + currentPage
+                            hasNextPage
+                                ? "/sierra history " + (currentPage + 1) + suffix
+                                : "/sierra history " + currentPage + suffix
                         )));
 
         user.sendMessage(component);
@@ -135,17 +145,6 @@ public class HistoryCommand implements ISierraCommand {
         return sierraArguments.getArguments().size() > 1;
     }
 
-    /**
-     * Sets up pagination for the history documents.
-     *
-     * @return A Pagination object containing the sorted history documents.
-     */
-    private Pagination<History> setupPagination() {
-        List<History> list = new ArrayList<>(Sierra.getPlugin().getSierraDataManager().getHistories());
-        list.sort(Comparator.comparing(History::timestamp).reversed());
-        return new Pagination<>(list, 5);
-    }
-
     /**
      * Corrects the page number by ensuring it is within the valid range of pages.
      *
@@ -154,7 +153,7 @@ public class HistoryCommand implements ISierraCommand {
      * @return The corrected page number.
      */
     private int correctPage(int page, int totalPages) {
-        if (page > totalPages || page < 0) {
+        if (page > totalPages || page < 1) {
             return 1;
         }
         return page;
@@ -192,7 +191,7 @@ public class HistoryCommand implements ISierraCommand {
         user.sendMessage(
             new ConfigValue(
                 "commands.history.protocol",
-                "{prefix} &cInvalid usage, try /sierra history <page>",
+                "{prefix} &cInvalid usage, try /sierra history <page> [player]",
                 true
             ).replacePrefix()
                 .colorize()
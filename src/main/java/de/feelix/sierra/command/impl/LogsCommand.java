@@ -0,0 +1,248 @@
+package de.feelix.sierra.command.impl;
+
+import com.github.retrooper.packetevents.protocol.player.User;
+import de.feelix.sierra.Sierra;
+import de.feelix.sierra.manager.storage.logger.BinaryLogReader;
+import de.feelix.sierra.manager.storage.logger.LogFormat;
+import de.feelix.sierra.manager.storage.logger.LogService;
+import de.feelix.sierra.manager.storage.logger.LogTag;
+import de.feelix.sierra.utilities.message.ConfigValue;
+import de.feelix.sierraapi.commands.*;
+import de.feelix.sierraapi.user.impl.SierraUser;
+import io.github.retrooper.packetevents.adventure.serializer.legacy.LegacyComponentSerializer;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.event.HoverEvent;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The LogsCommand class searches the binary logs of a player by tag and time, or exports them in the text format.
+ * It implements the ISierraCommand interface.
+ */
+public class LogsCommand implements ISierraCommand {
+
+    private static final int    RESULT_LIMIT  = 10;
+    private static final String DEFAULT_SINCE = "1h";
+
+    /**
+     * Processes the command: /sierra logs &lt;player&gt; [tag|all|export] [since].
+     *
+     * @param user            The User object representing the user.
+     * @param sierraUser      The SierraUser object representing the user in the Sierra API.
+     * @param abstractCommand The IBukkitAbstractCommand object representing the wrapped Bukkit Command.
+     * @param sierraLabel     The ISierraLabel object representing the label of the initial symbol.
+     * @param sierraArguments The ISierraArguments object representing the arguments passed with the command.
+     */
+    @Override
+    public void process(User user, SierraUser sierraUser, IBukkitAbstractCommand abstractCommand,
+                        ISierraLabel sierraLabel, ISierraArguments sierraArguments) {
+
+        List<String> arguments = sierraArguments.getArguments();
+        if (arguments.size() < 2) {
+            sendHelpSyntax(user);
+            return;
+        }
+
+        if (Sierra.getPlugin().getSierraConfigEngine().settings().getLogFormat() != LogFormat.BINARY) {
+            user.sendMessage(new ConfigValue(
+                "commands.logs.disabled",
+                "{prefix} &cSearching logs requires log-format: BINARY in sierra.yml",
+                true
+            ).replacePrefix().colorize().message());
+            return;
+        }
+
+        String playerName = arguments.get(1);
+        File   directory  = BinaryLogReader.directoryOf(playerName);
+        if (directory == null) {
+            sendEmpty(user);
+            return;
+        }
+
+        String filter = arguments.size() > 2 ? arguments.get(2) : "all";
+        if (filter.equalsIgnoreCase("export")) {
+            export(user, directory);
+            return;
+        }
+
+        LogTag tag = parseTag(filter);
+        long   age = parseDuration(arguments.size() > 3 ? arguments.get(3) : DEFAULT_SINCE);
+        if ((tag == null && !filter.equalsIgnoreCase("all")) || age < 0) {
+            sendHelpSyntax(user);
+            return;
+        }
+
+        long start = System.nanoTime();
+        List<BinaryLogReader.Record> records;
+        try {
+            records = BinaryLogReader.search(directory, tag, System.currentTimeMillis() - age, RESULT_LIMIT);
+        } catch (IOException e) {
+            sendError(user, e);
+            return;
+        }
+        long took = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        if (records.isEmpty()) {
+            sendEmpty(user);
+            return;
+        }
+
+        user.sendMessage(new ConfigValue(
+            "commands.logs.header",
+            "{prefix} &fLogs of &b{username} &7({entries} entries, took {delay}ms)",
+            true
+        ).replacePrefix()
+            .replace("{username}", directory.getName())
+            .replace("{entries}", String.valueOf(records.size()))
+            .replace("{delay}", String.valueOf(took))
+            .colorize().message());
+
+        SimpleDateFormat format = new SimpleDateFormat("HH:mm:ss");
+        for (BinaryLogReader.Record record : records) {
+            user.sendMessage(
+                LegacyComponentSerializer.legacy('&')
+                    .deserialize(new ConfigValue(
+                        "commands.logs.entry",
+                        "&7{timestamp} &b{tag} &f{message}",
+                        true
+                    ).replace("{timestamp}", format.format(new Date(record.getTime())))
+                        .replace("{tag}", record.getTag().name())
+                        .replace("{message}", shorten(record.getMessage()))
+                        .colorize().message())
+                    .hoverEvent(HoverEvent.showText(Component.text(shorten(record.getMessage(), 1000)))));
+        }
+    }
+
+    private void export(User user, File directory) {
+        String stamp  = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        File   target = new File(directory, LogService.EXPORT_PREFIX + stamp + LogService.EXPORT_SUFFIX);
+        try {
+            int entries = BinaryLogReader.export(directory, target);
+            user.sendMessage(new ConfigValue(
+                "commands.logs.exported",
+                "{prefix} &fExported &b{entries} &fentries to &7{file}",
+                true
+            ).replacePrefix()
+                .replace("{entries}", String.valueOf(entries))
+                .replace("{file}", target.getPath())
+                .colorize().message());
+        } catch (IOException e) {
+            sendError(user, e);
+        }
+    }
+
+    /**
+     * Parses a duration such as 30s, 15m, 2h or 7d.
+     *
+     * @param input the duration
+     * @return the duration in milliseconds, or -1 if it is invalid
+     */
+    private long parseDuration(String input) {
+        if (input.length() < 2) return -1;
+
+        long amount;
+        try {
+            amount = Long.parseLong(input.substring(0, input.length() - 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        if (amount < 0) return -1;
+
+        switch (Character.toLowerCase(input.charAt(input.length() - 1))) {
+            case 's':
+                return TimeUnit.SECONDS.toMillis(amount);
+            case 'm':
+                return TimeUnit.MINUTES.toMillis(amount);
+            case 'h':
+                return TimeUnit.HOURS.toMillis(amount);
+            case 'd':
+                return TimeUnit.DAYS.toMillis(amount);
+            default:
+                return -1;
+        }
+    }
+
+    private LogTag parseTag(String input) {
+        for (LogTag tag : LogTag.values()) {
+            if (tag.name().equalsIgnoreCase(input)) return tag;
+        }
+        return null;
+    }
+
+    private String shorten(String message) {
+        return shorten(message, 80);
+    }
+
+    private String shorten(String message, int length) {
+        return message.length() > length ? message.substring(0, length) + "..." : message;
+    }
+
+    private void sendEmpty(User user) {
+        user.sendMessage(new ConfigValue(
+            "commands.logs.empty",
+            "{prefix} &cNo logs available",
+            true
+        ).replacePrefix().colorize().message());
+    }
+
+    private void sendError(User user, IOException exception) {
+        Sierra.getPlugin().getLogger().warning("Unable to read logs: " + exception.getMessage());
+        user.sendMessage(new ConfigValue(
+            "commands.logs.error",
+            "{prefix} &cUnable to read logs, see console for details",
+            true
+        ).replacePrefix().colorize().message());
+    }
+
+    private void sendHelpSyntax(User user) {
+        user.sendMessage(new ConfigValue(
+            "commands.logs.invalid",
+            "{prefix} &cInvalid usage, try /sierra logs <player> [tag|all|export] [since, e.g. 30m]",
+            true
+        ).replacePrefix().colorize().message());
+    }
+
+    /**
+     * Converts an ID and arguments into a list of strings.
+     *
+     * @param id   The ID to convert.
+     * @param args The arguments to consider while converting.
+     * @return The converted list of strings.
+     */
+    @Override
+    public List<String> fromId(int id, String[] args) {
+        if (id == 1) {
+            return Collections.singletonList("logs");
+        } else if (id == 3 && args[0].equalsIgnoreCase("logs")) {
+            List<String> filters = new ArrayList<>();
+            filters.add("all");
+            filters.add("export");
+            for (LogTag tag : LogTag.values()) {
+                filters.add(tag.name().toLowerCase(Locale.ROOT));
+            }
+            return filters;
+        } else if (id == 4 && args[0].equalsIgnoreCase("logs")) {
+            return Arrays.asList("15m", "1h", "1d");
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Returns the description of this method.
+     *
+     * @return The description of the method
+     */
+    @Override
+    public String description() {
+        return "Search the logs of a player";
+    }
+
+    @Override
+    public String permission() {
+        return "sierra.command.logs";
+    }
+}
@@ -1,8 +1,13 @@
 package de.feelix.sierra.command.impl;
 
+import com.github.retrooper.packetevents.protocol.packettype.PacketType;
 import com.github.retrooper.packetevents.protocol.player.User;
 import de.feelix.sierra.Sierra;
+import de.feelix.sierra.check.DetectionPipeline;
+import de.feelix.sierra.manager.packet.ItemVerdictCache;
 import de.feelix.sierra.manager.storage.PlayerData;
+import de.feelix.sierra.manager.storage.processor.TransactionTracker;
+import de.feelix.sierra.manager.storage.timings.CheckTimings;
 import de.feelix.sierra.utilities.message.ConfigValue;
 import de.feelix.sierraapi.commands.*;
 import de.feelix.sierraapi.timing.Timing;
@@ -11,7 +16,10 @@ import de.feelix.sierraapi.user.impl.SierraUser;
 
 import java.lang.ref.WeakReference;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * MonitorCommand is a class that represents a command that prints monitoring information related to the player.
@@ -20,6 +28,11 @@ import java.util.List;
  */
 public class MonitorCommand implements ISierraCommand {
 
+    /**
+     * The maximum amount of check timings printed by the performance monitor.
+     */
+    private static final int MAX_CHECK_TIMINGS = 8;
+
     /**
      * The process method is responsible for processing the command and printing the performance monitor information
      * related to the player.
@@ -53,6 +66,7 @@ public class MonitorCommand implements ISierraCommand {
             return;
         }
         printMonitor(user, sierraUser);
+        printTransactions(user, playerData.get());
     }
 
     /**
@@ -80,6 +94,124 @@ public class MonitorCommand implements ISierraCommand {
             ).replacePrefix().colorize().message());
         sendTiming(timingProcessor.getMovementTask(), "Movement Task", user);
         sendTiming(timingProcessor.getFrequencyTask(), "Frequency Task", user);
+        printCheckTimings(user);
+        printItemCache(user);
+        printDetectionPipeline(user);
+    }
+
+    /**
+     * Prints the check and packet type pairs with the highest 99th percentile, measured over all players.
+     *
+     * @param user the User associated with the command execution
+     */
+    private void printCheckTimings(User user) {
+        List<CheckTimings.Entry> entries = Sierra.getPlugin().getCheckTimings().recorded();
+
+        // Netty threads keep recording while sorting, so the order is based on one snapshot of every percentile
+        Map<CheckTimings.Entry, Double> percentiles = new IdentityHashMap<>();
+        for (CheckTimings.Entry entry : entries) {
+            percentiles.put(entry, entry.getTiming().percentile(0.99));
+        }
+        entries.sort(Comparator.comparingDouble((CheckTimings.Entry entry) -> percentiles.get(entry)).reversed());
+
+        user.sendMessage(
+            new ConfigValue(
+                "commands.monitor.checks-header",
+                "{prefix} &b&lChecks &7(All players):",
+                true
+            ).replacePrefix().colorize().message());
+
+        for (CheckTimings.Entry entry : entries.subList(0, Math.min(MAX_CHECK_TIMINGS, entries.size()))) {
+            String packet = entry.getPacketType() instanceof PacketType.Play.Client
+                            || entry.getPacketType() instanceof PacketType.Play.Server
+                ? entry.getPacketType().getName() : "OTHER";
+            String check = entry.getCheckType() != null ? entry.getCheckType().getFriendlyName() : "Unknown";
+            sendTiming(entry.getTiming(), check + " " + packet, user);
+        }
+    }
+
+    /**
+     * Prints the statistics of the outstanding transactions of the player.
+     *
+     * @param user       the User associated with the command execution
+     * @param playerData the PlayerData of the user
+     */
+    private void printTransactions(User user, PlayerData playerData) {
+        TransactionTracker tracker = playerData.getTransactionProcessor().getTracker();
+        user.sendMessage(
+            new ConfigValue(
+                "commands.monitor.transactions-header",
+                "{prefix} &b&lTransactions:",
+                true
+            ).replacePrefix().colorize().message());
+        user.sendMessage(
+            new ConfigValue(
+                "commands.monitor.transactions-entry",
+                "{prefix}  &8- &fOutstanding &7{outstanding} &8| &fMax &7{max} &8| &fSkipped &7{skipped} &8| "
+                + "&fOverflows &7{overflows} &8| &fCapacity &7{capacity}",
+                true
+            ).replacePrefix()
+                .replace("{outstanding}", String.valueOf(tracker.outstanding()))
+                .replace("{max}", String.valueOf(tracker.maxOutstanding()))
+                .replace("{skipped}", String.valueOf(tracker.skipped()))
+                .replace("{overflows}", String.valueOf(tracker.overflows()))
+                .replace("{capacity}", String.valueOf(tracker.capacity()))
+                .colorize().message());
+    }
+
+    /**
+     * Prints the statistics of the server-wide item verdict cache.
+     *
+     * @param user the User associated with the command execution
+     */
+    private void printItemCache(User user) {
+        ItemVerdictCache cache = Sierra.getPlugin().getItemVerdictCache();
+        user.sendMessage(
+            new ConfigValue(
+                "commands.monitor.item-cache-header",
+                "{prefix} &b&lItem cache:",
+                true
+            ).replacePrefix().colorize().message());
+        user.sendMessage(
+            new ConfigValue(
+                "commands.monitor.item-cache-entry",
+                "{prefix}  &8- &fHits &7{hits} &8| &fMisses &7{misses} &8| &fEvictions &7{evictions} &8| &fSlots "
+                + "&7{capacity}",
+                true
+            ).replacePrefix()
+                .replace("{hits}", String.valueOf(cache.hits()))
+                .replace("{misses}", String.valueOf(cache.misses()))
+                .replace("{evictions}", String.valueOf(cache.evictions()))
+                .replace("{capacity}", String.valueOf(cache.capacity()))
+                .colorize().message());
+    }
+
+    /**
+     * Prints the statistics of the detection pipeline.
+     *
+     * @param user the User associated with the command execution
+     */
+    private void printDetectionPipeline(User user) {
+        DetectionPipeline pipeline = Sierra.getPlugin().getDetectionPipeline();
+        user.sendMessage(
+            new ConfigValue(
+                "commands.monitor.detection-queue-header",
+                "{prefix} &b&lDetection queue:",
+                true
+            ).replacePrefix().colorize().message());
+        user.sendMessage(
+            new ConfigValue(
+                "commands.monitor.detection-queue-entry",
+                "{prefix}  &8- &fQueued &7{submitted} &8| &fReported &7{processed} &8| &fDropped &7{dropped} &8| "
+                + "&fInline &7{inline} &8| &fPending &7{pending}",
+                true
+            ).replacePrefix()
+                .replace("{submitted}", String.valueOf(pipeline.submitted()))
+                .replace("{processed}", String.valueOf(pipeline.processed()))
+                .replace("{dropped}", String.valueOf(pipeline.dropped()))
+                .replace("{inline}", String.valueOf(pipeline.inline()))
+                .replace("{pending}", String.valueOf(pipeline.pending()))
+                .colorize().message());
     }
 
     /**
@@ -93,11 +225,17 @@ public class MonitorCommand implements ISierraCommand {
         user.sendMessage(
             new ConfigValue(
                 "commands.monitor.entry",
-                "{prefix}  &8- &f{title} &7({delay}ms)",
+                "{prefix}  &8- &f{title} &7p50 {p50}ms &8| &7p99 {p99}ms &8| &7p999 {p999}ms &8| &7max {max}ms "
+                + "&8| &7{count}x",
                 true
             ).replacePrefix()
                 .replace("{title}", title)
                 .replace("{delay}", String.format("%.5f", packetReceiveTiming.delay()))
+                .replace("{p50}", String.format("%.5f", packetReceiveTiming.percentile(0.5)))
+                .replace("{p99}", String.format("%.5f", packetReceiveTiming.percentile(0.99)))
+                .replace("{p999}", String.format("%.5f", packetReceiveTiming.percentile(0.999)))
+                .replace("{max}", String.format("%.5f", packetReceiveTiming.max()))
+                .replace("{count}", String.valueOf(packetReceiveTiming.count()))
                 .colorize().message());
     }
 
@@ -34,6 +34,13 @@ public class ReloadCommand implements ISierraCommand {
         // Remove all cached config files
         Sierra.getPlugin().getSierraConfigEngine().invalidateCache();
 
+        // Swap in freshly compiled settings
+        Sierra.getPlugin().getSierraConfigEngine().reloadSettings();
+
+        // Forget item verdicts made under the old settings
+        Sierra.getPlugin().getItemVerdictCache().invalidate(
+            Sierra.getPlugin().getSierraConfigEngine().settings().getItemVerdictCacheSize());
+
         // Reset prefix
         Sierra.getPlugin().setPrefix();
 
@@ -10,10 +10,10 @@ import com.github.retrooper.packetevents.protocol.item.ItemStack;
 import com.github.retrooper.packetevents.protocol.packettype.PacketType;
 import com.github.retrooper.packetevents.wrapper.PacketWrapper;
 import com.github.retrooper.packetevents.wrapper.play.client.*;
+import de.feelix.sierra.manager.packet.ItemAnalysis;
 import de.feelix.sierra.manager.storage.PlayerData;
 import de.feelix.sierra.manager.storage.SierraDataManager;
 import de.feelix.sierra.manager.storage.logger.LogTag;
-import de.feelix.sierra.utilities.CastUtil;
 import de.feelix.sierra.utilities.FormatUtils;
 
 public class PacketLoggerListener extends PacketListenerAbstract {
@@ -33,20 +33,20 @@ public class PacketLoggerListener extends PacketListenerAbstract {
 
         if (event.getPacketType() == PacketType.Play.Client.PLAYER_BLOCK_PLACEMENT) {
 
-            WrapperPlayClientPlayerBlockPlacement wrapper = CastUtil.getSupplier(
-                () -> new WrapperPlayClientPlayerBlockPlacement(event), playerData::exceptionDisconnect);
+            WrapperPlayClientPlayerBlockPlacement wrapper = playerData.getPacketContext().decode(
+                event, WrapperPlayClientPlayerBlockPlacement.class, WrapperPlayClientPlayerBlockPlacement::new);
 
             wrapper.getItemStack().ifPresent(itemStack -> {
                 if (itemStack.getNBT() != null) {
                     playerData.getSierraLogger()
-                        .log(LogTag.BLOCK_PLACE, FormatUtils.mapToString(itemStack.getNBT().getTags()));
+                        .log(LogTag.BLOCK_PLACE, describe(event, playerData, itemStack));
                 }
             });
 
         } else if (event.getPacketType() == PacketType.Play.Client.PLUGIN_MESSAGE) {
 
-            WrapperPlayClientPluginMessage wrapper = CastUtil.getSupplier(
-                () -> new WrapperPlayClientPluginMessage(event), playerData::exceptionDisconnect);
+            WrapperPlayClientPluginMessage wrapper = playerData.getPacketContext().decode(
+                event, WrapperPlayClientPluginMessage.class, WrapperPlayClientPluginMessage::new);
 
             String payload = wrapper.getChannelName();
 
@@ -64,7 +64,7 @@ public class PacketLoggerListener extends PacketListenerAbstract {
                         if (itemStack.getNBT() != null) {
                             playerData.getSierraLogger()
                                 .log(
-                                    LogTag.PAYLOAD, FormatUtils.mapToString(itemStack.getNBT().getTags())
+                                    LogTag.PAYLOAD, describe(event, playerData, itemStack)
                                 );
                         }
                     } catch (Exception exception) {
@@ -77,29 +77,47 @@ public class PacketLoggerListener extends PacketListenerAbstract {
 
         } else if (event.getPacketType() == PacketType.Play.Client.CREATIVE_INVENTORY_ACTION) {
 
-            WrapperPlayClientCreativeInventoryAction wrapper = CastUtil.getSupplier(
-                () -> new WrapperPlayClientCreativeInventoryAction(event), playerData::exceptionDisconnect);
+            WrapperPlayClientCreativeInventoryAction wrapper = playerData.getPacketContext().decode(
+                event, WrapperPlayClientCreativeInventoryAction.class, WrapperPlayClientCreativeInventoryAction::new);
 
             ItemStack itemStack = wrapper.getItemStack();
             if (itemStack != null && itemStack.getNBT() != null) {
                 playerData.getSierraLogger()
-                    .log(LogTag.CREATIVE, FormatUtils.mapToString(itemStack.getNBT().getTags()));
+                    .log(LogTag.CREATIVE, describe(event, playerData, itemStack));
             }
 
         } else if (event.getPacketType() == PacketType.Play.Client.CLICK_WINDOW) {
 
-            WrapperPlayClientClickWindow wrapper = CastUtil.getSupplier(
-                () -> new WrapperPlayClientClickWindow(event), playerData::exceptionDisconnect);
+            WrapperPlayClientClickWindow wrapper = playerData.getPacketContext().decode(
+                event, WrapperPlayClientClickWindow.class, WrapperPlayClientClickWindow::new);
 
             ItemStack itemStack = wrapper.getCarriedItemStack();
             if (itemStack != null && itemStack.getNBT() != null) {
                 playerData.getSierraLogger()
-                    .log(LogTag.WINDOW_CLICK, FormatUtils.mapToString(itemStack.getNBT().getTags()));
+                    .log(LogTag.WINDOW_CLICK, describe(event, playerData, itemStack));
             }
         }
     }
 
+    /**
+     * Renders the nbt of an item for the log. Items whose analysis exceeded the nbt budget are only summarized, so
+     * the logger never renders an oversize tree.
+     *
+     * @param event      the event carrying the item
+     * @param playerData the player that sent the item
+     * @param itemStack  the item to describe
+     * @return the log line for the item
+     */
+    private String describe(PacketReceiveEvent event, PlayerData playerData, ItemStack itemStack) {
+        ItemAnalysis analysis = playerData.getPacketContext().analyze(event, itemStack);
+        if (!analysis.isWithinBudget()) {
+            return "oversize nbt (" + analysis.getViolation() + ", " + analysis.getBytes() + " bytes)";
+        }
+        //noinspection DataFlowIssue
+        return FormatUtils.mapToString(itemStack.getNBT().getTags());
+    }
+
     private PlayerData getPlayerData(ProtocolPacketEvent event) {
-        return SierraDataManager.getInstance().getPlayerData(event.getUser()).get();
+        return SierraDataManager.getInstance().resolvePlayerData(event.getUser());
     }
 }
@@ -10,10 +10,8 @@ import de.feelix.sierra.check.violation.Debug;
 import de.feelix.sierra.manager.storage.PlayerData;
 import de.feelix.sierra.manager.storage.SierraDataManager;
 import de.feelix.sierra.manager.storage.logger.LogTag;
-import de.feelix.sierra.utilities.CastUtil;
 import de.feelix.sierra.utilities.FormatUtils;
 import de.feelix.sierraapi.violation.MitigationStrategy;
-import org.bukkit.configuration.file.YamlConfiguration;
 
 import java.util.Arrays;
 import java.util.logging.Logger;
@@ -39,8 +37,12 @@ public class PacketReceiveListener extends PacketListenerAbstract {
             return;
         }
 
+        Sierra.getPlugin().getMetricsRegistry().packetReceived(event.getPacketType());
+
         if (isWeirdPacket(event, playerData)) return;
 
+        playerData.getPacketContext().bind(event);
+
         if (bypassPermission(playerData)) {
             event.setCancelled(false);
             return;
@@ -57,24 +59,23 @@ public class PacketReceiveListener extends PacketListenerAbstract {
         playerData.getBrandProcessor().process(event);
         playerData.getPingProcessor().handlePacketReceive(event);
         playerData.getCheckManager().processAvailableChecksReceive(event);
+        playerData.getPacketContext().rememberVerdict(event);
 
         playerData.getTimingProcessor().getPacketReceiveTask().end();
     }
 
     private void handleLocale(PacketReceiveEvent event, PlayerData playerData) {
         if (event.getPacketType() == PacketType.Play.Client.CLIENT_SETTINGS) {
-            WrapperPlayClientSettings wrapper = CastUtil.getSupplier(
-                () -> new WrapperPlayClientSettings(event), playerData::exceptionDisconnect);
+            WrapperPlayClientSettings wrapper = playerData.getPacketContext().decode(
+                event, WrapperPlayClientSettings.class, WrapperPlayClientSettings::new);
             playerData.setLocale(wrapper.getLocale());
         }
     }
 
     private boolean isWeirdPacket(ProtocolPacketEvent event, PlayerData playerData) {
 
-        YamlConfiguration sierraConfig = Sierra.getPlugin().getSierraConfigEngine().config();
-
         int readableBytes = ByteBufHelper.readableBytes(event.getByteBuf());
-        int maxPacketSize = sierraConfig.getInt("generic-packet-size-limit", 6000);
+        int maxPacketSize = Sierra.getPlugin().getSierraConfigEngine().settings().getGenericPacketSizeLimit();
         int capacity = ByteBufHelper.capacity(event.getByteBuf());
 
         boolean shouldCheck = maxPacketSize != -1;
@@ -122,12 +123,12 @@ public class PacketReceiveListener extends PacketListenerAbstract {
     }
 
     private boolean bypassPermission(PlayerData playerData) {
-        return Sierra.getPlugin().getSierraConfigEngine().config().getBoolean("enable-bypass-permission", false)
+        return Sierra.getPlugin().getSierraConfigEngine().settings().isEnableBypassPermission()
                && playerData.isBypassPermission();
     }
 
     private PlayerData getPlayerData(ProtocolPacketEvent event) {
-        return SierraDataManager.getInstance().getPlayerData(event.getUser()).get();
+        return SierraDataManager.getInstance().resolvePlayerData(event.getUser());
     }
 
     private boolean handleExemptOrBlockedPlayer(PlayerData playerData, ProtocolPacketEvent event) {
@@ -5,6 +5,7 @@ import com.github.retrooper.packetevents.event.PacketListenerPriority;
 import com.github.retrooper.packetevents.event.PacketSendEvent;
 import com.github.retrooper.packetevents.event.ProtocolPacketEvent;
 import com.github.retrooper.packetevents.protocol.ConnectionState;
+import com.github.retrooper.packetevents.protocol.packettype.PacketType;
 import de.feelix.sierra.Sierra;
 import de.feelix.sierra.manager.storage.PlayerData;
 import de.feelix.sierra.manager.storage.SierraDataManager;
@@ -23,27 +24,39 @@ public class PacketSendListener extends PacketListenerAbstract {
 
         PlayerData playerData = getPlayerData(event);
 
-        if (playerData == null || handleExemptOrBlockedPlayer(playerData, event)) return;
+        if (playerData == null) return;
+
+        Sierra.getPlugin().getMetricsRegistry().packetSent(event.getPacketType());
+
+        if (event.getPacketType() == PacketType.Play.Server.JOIN_GAME) {
+            // The entity id was already applied to the user by the PacketEvents internal listener
+            SierraDataManager.getInstance().indexEntityId(playerData, event.getUser().getEntityId());
+        }
+
+        // Always tracked, the game mode is not polled from Bukkit
+        playerData.getGameModeProcessor().process(event);
+
+        if (handleExemptOrBlockedPlayer(playerData, event)) return;
 
         if (bypassPermission(playerData)) {
             event.setCancelled(false);
             return;
         }
 
-        playerData.getTimingProcessor().getPacketSendTask().prepare();
+        boolean timed = playerData.getTimingProcessor().sampleOutgoing();
+        if (timed) playerData.getTimingProcessor().getPacketSendTask().prepare();
 
         playerData.getTeleportProcessor().handle(event);
         playerData.getTransactionProcessor().handleTransactionSend(event);
-        playerData.getGameModeProcessor().process(event);
         playerData.getPingProcessor().handlePacketSend(event);
 
-        playerData.getCheckManager().processAvailableChecksSend(event);
+        playerData.getCheckManager().processAvailableChecksSend(event, timed);
 
-        playerData.getTimingProcessor().getPacketSendTask().end();
+        if (timed) playerData.getTimingProcessor().getPacketSendTask().end();
     }
 
     private boolean bypassPermission(PlayerData playerData) {
-        return Sierra.getPlugin().getSierraConfigEngine().config().getBoolean("enable-bypass-permission", false)
+        return Sierra.getPlugin().getSierraConfigEngine().settings().isEnableBypassPermission()
                && playerData.isBypassPermission();
     }
 
@@ -60,6 +73,6 @@ public class PacketSendListener extends PacketListenerAbstract {
     }
 
     private PlayerData getPlayerData(ProtocolPacketEvent event) {
-        return SierraDataManager.getInstance().getPlayerData(event.getUser()).get();
+        return SierraDataManager.getInstance().resolvePlayerData(event.getUser());
     }
 }
@@ -0,0 +1,32 @@
+package de.feelix.sierra.listener.bukkit;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerCommandSendEvent;
+
+/**
+ * This class represents a listener that refreshes the cached permissions of a player whenever the server resends
+ * the command tree, which it does after the permissions of a player were recalculated.
+ * <p>
+ * PlayerCommandSendEvent only exists on 1.13 and newer, so this listener is kept apart from the
+ * {@link PlayerStateListener} and only registered on those servers.
+ */
+public class CommandSendListener implements Listener {
+
+    private final PlayerStateListener playerStateListener;
+
+    public CommandSendListener(PlayerStateListener playerStateListener) {
+        this.playerStateListener = playerStateListener;
+    }
+
+    /**
+     * Refreshes the cached permissions after the server recalculated them.
+     *
+     * @param event The PlayerCommandSendEvent to handle.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void handle(PlayerCommandSendEvent event) {
+        playerStateListener.refresh(event.getPlayer());
+    }
+}
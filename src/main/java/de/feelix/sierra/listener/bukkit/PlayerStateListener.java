@@ -0,0 +1,89 @@
+package de.feelix.sierra.listener.bukkit;
+
+import de.feelix.sierra.Sierra;
+import de.feelix.sierra.manager.storage.PlayerData;
+import de.feelix.sierra.manager.storage.SierraDataManager;
+import de.feelix.sierraapi.user.impl.SierraUser;
+import io.github.retrooper.packetevents.util.folia.FoliaScheduler;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+
+/**
+ * This class represents a listener that keeps the Bukkit state of a player up to date, so nothing has to poll it
+ * every tick.
+ * <p>
+ * The Bukkit player is bound to its PlayerData on join. Permissions are cached in the PlayerData and refreshed on
+ * join, on world changes and, on 1.13 and newer, whenever the server resends the command tree. Bukkit has no event
+ * for changed permissions, so they are additionally refreshed every few seconds.
+ */
+public class PlayerStateListener implements Listener {
+
+    /**
+     * The interval in ticks of the fallback permission refresh.
+     */
+    private static final long PERMISSION_REFRESH_TICKS = 100;
+
+    /**
+     * Binds every player that is already online, for example after a reload.
+     */
+    public void bindOnlinePlayers() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            PlayerData playerData = playerData(player);
+            if (playerData != null) playerData.bind(player);
+        }
+    }
+
+    /**
+     * Periodically refreshes the cached permissions of every bound player, since permission plugins may change them
+     * without any event.
+     */
+    public void schedulePermissionRefresh() {
+        FoliaScheduler.getAsyncScheduler().runAtFixedRate(Sierra.getPlugin(), o -> {
+            for (PlayerData playerData : SierraDataManager.getInstance().getPlayerData().values()) {
+                Object player = playerData.getBukkitPlayer();
+                if (player instanceof Player) playerData.refreshPermissions((Player) player);
+            }
+        }, PERMISSION_REFRESH_TICKS, PERMISSION_REFRESH_TICKS);
+    }
+
+    /**
+     * Binds the Bukkit player to its PlayerData once the player joined.
+     *
+     * @param event The PlayerJoinEvent to handle.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void handle(PlayerJoinEvent event) {
+        PlayerData playerData = playerData(event.getPlayer());
+        if (playerData != null) playerData.bind(event.getPlayer());
+    }
+
+    /**
+     * Refreshes the cached permissions, which may be specific to a world.
+     *
+     * @param event The PlayerChangedWorldEvent to handle.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void handle(PlayerChangedWorldEvent event) {
+        refresh(event.getPlayer());
+    }
+
+    /**
+     * Re-reads the cached permissions of the given player.
+     *
+     * @param player the player
+     */
+    void refresh(Player player) {
+        PlayerData playerData = playerData(player);
+        if (playerData != null) playerData.refreshPermissions(player);
+    }
+
+    private PlayerData playerData(Player player) {
+        SierraUser user = SierraDataManager.getInstance().queryUserByUuid(player.getUniqueId()).orElse(null);
+        return user instanceof PlayerData ? (PlayerData) user : null;
+    }
+}
@@ -2,6 +2,7 @@ package de.feelix.sierra.manager.config;
 
 import de.feelix.sierra.Sierra;
 import de.feelix.sierra.utilities.FileUtil;
+import de.feelix.sierra.utilities.message.MessageTemplate;
 import org.bukkit.configuration.file.YamlConfiguration;
 
 import java.io.File;
@@ -28,16 +29,31 @@ public class SierraConfigEngine {
      */
     private static final Map<String, YamlConfiguration> cache = new ConcurrentHashMap<>();
 
+    /**
+     * The settings variable holds the compiled snapshot of sierra.yml. It is replaced as a whole on reload, so
+     * readers on netty threads always see one consistent version of the configuration.
+     */
+    private volatile SierraSettings settings;
+
+    /**
+     * The compiled message templates of messages.yml and sierra.yml, keyed by message key. The messages are
+     * compiled when the configuration is loaded, keys missing from the files are compiled from their fallback on
+     * first use. Both maps are cleared together with the file cache.
+     */
+    private final Map<String, MessageTemplate> messageTemplates = new ConcurrentHashMap<>();
+    private final Map<String, MessageTemplate> configTemplates  = new ConcurrentHashMap<>();
+
     /**
      * The SierraConfigEngine function is a constructor for the SierraConfigEngine class.
      * It loads the main configuration file and messages file into memory, so that they can be accessed by other
      * functions.
      */
     public SierraConfigEngine() {
-        //noinspection unused
         YamlConfiguration mainConfig = config();
         //noinspection unused
         YamlConfiguration messages   = messages();
+        this.settings = SierraSettings.compile(mainConfig);
+        compileMessages();
     }
 
     /**
@@ -51,6 +67,56 @@ public class SierraConfigEngine {
         return getFileFromCache("sierra.yml");
     }
 
+    /**
+     * Returns the compiled settings snapshot of sierra.yml. This is the preferred way to read configuration values
+     * on the packet path.
+     *
+     * @return the current SierraSettings
+     */
+    public SierraSettings settings() {
+        return settings;
+    }
+
+    /**
+     * Compiles sierra.yml into a new settings snapshot and swaps it in atomically, and compiles the message
+     * templates of messages.yml.
+     */
+    public void reloadSettings() {
+        this.settings = SierraSettings.compile(config());
+        compileMessages();
+    }
+
+    /**
+     * Returns the compiled template of a configurable message. The first fallback passed for a missing key is
+     * used until the next reload.
+     *
+     * @param messageKey       the key of the message
+     * @param messageOnFailure the message text used if the key does not exist
+     * @param messageFile      true to read messages.yml, false to read sierra.yml
+     * @return the compiled template
+     */
+    public MessageTemplate template(String messageKey, String messageOnFailure, boolean messageFile) {
+        Map<String, MessageTemplate> templates = messageFile ? messageTemplates : configTemplates;
+        MessageTemplate template = templates.get(messageKey);
+        if (template != null) return template;
+
+        YamlConfiguration configuration = messageFile ? messages() : config();
+        return templates.computeIfAbsent(
+            messageKey, key -> MessageTemplate.compile(configuration.getString(key, messageOnFailure)));
+    }
+
+    /**
+     * Compiles every message of messages.yml into a template.
+     */
+    private void compileMessages() {
+        YamlConfiguration messages = messages();
+        for (String key : messages.getKeys(true)) {
+            if (messages.isString(key)) {
+                messageTemplates.put(key, MessageTemplate.compile(messages.getString(key)));
+            }
+        }
+    }
+
     /**
      * The messages method retrieves the "messages.yml" file from the cache.
      * If the file is not already in the cache, it will be loaded and added to the cache.
@@ -128,5 +194,7 @@ public class SierraConfigEngine {
      */
     public void invalidateCache() {
         cache.clear();
+        messageTemplates.clear();
+        configTemplates.clear();
     }
 }
@@ -0,0 +1,348 @@
+package de.feelix.sierra.manager.config;
+
+import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+import com.github.retrooper.packetevents.protocol.player.ClientVersion;
+import de.feelix.sierra.check.impl.frequency.PacketFrequencyUnit;
+import de.feelix.sierra.check.violation.ViolationDecay;
+import de.feelix.sierra.manager.metrics.MetricsMode;
+import de.feelix.sierra.manager.storage.logger.LogFormat;
+import de.feelix.sierra.manager.storage.processor.TransactionOverflowPolicy;
+import de.feelix.sierra.utilities.RateLimit;
+import de.feelix.sierraapi.check.CheckType;
+import de.feelix.sierraapi.violation.MitigationStrategy;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.util.*;
+
+/**
+ * The SierraSettings class is an immutable, typed snapshot of the sierra.yml configuration.
+ * It is compiled once when the configuration is loaded or reloaded, so the packet path can read settings with a
+ * plain field access instead of walking the YamlConfiguration for every packet.
+ */
+@Getter
+public final class SierraSettings {
+
+    /**
+     * Number of slots in the per-packet tables: one per play state client packet plus one shared slot for
+     * everything else.
+     */
+    public static final int PACKET_SLOTS = PacketType.Play.Client.values().length + 1;
+
+    private final boolean hideVersion;
+    private final boolean enableBypassPermission;
+    private final boolean kickOnPacketException;
+    private final boolean logViolationToConsole;
+    private final boolean blockConnectionsAfterBan;
+    private final int     connectionBlockTime;
+    private final boolean connectionBlockSubnet;
+    private final int     detectionQueueSize;
+    private final int     logBufferSize;
+    private final int     logMaxFileSize;
+    private final int     logDiskBudget;
+    private final LogFormat logFormat;
+    private final int     historyMemorySize;
+    private final int     historyMaxEntries;
+    private final int     historyRetentionDays;
+    private final int     transactionCapacity;
+    private final int     timingsOutgoingSampleRate;
+    private final MetricsMode metricsMode;
+    private final String  metricsAddress;
+    private final int     metricsPort;
+    private final int     metricsFileInterval;
+    private final TransactionOverflowPolicy transactionOverflowPolicy;
+
+    private final boolean preventPacketFrequency;
+    private final boolean preventProtocolPacket;
+    private final boolean preventCreativeCrasher;
+    private final boolean blockDisallowedCommands;
+    private final boolean preventProtocolMove;
+    private final boolean preventTimerCheats;
+    private final boolean preventPostPackets;
+    private final boolean preventBookCrasher;
+    private final boolean genericNbtLimit;
+    private final int     itemVerdictCacheSize;
+
+    private final boolean disableBooksCompletely;
+    private final boolean skipBookReadableCheck;
+    private final boolean skipNegativeExperienceCheck;
+    private final boolean useVanillaAttributeMapping;
+    private final boolean allowNegativeEnchantments;
+    private final int     maxEnchantmentLevel;
+
+    private final int          genericPacketSizeLimit;
+    private final int          genericPacketFrequencyDefault;
+
+    private final PacketFrequencyUnit genericPacketFrequencyUnit;
+    private final MitigationStrategy  genericPacketFrequencyMitigation;
+    private final int          bandwidthLimitDefault;
+    private final RateLimit    bookEditRateLimit;
+    private final RateLimit    recipeRequestRateLimit;
+    private final RateLimit    itemDropRateLimit;
+    private final RateLimit    commandRateLimit;
+    private final List<String> disallowedCommands;
+
+    /**
+     * Rate limit per incoming packet, indexed by {@link #packetIndex(PacketTypeCommon)}.
+     */
+    @Getter(AccessLevel.NONE)
+    private final RateLimit[] packetRateLimits;
+
+    /**
+     * Whether an incoming packet is excluded from the frequency limit, indexed by
+     * {@link #packetIndex(PacketTypeCommon)}.
+     */
+    @Getter(AccessLevel.NONE)
+    private final boolean[] excludedFromLimit;
+
+    /**
+     * Bandwidth budgets per client version range: the first and last protocol version of every range and its
+     * budget in bytes per second.
+     */
+    @Getter(AccessLevel.NONE)
+    private final int[][] bandwidthLimits;
+
+    /**
+     * Violation decay per check type, indexed by the ordinal of the {@link CheckType}.
+     */
+    @Getter(AccessLevel.NONE)
+    private final ViolationDecay[] violationDecays;
+
+    private SierraSettings(YamlConfiguration config) {
+        this.hideVersion = config.getBoolean("hide-version", true);
+        this.enableBypassPermission = config.getBoolean("enable-bypass-permission", false);
+        this.kickOnPacketException = config.getBoolean("kick-on-packet-exception", true);
+        this.logViolationToConsole = config.getBoolean("log-violation-to-console", true);
+        this.blockConnectionsAfterBan = config.getBoolean("block-connections-after-ban", true);
+        this.connectionBlockTime = config.getInt("connection-block-time", 15);
+        this.connectionBlockSubnet = config.getBoolean("connection-block-subnet", false);
+        this.detectionQueueSize = config.getInt("detection-queue-size", 8192);
+        this.logBufferSize = config.getInt("log-buffer-size", 65536);
+        this.logMaxFileSize = Math.max(1, config.getInt("log-max-file-size", 8));
+        this.logDiskBudget = config.getInt("log-disk-budget", 512);
+        this.logFormat = LogFormat.parse(config.getString("log-format", "TEXT"));
+        this.historyMemorySize = config.getInt("history-memory-size", 1000);
+        this.historyMaxEntries = config.getInt("history-max-entries", 100000);
+        this.historyRetentionDays = config.getInt("history-retention-days", 30);
+        this.transactionCapacity = config.getInt("transaction-capacity", 512);
+        this.timingsOutgoingSampleRate = Math.max(1, config.getInt("timings-outgoing-sample-rate", 1));
+        this.metricsMode = MetricsMode.parse(config.getString("metrics-mode", "DISABLED"));
+        this.metricsAddress = config.getString("metrics-address", "127.0.0.1");
+        this.metricsPort = config.getInt("metrics-port", 9464);
+        this.metricsFileInterval = config.getInt("metrics-file-interval", 15);
+        this.transactionOverflowPolicy = TransactionOverflowPolicy.parse(
+            config.getString("transaction-overflow-policy", "SKIP"));
+
+        this.preventPacketFrequency = config.getBoolean("prevent-packet-frequency", true);
+        this.preventProtocolPacket = config.getBoolean("prevent-protocol-packet", true);
+        this.preventCreativeCrasher = config.getBoolean("prevent-creative-crasher", true);
+        this.blockDisallowedCommands = config.getBoolean("block-disallowed-commands", true);
+        this.preventProtocolMove = config.getBoolean("prevent-protocol-move", true);
+        this.preventTimerCheats = config.getBoolean("prevent-timer-cheats", true);
+        this.preventPostPackets = config.getBoolean("prevent-post-packets", true);
+        this.preventBookCrasher = config.getBoolean("prevent-book-crasher", true);
+        this.genericNbtLimit = config.getBoolean("generic-nbt-limit", true);
+        this.itemVerdictCacheSize = config.getInt("item-verdict-cache-size", 4096);
+
+        this.disableBooksCompletely = config.getBoolean("disable-books-completely", false);
+        this.skipBookReadableCheck = config.getBoolean("skip-book-readable-check", false);
+        this.skipNegativeExperienceCheck = config.getBoolean("skip-negative-experience-check", false);
+        this.useVanillaAttributeMapping = config.getBoolean("use-vanilla-attribute-mapping", true);
+        this.allowNegativeEnchantments = config.getBoolean("allow-negative-enchantments", false);
+        this.maxEnchantmentLevel = config.getInt("max-enchantment-level", 5);
+
+        this.genericPacketSizeLimit = config.getInt("generic-packet-size-limit", 6000);
+        this.genericPacketFrequencyDefault = config.getInt("generic-packet-frequency-default", 50);
+        this.genericPacketFrequencyUnit = PacketFrequencyUnit.parse(
+            config.getString("generic-packet-frequency-unit", "TICK"));
+        this.genericPacketFrequencyMitigation = parseMitigation(
+            config.getString("generic-packet-frequency-mitigation", "KICK"), MitigationStrategy.KICK);
+        int perSecond = genericPacketFrequencyUnit.perSecond();
+        this.packetRateLimits = compilePacketRateLimits(
+            parsePacketRateLimits(config.getStringList("generic-packet-frequency-limit"), perSecond),
+            new RateLimit((double) genericPacketFrequencyDefault * perSecond,
+                          (long) genericPacketFrequencyDefault * perSecond)
+        );
+        this.excludedFromLimit = compileExclusions(config.getStringList("excluded-packets-from-limit"));
+        this.bandwidthLimitDefault = config.getInt("bandwidth-limit-default", 64000);
+        this.bandwidthLimits = compileBandwidthLimits(config.getStringList("bandwidth-limit-versions"));
+        this.bookEditRateLimit = parseRateLimit(config, "rate-limit-book-edit", "1:1");
+        this.recipeRequestRateLimit = parseRateLimit(config, "rate-limit-recipe-request", "2:1");
+        this.itemDropRateLimit = parseRateLimit(config, "rate-limit-item-drop", "400:20");
+        this.commandRateLimit = parseRateLimit(config, "rate-limit-command", "1:6");
+        this.disallowedCommands = Collections.unmodifiableList(
+            new ArrayList<>(config.getStringList("disallowed-commands")));
+        this.violationDecays = compileViolationDecays(config);
+    }
+
+    /**
+     * Compiles the given configuration into a new settings snapshot.
+     *
+     * @param config the loaded sierra.yml configuration
+     * @return the compiled settings
+     */
+    public static SierraSettings compile(YamlConfiguration config) {
+        return new SierraSettings(config);
+    }
+
+    /**
+     * Returns the dense index of an incoming packet type used by the per-packet tables. Play state client packets
+     * map to their ordinal, every other packet type shares the last slot.
+     *
+     * @param packetType the incoming packet type
+     * @return the table index of the packet type
+     */
+    public static int packetIndex(PacketTypeCommon packetType) {
+        return packetType instanceof PacketType.Play.Client
+            ? ((PacketType.Play.Client) packetType).ordinal()
+            : PACKET_SLOTS - 1;
+    }
+
+    /**
+     * Returns the rate limit of the packet at the given table index.
+     *
+     * @param packetIndex the index from {@link #packetIndex(PacketTypeCommon)}
+     * @return the packets per second and burst the packet is limited to
+     */
+    public RateLimit packetRateLimit(int packetIndex) {
+        return packetRateLimits[packetIndex];
+    }
+
+    /**
+     * Returns whether the packet at the given table index is excluded from the frequency limit.
+     *
+     * @param packetIndex the index from {@link #packetIndex(PacketTypeCommon)}
+     * @return true if the packet is not counted
+     */
+    public boolean isExcludedFromLimit(int packetIndex) {
+        return excludedFromLimit[packetIndex];
+    }
+
+    /**
+     * Returns the bandwidth budget of a client version. The first configured range containing the version wins.
+     *
+     * @param clientVersion the version of the client
+     * @return the maximum amount of bytes per second
+     */
+    public int bandwidthLimit(ClientVersion clientVersion) {
+        int protocol = clientVersion.getProtocolVersion();
+        for (int[] range : bandwidthLimits) {
+            if (protocol >= range[0] && protocol <= range[1]) return range[2];
+        }
+        return bandwidthLimitDefault;
+    }
+
+    /**
+     * Parses the "FROM-TO:Bytes" entries of the bandwidth limit list, where FROM and TO are client versions.
+     * Malformed entries are skipped.
+     */
+    private static int[][] compileBandwidthLimits(List<String> entries) {
+        List<int[]> ranges = new ArrayList<>();
+        for (String entry : entries) {
+            String[] parts    = entry.split(":");
+            String[] versions = parts[0].split("-");
+            if (parts.length != 2 || versions.length != 2) continue;
+            try {
+                ranges.add(new int[]{
+                    ClientVersion.valueOf(versions[0].trim()).getProtocolVersion(),
+                    ClientVersion.valueOf(versions[1].trim()).getProtocolVersion(),
+                    Integer.parseInt(parts[1].trim())
+                });
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+        return ranges.toArray(new int[0][]);
+    }
+
+    /**
+     * Returns the violation decay of the given check type.
+     *
+     * @param checkType the check type
+     * @return the decay of its violations
+     */
+    public ViolationDecay violationDecay(CheckType checkType) {
+        return violationDecays[checkType.ordinal()];
+    }
+
+    /**
+     * Compiles the violation-decay section. Every check type falls back to the DEFAULT entry.
+     */
+    private static ViolationDecay[] compileViolationDecays(YamlConfiguration config) {
+        long   defaultDelay = config.getLong("violation-decay.DEFAULT.delay", 4000);
+        double defaultRate  = config.getDouble("violation-decay.DEFAULT.rate", 20);
+
+        ViolationDecay[] table = new ViolationDecay[CheckType.values().length];
+        for (CheckType checkType : CheckType.values()) {
+            String path = "violation-decay." + checkType.name();
+            table[checkType.ordinal()] = new ViolationDecay(
+                config.getLong(path + ".delay", defaultDelay),
+                config.getDouble(path + ".rate", defaultRate)
+            );
+        }
+        return table;
+    }
+
+    private static RateLimit[] compilePacketRateLimits(Map<String, RateLimit> limits, RateLimit defaultLimit) {
+        RateLimit[] table = new RateLimit[PACKET_SLOTS];
+        Arrays.fill(table, defaultLimit);
+        for (PacketType.Play.Client type : PacketType.Play.Client.values()) {
+            RateLimit limit = limits.get(type.getName());
+            if (limit != null) table[type.ordinal()] = limit;
+        }
+        return table;
+    }
+
+    /**
+     * Parses a "Rate:Burst" limit, falling back to the default if it is missing or malformed.
+     */
+    private static RateLimit parseRateLimit(YamlConfiguration config, String path, String fallback) {
+        try {
+            return RateLimit.parse(config.getString(path, fallback));
+        } catch (NumberFormatException e) {
+            return RateLimit.parse(fallback);
+        }
+    }
+
+    /**
+     * Parses a mitigation strategy, ignoring the case, falling back to the default if it is unknown.
+     */
+    private static MitigationStrategy parseMitigation(String input, MitigationStrategy fallback) {
+        try {
+            return MitigationStrategy.valueOf(input.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return fallback;
+        }
+    }
+
+    private static boolean[] compileExclusions(List<String> excluded) {
+        boolean[] table = new boolean[PACKET_SLOTS];
+        for (PacketType.Play.Client type : PacketType.Play.Client.values()) {
+            table[type.ordinal()] = excluded.contains(type.getName());
+        }
+        return table;
+    }
+
+    /**
+     * Parses the "PACKET_TYPE:Rate" or "PACKET_TYPE:Rate:Burst" entries of the frequency limit list. The first entry
+     * for a packet type wins, malformed entries are skipped.
+     *
+     * @param entries   the raw list entries
+     * @param perSecond how many units of the configured rates fit into one second
+     * @return a map of packet type names to their limit
+     */
+    private static Map<String, RateLimit> parsePacketRateLimits(List<String> entries, int perSecond) {
+        Map<String, RateLimit> limits = new HashMap<>();
+        for (String entry : entries) {
+            int separator = entry.indexOf(':');
+            if (separator <= 0) continue;
+            try {
+                limits.putIfAbsent(
+                    entry.substring(0, separator), RateLimit.parse(entry.substring(separator + 1), perSecond));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return limits;
+    }
+}
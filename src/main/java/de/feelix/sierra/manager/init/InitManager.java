@@ -60,6 +60,7 @@ public class InitManager {
         // On start
         initializersOnStart.add(new InitPacketListeners());
         initializersOnStart.add(new InitBStats());
+        initializersOnStart.add(new InitMetrics());
         initializersOnStart.add(new InitCommand());
         initializersOnStart.add(new Ticker());
         initializersOnStart.add(new InitEnvironment());
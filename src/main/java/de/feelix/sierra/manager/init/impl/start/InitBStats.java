@@ -2,11 +2,15 @@ package de.feelix.sierra.manager.init.impl.start;
 
 import de.feelix.sierra.Sierra;
 import de.feelix.sierra.manager.init.Initable;
-import de.feelix.sierra.manager.storage.SierraDataManager;
+import de.feelix.sierra.manager.metrics.MetricsRegistry;
+import de.feelix.sierraapi.check.CheckType;
 import io.github.retrooper.packetevents.bstats.bukkit.Metrics;
 import io.github.retrooper.packetevents.bstats.charts.AdvancedPie;
 import io.github.retrooper.packetevents.bstats.charts.SingleLineChart;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * The InitBStats class is responsible for initializing the bStats metrics for the Sierra plugin.
  * It implements the Initable interface and overrides the start() method.
@@ -22,6 +26,13 @@ public class InitBStats implements Initable {
      */
     private static final int PLUGIN_ID = 21527;
 
+    /**
+     * The totals of the {@link MetricsRegistry} at the last submission, since bStats expects the amount per interval
+     * while the registry counters never reset.
+     */
+    private long reportedBans;
+    private long reportedKicks;
+
     /**
      * The start() method initializes the bStats metrics for the Sierra plugin.
      * It sets up metrics for bans, kicks, and active check types.
@@ -29,26 +40,36 @@ public class InitBStats implements Initable {
     @Override
     public void start() {
         Metrics metrics = new io.github.retrooper.packetevents.bstats.bukkit.Metrics(Sierra.getPlugin(), PLUGIN_ID);
+        MetricsRegistry registry = Sierra.getPlugin().getMetricsRegistry();
 
         metrics.addCustomChart(new SingleLineChart(
             "bans",
             () -> {
-                int bans = SierraDataManager.BANS;
-                SierraDataManager.BANS = 0;
-                return bans;
+                long bans = registry.bans();
+                int delta = (int) (bans - reportedBans);
+                reportedBans = bans;
+                return delta;
             }
         ));
         metrics.addCustomChart(new SingleLineChart(
             "kicks",
             () -> {
-                int kicks = SierraDataManager.KICKS;
-                SierraDataManager.KICKS = 0;
-                return kicks;
+                long kicks = registry.kicks();
+                int delta = (int) (kicks - reportedKicks);
+                reportedKicks = kicks;
+                return delta;
             }
         ));
         metrics.addCustomChart(new AdvancedPie(
             "active_check_types",
-            () -> SierraDataManager.violationCount
+            () -> {
+                Map<String, Integer> punishments = new HashMap<>();
+                for (CheckType checkType : CheckType.values()) {
+                    long count = registry.punishments(checkType);
+                    if (count > 0) punishments.put(checkType.getFriendlyName().replace(" ", ""), (int) count);
+                }
+                return punishments;
+            }
         ));
     }
 }
@@ -1,7 +1,11 @@
 package de.feelix.sierra.manager.init.impl.start;
 
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.manager.server.ServerVersion;
 import de.feelix.sierra.Sierra;
 import de.feelix.sierra.listener.bukkit.BlockRedstoneListener;
+import de.feelix.sierra.listener.bukkit.CommandSendListener;
+import de.feelix.sierra.listener.bukkit.PlayerStateListener;
 import de.feelix.sierra.manager.config.PunishmentConfig;
 import de.feelix.sierra.manager.init.Initable;
 import de.feelix.sierra.utilities.message.ConfigValue;
@@ -9,7 +13,7 @@ import org.bukkit.Bukkit;
 
 /**
  * The InitEnvironment class implements the Initable interface and represents the initialization of the environment for the Sierra plugin.
- * It sets the punishment configuration and registers the BlockRedstoneListener if the "block-redstone-loops" configuration option is set to true.
+ * It sets the punishment configuration, registers the PlayerStateListener and registers the BlockRedstoneListener if the "block-redstone-loops" configuration option is set to true.
  *
  * <p>
  * Example Usage:
@@ -23,13 +27,22 @@ public class InitEnvironment implements Initable {
 
     /**
      * The start method initializes various components of the Sierra plugin and registers event listeners.
-     * It sets the punishment configuration and registers the block redstone listener if the corresponding configuration option is enabled.
+     * It sets the punishment configuration, registers the player state listener and registers the block redstone listener if the corresponding configuration option is enabled.
      */
     @Override
     public void start() {
         Sierra.getPlugin().setPunishmentConfig(PunishmentConfig.valueOf(
             new ConfigValue("internal-punishment-config", "HARD", false).message()));
 
+        PlayerStateListener playerStateListener = new PlayerStateListener();
+        Bukkit.getPluginManager().registerEvents(playerStateListener, Sierra.getPlugin());
+        if (PacketEvents.getAPI().getServerManager().getVersion().isNewerThanOrEquals(ServerVersion.V_1_13)) {
+            Bukkit.getPluginManager().registerEvents(
+                new CommandSendListener(playerStateListener), Sierra.getPlugin());
+        }
+        playerStateListener.bindOnlinePlayers();
+        playerStateListener.schedulePermissionRefresh();
+
         if (Sierra.getPlugin().getSierraConfigEngine().config().getBoolean("block-redstone-loops", true)) {
             Bukkit.getPluginManager().registerEvents(new BlockRedstoneListener(), Sierra.getPlugin());
         }
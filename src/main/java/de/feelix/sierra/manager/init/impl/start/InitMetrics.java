@@ -0,0 +1,63 @@
+package de.feelix.sierra.manager.init.impl.start;
+
+import de.feelix.sierra.Sierra;
+import de.feelix.sierra.check.DetectionPipeline;
+import de.feelix.sierra.manager.init.Initable;
+import de.feelix.sierra.manager.metrics.MetricsRegistry;
+import de.feelix.sierra.manager.packet.ItemVerdictCache;
+import de.feelix.sierra.manager.storage.AddressStorage;
+import de.feelix.sierra.manager.storage.SierraDataManager;
+import de.feelix.sierra.manager.storage.logger.LogService;
+
+/**
+ * The InitMetrics class registers the metrics other components already track with the {@link MetricsRegistry} and
+ * starts the configured export.
+ *
+ * @see Initable
+ */
+public class InitMetrics implements Initable {
+
+    /**
+     * Registers the queue depths, the log writer lag and the cache statistics and starts the metrics export.
+     */
+    @Override
+    public void start() {
+        Sierra            plugin   = Sierra.getPlugin();
+        MetricsRegistry   registry = plugin.getMetricsRegistry();
+        DetectionPipeline pipeline = plugin.getDetectionPipeline();
+        LogService        logs     = plugin.getLogService();
+        ItemVerdictCache  cache    = plugin.getItemVerdictCache();
+        AddressStorage    storage  = plugin.getAddressStorage();
+
+        registry.gauge("sierra_players", "Players tracked by Sierra",
+                       () -> SierraDataManager.getInstance().getPlayerData().size());
+
+        registry.gauge("sierra_detection_queue_depth", "Detections waiting for the worker", pipeline::pending);
+        registry.counter("sierra_detections_submitted_total", "Detections handed to the worker", pipeline::submitted);
+        registry.counter("sierra_detections_processed_total", "Detections reported", pipeline::processed);
+        registry.counter("sierra_detections_dropped_total", "Detections dropped because the queue was full",
+                         pipeline::dropped);
+        registry.counter("sierra_detections_inline_total", "Detections reported inline because the queue was full",
+                         pipeline::inline);
+
+        registry.gauge("sierra_log_queue_depth", "Log lines waiting for the writer", logs::pending);
+        registry.gauge("sierra_log_lag_milliseconds", "Age of the last written log line while lines are pending",
+                       logs::lag);
+        registry.counter("sierra_log_lines_written_total", "Log lines written", logs::written);
+        registry.counter("sierra_log_lines_dropped_total", "Log lines dropped because the writer fell behind",
+                         logs::dropped);
+        registry.counter("sierra_log_closes_delayed_total", "Log closes deferred because the writer fell behind",
+                         logs::delayedCloses);
+
+        registry.counter("sierra_item_cache_hits_total", "Item lookups that found a known-good item", cache::hits);
+        registry.counter("sierra_item_cache_misses_total", "Item lookups that found nothing", cache::misses);
+        registry.counter("sierra_item_cache_evictions_total", "Remembered items replaced by newer ones",
+                         cache::evictions);
+        registry.gauge("sierra_item_cache_capacity", "Slots of the item cache", cache::capacity);
+
+        registry.gauge("sierra_blocked_addresses", "Blocked addresses, including expired ones not removed yet",
+                       storage::size);
+
+        plugin.getMetricsExporter().start();
+    }
+}
@@ -1,15 +1,11 @@
 package de.feelix.sierra.manager.init.impl.start;
 
-import com.github.retrooper.packetevents.protocol.player.GameMode;
 import de.feelix.sierra.Sierra;
 import de.feelix.sierra.manager.init.Initable;
 import de.feelix.sierra.manager.storage.SierraDataManager;
-import de.feelix.sierra.manager.storage.PlayerData;
-import de.feelix.sierraapi.check.impl.SierraCheck;
+import de.feelix.sierra.manager.storage.processor.TransactionEmitter;
 import io.github.retrooper.packetevents.util.folia.FoliaScheduler;
 import lombok.Getter;
-import org.bukkit.Bukkit;
-import org.bukkit.entity.Player;
 
 @Getter
 public class Ticker implements Initable {
@@ -17,13 +13,14 @@ public class Ticker implements Initable {
     @Getter
     private static Ticker instance;
 
-    private int currentTick;
+    private volatile int currentTick;
+
+    private final TransactionEmitter transactionEmitter = new TransactionEmitter();
 
     @Override
     public void start() {
         instance = this;
         scheduleTickTask();
-        scheduleByteResetTask();
         schedulePlayerDataPollTask();
     }
 
@@ -31,39 +28,15 @@ public class Ticker implements Initable {
         FoliaScheduler.getAsyncScheduler().runAtFixedRate(Sierra.getPlugin(), o -> currentTick++, 1, 1);
     }
 
-    private void scheduleByteResetTask() {
-        FoliaScheduler.getAsyncScheduler().runAtFixedRate(Sierra.getPlugin(), o -> {
-            for (PlayerData value : SierraDataManager.getInstance().getPlayerData().values()) {
-                value.setBytesSent(0);
-            }
-        }, 0, 20);
-    }
-
+    /**
+     * Sends the transaction of every bound player each tick, with one task per event loop. Game mode and permissions
+     * are not polled, they are kept up to date by the GameModeProcessor and the PlayerStateListener, and violations
+     * decay lazily.
+     */
     private void schedulePlayerDataPollTask() {
-        FoliaScheduler.getAsyncScheduler().runAtFixedRate(Sierra.getPlugin(), o -> {
-            for (PlayerData value : SierraDataManager.getInstance().getPlayerData().values()) {
-                if (isUserValid(value)) {
-                    Player player = Bukkit.getPlayer(value.getUser().getName());
-                    if (player != null) {
-                        value.setGameMode(GameMode.valueOf(player.getGameMode().name()));
-                        value.pollData(player);
-                    }
-                }
-                handleCheckViolations(value);
-            }
-        }, 0, 1);
-    }
-
-    private boolean isUserValid(PlayerData playerData) {
-        return playerData.getUser() != null && playerData.getUser().getName() != null;
-    }
-
-    private void handleCheckViolations(PlayerData playerData) {
-        for (SierraCheck sierraCheck : playerData.getCheckManager().availableChecks()) {
-            boolean timeSinceLastDetection = System.currentTimeMillis() - sierraCheck.lastDetection() > 4000;
-            if (sierraCheck.violations() > 0 && timeSinceLastDetection) {
-                sierraCheck.setViolations(sierraCheck.violations() - 1);
-            }
-        }
+        FoliaScheduler.getAsyncScheduler().runAtFixedRate(
+            Sierra.getPlugin(),
+            o -> transactionEmitter.emit(SierraDataManager.getInstance().getPlayerData().values()), 0, 1
+        );
     }
 }
@@ -0,0 +1,121 @@
+package de.feelix.sierra.manager.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import de.feelix.sierra.Sierra;
+import de.feelix.sierra.manager.config.SierraSettings;
+import io.github.retrooper.packetevents.util.folia.FoliaScheduler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The MetricsExporter class exports the {@link MetricsRegistry} in the Prometheus text format, either through a tiny
+ * embedded HTTP endpoint or by periodically writing a file.
+ * <p>
+ * The endpoint answers on a single daemon thread and binds to the configured address, which is the loopback address
+ * by default, so only a local scraper or a reverse proxy can reach it.
+ */
+public class MetricsExporter {
+
+    public static final File METRICS_FILE = new File("plugins/Sierra/metrics.prom");
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final MetricsRegistry registry;
+
+    private HttpServer      server;
+    private ExecutorService executor;
+
+    public MetricsExporter(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Starts the export configured by {@code metrics-mode}.
+     */
+    public void start() {
+        SierraSettings settings = Sierra.getPlugin().getSierraConfigEngine().settings();
+
+        if (settings.getMetricsMode() == MetricsMode.HTTP) {
+            startServer(settings.getMetricsAddress(), settings.getMetricsPort());
+        } else if (settings.getMetricsMode() == MetricsMode.FILE) {
+            long period = Math.max(1, settings.getMetricsFileInterval()) * 20L;
+            FoliaScheduler.getAsyncScheduler().runAtFixedRate(Sierra.getPlugin(), o -> writeFile(), period, period);
+        }
+    }
+
+    /**
+     * Stops the HTTP endpoint. The file, if any, keeps its last content.
+     */
+    public void shutdown() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private void startServer(String address, int port) {
+        try {
+            server = HttpServer.create(new InetSocketAddress(address, port), 0);
+        } catch (IOException e) {
+            Sierra.getPlugin().getLogger().warning(
+                "Unable to start the metrics endpoint on " + address + ":" + port + ": " + e.getMessage());
+            return;
+        }
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Sierra Metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/metrics", this::handle);
+        server.start();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = registry.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void writeFile() {
+        File directory = METRICS_FILE.getParentFile();
+        if (!directory.exists() && !directory.mkdirs()) {
+            Sierra.getPlugin().getLogger().warning("Failed to create directory: " + directory);
+            return;
+        }
+
+        // Scrapers must never read a half written file, so it is replaced in one step
+        File temporary = new File(directory, METRICS_FILE.getName() + ".tmp");
+        try {
+            Files.write(temporary.toPath(), registry.scrape().getBytes(StandardCharsets.UTF_8));
+            Files.move(temporary.toPath(), METRICS_FILE.toPath(),
+                       StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Sierra.getPlugin().getLogger().warning("Unable to write metrics: " + e.getMessage());
+        }
+    }
+}
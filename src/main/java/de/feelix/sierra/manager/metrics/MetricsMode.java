@@ -0,0 +1,35 @@
+package de.feelix.sierra.manager.metrics;
+
+/**
+ * How the server-wide metrics are exported.
+ */
+public enum MetricsMode {
+
+    /**
+     * The metrics are collected but not exported.
+     */
+    DISABLED,
+
+    /**
+     * The metrics are served in the Prometheus text format on /metrics of a local HTTP endpoint.
+     */
+    HTTP,
+
+    /**
+     * The metrics are periodically written in the Prometheus text format to a file, for example for the textfile
+     * collector of the node exporter.
+     */
+    FILE;
+
+    /**
+     * Parses a configured mode, falling back to {@link #DISABLED} for unknown values.
+     *
+     * @param name the configured name
+     * @return the matching mode
+     */
+    public static MetricsMode parse(String name) {
+        if ("http".equalsIgnoreCase(name)) return HTTP;
+        if ("file".equalsIgnoreCase(name)) return FILE;
+        return DISABLED;
+    }
+}
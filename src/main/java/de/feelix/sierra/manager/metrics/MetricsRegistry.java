@@ -0,0 +1,249 @@
+package de.feelix.sierra.manager.metrics;
+
+import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+import de.feelix.sierraapi.check.CheckType;
+import de.feelix.sierraapi.violation.MitigationStrategy;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * The MetricsRegistry class collects the server-wide metrics of Sierra and renders them in the Prometheus text format.
+ * <p>
+ * Events counted on the netty threads, such as packets, cancellations and violations, are kept in {@link LongAdder}
+ * tables indexed by ordinal, so counting is a single uncontended increment without any lookup. Values other
+ * components already track, such as queue depths and cache statistics, are registered as suppliers and only read
+ * when the metrics are scraped. Counters never reset; consumers that need a delta keep their own last value.
+ */
+public class MetricsRegistry {
+
+    private static final PacketType.Play.Client[] CLIENT_TYPES = PacketType.Play.Client.values();
+    private static final PacketType.Play.Server[] SERVER_TYPES = PacketType.Play.Server.values();
+    private static final CheckType[]              CHECK_TYPES  = CheckType.values();
+    private static final MitigationStrategy[]     STRATEGIES   = MitigationStrategy.values();
+
+    // Packet types outside the play state and checks without a check type share the last slot
+    private final LongAdder[]   packetsReceived = adders(CLIENT_TYPES.length + 1);
+    private final LongAdder[]   packetsSent     = adders(SERVER_TYPES.length + 1);
+    private final LongAdder[]   cancellations   = adders(CHECK_TYPES.length + 1);
+    private final LongAdder[]   punishments     = adders(CHECK_TYPES.length + 1);
+    private final LongAdder[][] violations      = new LongAdder[CHECK_TYPES.length + 1][];
+    private final LongAdder     kicks           = new LongAdder();
+    private final LongAdder     bans            = new LongAdder();
+
+    private final List<Metric> metrics = new CopyOnWriteArrayList<>();
+
+    public MetricsRegistry() {
+        for (int i = 0; i < violations.length; i++) {
+            violations[i] = adders(STRATEGIES.length);
+        }
+    }
+
+    /**
+     * Counts a packet received from a player.
+     *
+     * @param packetType the type of the packet
+     */
+    public void packetReceived(PacketTypeCommon packetType) {
+        packetsReceived[packetType instanceof PacketType.Play.Client
+            ? ((PacketType.Play.Client) packetType).ordinal()
+            : CLIENT_TYPES.length].increment();
+    }
+
+    /**
+     * Counts a packet sent to a player.
+     *
+     * @param packetType the type of the packet
+     */
+    public void packetSent(PacketTypeCommon packetType) {
+        packetsSent[packetType instanceof PacketType.Play.Server
+            ? ((PacketType.Play.Server) packetType).ordinal()
+            : SERVER_TYPES.length].increment();
+    }
+
+    /**
+     * Counts a packet cancelled by a check.
+     *
+     * @param checkType the type of the check, or null if unknown
+     */
+    public void cancellation(CheckType checkType) {
+        cancellations[checkIndex(checkType)].increment();
+    }
+
+    /**
+     * Counts a violation of a check.
+     *
+     * @param checkType          the type of the check, or null if unknown
+     * @param mitigationStrategy the mitigation of the violation
+     */
+    public void violation(CheckType checkType, MitigationStrategy mitigationStrategy) {
+        violations[checkIndex(checkType)][mitigationStrategy.ordinal()].increment();
+    }
+
+    /**
+     * Counts a punishment caused by a check.
+     *
+     * @param checkType the type of the check, or null if unknown
+     */
+    public void punishment(CheckType checkType) {
+        punishments[checkIndex(checkType)].increment();
+    }
+
+    /**
+     * Counts a kicked player.
+     */
+    public void kick() {
+        kicks.increment();
+    }
+
+    /**
+     * Counts a banned player.
+     */
+    public void ban() {
+        bans.increment();
+    }
+
+    public long kicks() {
+        return kicks.sum();
+    }
+
+    public long bans() {
+        return bans.sum();
+    }
+
+    /**
+     * Returns the amount of punishments caused by a check.
+     *
+     * @param checkType the type of the check
+     * @return the amount of punishments
+     */
+    public long punishments(CheckType checkType) {
+        return punishments[checkIndex(checkType)].sum();
+    }
+
+    /**
+     * Registers a value that only grows, read whenever the metrics are scraped.
+     *
+     * @param name  the name of the metric, ending with _total
+     * @param help  the description of the metric
+     * @param value the supplier of the value
+     */
+    public void counter(String name, String help, LongSupplier value) {
+        metrics.add(new Metric(name, help, "counter", value));
+    }
+
+    /**
+     * Registers a value that may go up and down, read whenever the metrics are scraped.
+     *
+     * @param name  the name of the metric
+     * @param help  the description of the metric
+     * @param value the supplier of the value
+     */
+    public void gauge(String name, String help, LongSupplier value) {
+        metrics.add(new Metric(name, help, "gauge", value));
+    }
+
+    /**
+     * Renders every metric in the Prometheus text exposition format.
+     *
+     * @return the metrics as text
+     */
+    public String scrape() {
+        StringBuilder builder = new StringBuilder(16384);
+
+        header(builder, "sierra_packets_received_total", "Packets received from players", "counter");
+        for (int i = 0; i < packetsReceived.length; i++) {
+            sample(builder, "sierra_packets_received_total", "type",
+                   i < CLIENT_TYPES.length ? CLIENT_TYPES[i].getName() : "OTHER", packetsReceived[i].sum());
+        }
+
+        header(builder, "sierra_packets_sent_total", "Packets sent to players", "counter");
+        for (int i = 0; i < packetsSent.length; i++) {
+            sample(builder, "sierra_packets_sent_total", "type",
+                   i < SERVER_TYPES.length ? SERVER_TYPES[i].getName() : "OTHER", packetsSent[i].sum());
+        }
+
+        header(builder, "sierra_cancellations_total", "Packets cancelled by a check", "counter");
+        for (int i = 0; i < cancellations.length; i++) {
+            sample(builder, "sierra_cancellations_total", "check", checkName(i), cancellations[i].sum());
+        }
+
+        header(builder, "sierra_violations_total", "Violations by check and mitigation", "counter");
+        for (int i = 0; i < violations.length; i++) {
+            for (MitigationStrategy strategy : STRATEGIES) {
+                builder.append("sierra_violations_total{check=\"").append(checkName(i))
+                    .append("\",mitigation=\"").append(strategy.name()).append("\"} ")
+                    .append(violations[i][strategy.ordinal()].sum()).append('\n');
+            }
+        }
+
+        header(builder, "sierra_punishments_total", "Punishments by check", "counter");
+        for (int i = 0; i < punishments.length; i++) {
+            sample(builder, "sierra_punishments_total", "check", checkName(i), punishments[i].sum());
+        }
+
+        header(builder, "sierra_kicks_total", "Kicked players", "counter");
+        builder.append("sierra_kicks_total ").append(kicks.sum()).append('\n');
+        header(builder, "sierra_bans_total", "Banned players", "counter");
+        builder.append("sierra_bans_total ").append(bans.sum()).append('\n');
+
+        for (Metric metric : metrics) {
+            header(builder, metric.name, metric.help, metric.type);
+            builder.append(metric.name).append(' ').append(metric.value.getAsLong()).append('\n');
+        }
+        return builder.toString();
+    }
+
+    private static void header(StringBuilder builder, String name, String help, String type) {
+        builder.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        builder.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder builder, String name, String label, String value, long sample) {
+        builder.append(name).append('{').append(label).append("=\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') builder.append('\\');
+            if (c == '\n') {
+                builder.append("\\n");
+            } else {
+                builder.append(c);
+            }
+        }
+        builder.append("\"} ").append(sample).append('\n');
+    }
+
+    private static int checkIndex(CheckType checkType) {
+        return checkType == null ? CHECK_TYPES.length : checkType.ordinal();
+    }
+
+    private static String checkName(int index) {
+        return index < CHECK_TYPES.length ? CHECK_TYPES[index].name() : "UNKNOWN";
+    }
+
+    private static LongAdder[] adders(int length) {
+        LongAdder[] adders = new LongAdder[length];
+        for (int i = 0; i < length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    private static final class Metric {
+
+        private final String       name;
+        private final String       help;
+        private final String       type;
+        private final LongSupplier value;
+
+        private Metric(String name, String help, String type, LongSupplier value) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+            this.value = value;
+        }
+    }
+}
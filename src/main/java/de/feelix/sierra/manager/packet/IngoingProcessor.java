@@ -1,6 +1,7 @@
 package de.feelix.sierra.manager.packet;
 
 import com.github.retrooper.packetevents.event.PacketReceiveEvent;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
 import de.feelix.sierra.manager.storage.PlayerData;
 
 /**
@@ -15,4 +16,14 @@ public interface IngoingProcessor {
      * @param playerData The PlayerData object representing the data of the player who received the packet
      */
     void handle(PacketReceiveEvent event, PlayerData playerData);
+
+    /**
+     * Returns the incoming packet types this processor is interested in. The CheckManager builds its dispatch table
+     * from this, so {@link #handle(PacketReceiveEvent, PlayerData)} is only called for the declared packet types.
+     *
+     * @return the packet types to subscribe to, or {@code null} to receive every incoming packet
+     */
+    default PacketTypeCommon[] ingoingPacketTypes() {
+        return null;
+    }
 }
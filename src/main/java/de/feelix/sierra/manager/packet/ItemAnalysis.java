@@ -0,0 +1,226 @@
+package de.feelix.sierra.manager.packet;
+
+import com.github.retrooper.packetevents.protocol.item.ItemStack;
+import com.github.retrooper.packetevents.protocol.item.type.ItemTypes;
+import com.github.retrooper.packetevents.protocol.nbt.NBTCompound;
+import com.github.retrooper.packetevents.protocol.nbt.NBTList;
+import com.github.retrooper.packetevents.protocol.nbt.NBTString;
+import com.github.retrooper.packetevents.protocol.player.ClientVersion;
+import de.feelix.sierra.utilities.nbt.NbtBudget;
+import de.feelix.sierra.utilities.nbt.SipHash;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The ItemAnalysis class walks the nbt of an item exactly once and records every fact the item checks evaluate:
+ * the measured size, book pages, attribute modifiers, the compounds of items nested in block entities and the
+ * suspicious strings contained anywhere in the tree. The checks read these facts instead of walking or rendering
+ * the tree themselves, so an item nested several containers deep is still traversed only once per packet.
+ * <p>
+ * The analysis also derives the verdict key of the item from its type, legacy data, nbt fingerprint and the context
+ * it was checked in: packet type, game mode, client version and byte budget. A verdict reached in one context is
+ * therefore never reused in another one. The key is a keyed hash of these values, so items with colliding keys
+ * cannot be constructed. Items whose key is found in the {@link ItemVerdictCache}, and whose stored size and type
+ * match, are {@link #isKnownGood() known good} and skip the deep item checks.
+ * <p>
+ * The analysis is owned by the {@link PacketContext} of a player and reused for every item it analyzes.
+ */
+@Getter
+public class ItemAnalysis extends NbtBudget {
+
+    /**
+     * Generic nbt limit in bytes for clients on 1.16 and newer.
+     */
+    public static final int GENERIC_LIMIT = 30000;
+
+    /**
+     * Generic nbt limit in bytes for clients older than 1.16.
+     */
+    public static final int LEGACY_GENERIC_LIMIT = 25000;
+
+    /**
+     * Nbt limit in bytes for container items, which may legitimately exceed the generic limit.
+     */
+    public static final int CONTAINER_LIMIT = 262144;
+
+    private static final int    MAX_DEPTH            = 512;
+    private static final int    MAX_LIST_LENGTH      = 1024;
+    private static final int    MAX_STRING_LENGTH    = Short.MAX_VALUE;
+    private static final String TRANSLATE            = "translate";
+    private static final String SNOOPER_DESCRIPTION  = "options.snooper.desc";
+    private static final String WURSTCLIENT_URL      = "www.wurstclient.net";
+    private static final String ITEMS_KEY            = "Items";
+    private static final String TAG_KEY              = "tag";
+    private static final String BLOCK_ENTITY_TAG_KEY = "BlockEntityTag";
+
+    private final List<String>      pages              = new ArrayList<>();
+    private final List<NBTCompound> attributeModifiers = new ArrayList<>();
+
+    /**
+     * Compounds the item checks evaluate: the root compound, or for block entity items the tag (or the plain
+     * compound if it has no tag) of every nested item, in the order they were found.
+     */
+    private final List<NBTCompound> itemTags = new ArrayList<>();
+
+    private ItemStack   itemStack;
+    private NBTCompound compound;
+    private int         containers;
+    private int         largestItemList;
+    private int         translateCount;
+    private boolean     snooperDescription;
+    private boolean     wurstClient;
+    private long        verdictKey;
+    private long        verdictCheck;
+    private boolean     knownGood;
+    private int         generation;
+
+    @Getter(AccessLevel.NONE)
+    private final SipHash keyHash = keyedHash();
+
+    public ItemAnalysis() {
+        super(MAX_DEPTH, MAX_LIST_LENGTH, MAX_STRING_LENGTH);
+    }
+
+    /**
+     * Returns the byte budget the nbt of an item is measured against.
+     *
+     * @param itemStack       the item to measure
+     * @param genericNbtLimit whether the generic nbt limit is enabled
+     * @param clientVersion   the version of the client that sent the item
+     * @return the byte budget for the item
+     */
+    public static int byteBudget(ItemStack itemStack, boolean genericNbtLimit, ClientVersion clientVersion) {
+        int limit = genericNbtLimit ? genericLimit(clientVersion) : CONTAINER_LIMIT;
+        return isContainerItem(itemStack) ? Math.max(limit, CONTAINER_LIMIT) : limit;
+    }
+
+    /**
+     * Returns the generic nbt limit in bytes for the given client version.
+     *
+     * @param clientVersion the version of the client
+     * @return the generic nbt limit
+     */
+    public static int genericLimit(ClientVersion clientVersion) {
+        return clientVersion.isNewerThanOrEquals(ClientVersion.V_1_16) ? GENERIC_LIMIT : LEGACY_GENERIC_LIMIT;
+    }
+
+    /**
+     * Returns whether the given item is a container item that may carry large nbt.
+     *
+     * @param itemStack the item to test
+     * @return true if the item is a chest, hopper or one of their minecarts
+     */
+    public static boolean isContainerItem(ItemStack itemStack) {
+        return itemStack.getType() == ItemTypes.CHEST || itemStack.getType() == ItemTypes.HOPPER
+               || itemStack.getType() == ItemTypes.HOPPER_MINECART || itemStack.getType() == ItemTypes.CHEST_MINECART;
+    }
+
+    /**
+     * Returns whether this analysis currently describes the given item and its current nbt.
+     *
+     * @param itemStack the item to test
+     * @return true if the item was the last one analyzed and its nbt was not replaced since
+     */
+    boolean describes(ItemStack itemStack) {
+        return this.itemStack == itemStack && this.compound == itemStack.getNBT();
+    }
+
+    /**
+     * Analyzes the given item, replacing every previously recorded fact.
+     *
+     * @param itemStack the item to analyze
+     * @param maxBytes        the byte budget of the item
+     * @param genericNbtLimit whether the generic nbt limit is enabled, which also enables the list and string budgets
+     * @param context         the context the item is checked in, see {@link PacketContext}
+     */
+    void analyze(ItemStack itemStack, int maxBytes, boolean genericNbtLimit, long context) {
+        this.itemStack = itemStack;
+        this.compound = itemStack.getNBT();
+        this.pages.clear();
+        this.attributeModifiers.clear();
+        this.itemTags.clear();
+        this.containers = 0;
+        this.largestItemList = 0;
+        this.translateCount = 0;
+        this.snooperDescription = false;
+        this.wurstClient = false;
+        this.knownGood = false;
+
+        if (compound != null && !compound.getTags().containsKey(BLOCK_ENTITY_TAG_KEY)) {
+            itemTags.add(compound);
+        }
+        visit(compound, maxBytes, genericNbtLimit);
+
+        int type = itemStack.getType().getName().hashCode();
+        this.verdictKey = keyHash.reset()
+            .update(getFingerprint())
+            .update((long) type << 32 | (maxBytes & 0xFFFFFFFFL))
+            .update(itemStack.getLegacyData())
+            .update(context)
+            .digest();
+        this.verdictCheck = (long) getBytes() << 32 | (type & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Looks the analyzed item up in the verdict cache. Items that exceeded their budget are never known good.
+     *
+     * @param cache the server-wide verdict cache
+     */
+    void resolveVerdict(ItemVerdictCache cache) {
+        this.generation = cache.generation();
+        this.knownGood = isWithinBudget() && cache.isKnownGood(verdictKey, verdictCheck);
+    }
+
+    /**
+     * Remembers the analyzed item as good after it passed every check.
+     *
+     * @param cache the server-wide verdict cache
+     */
+    void rememberVerdict(ItemVerdictCache cache) {
+        if (knownGood || !isWithinBudget()) return;
+        cache.remember(verdictKey, verdictCheck, generation);
+        this.knownGood = true;
+    }
+
+    @Override
+    protected void onList(NBTList<?> list, String key, String ownerKey) {
+        if (ownerKey == null && "pages".equals(key)) {
+            for (Object page : list.getTags()) {
+                if (page instanceof NBTString) pages.add(((NBTString) page).getValue());
+            }
+        } else if (ownerKey == null && "AttributeModifiers".equals(key)) {
+            for (Object modifier : list.getTags()) {
+                if (modifier instanceof NBTCompound) attributeModifiers.add((NBTCompound) modifier);
+            }
+        } else if (ITEMS_KEY.equals(key) && BLOCK_ENTITY_TAG_KEY.equals(ownerKey)) {
+            containers++;
+            largestItemList = Math.max(largestItemList, list.size());
+            for (Object item : list.getTags()) {
+                if (!(item instanceof NBTCompound)) continue;
+                NBTCompound itemCompound = (NBTCompound) item;
+                if (itemCompound.getTags().containsKey(TAG_KEY)) {
+                    NBTCompound tag = itemCompound.getCompoundTagOrNull(TAG_KEY);
+                    if (tag != null) itemTags.add(tag);
+                } else {
+                    itemTags.add(itemCompound);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void onText(String text) {
+        if (text.length() < TRANSLATE.length()) return;
+
+        int index = text.indexOf(TRANSLATE);
+        while (index != -1) {
+            translateCount++;
+            index = text.indexOf(TRANSLATE, index + TRANSLATE.length());
+        }
+        if (text.contains(SNOOPER_DESCRIPTION)) snooperDescription = true;
+        if (text.contains(WURSTCLIENT_URL)) wurstClient = true;
+    }
+}
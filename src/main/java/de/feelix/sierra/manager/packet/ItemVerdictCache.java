@@ -0,0 +1,158 @@
+package de.feelix.sierra.manager.packet;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The ItemVerdictCache class remembers items that passed every item check, keyed by the verdict key of their
+ * {@link ItemAnalysis}. Later packets carrying an item with the same key skip the deep item checks. The key includes
+ * the context the item was checked in, so a verdict is only reused for the same packet type, game mode, client
+ * version and byte budget.
+ * <p>
+ * The cache is a fixed-size, direct-mapped table shared by the whole server: every key has exactly one slot and a
+ * newer key evicts the older one. Keys are keyed 64-bit hashes, so colliding items cannot be constructed without the
+ * per-process key and accidental collisions are negligible. Next to the key, every slot stores the measured size and
+ * the type of the item, and a hit requires both to match as well. The key is cleared while a slot is rewritten and
+ * read on both sides of the check word, so a reader racing a writer sees a miss rather than a mixed slot. Netty
+ * threads never block on each other. Every invalidation starts a new generation, and verdicts computed under an older
+ * generation are dropped instead of being remembered.
+ */
+public class ItemVerdictCache {
+
+    private final LongAdder hits      = new LongAdder();
+    private final LongAdder misses    = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private volatile Table table;
+
+    /**
+     * Creates a new cache with room for roughly the given amount of items.
+     *
+     * @param capacity the maximum amount of remembered items, 0 or less disables the cache
+     */
+    public ItemVerdictCache(int capacity) {
+        this.table = new Table(0, capacity);
+    }
+
+    /**
+     * Returns the current generation. A verdict must be remembered with the generation that was current when the
+     * checks evaluating it started.
+     *
+     * @return the current generation
+     */
+    public int generation() {
+        return table.generation;
+    }
+
+    /**
+     * Returns whether an item with the given key passed every item check in the current generation.
+     *
+     * @param key   the verdict key of the item
+     * @param check the measured size and type of the item
+     * @return true if the item is known to be good
+     */
+    public boolean isKnownGood(long key, long check) {
+        Table current = table;
+        if (current.slots == null) return false;
+
+        int  index    = current.index(key);
+        long expected = Table.nonZero(key);
+        if (current.slots.get(index) == expected
+            && current.checks.get(index) == check
+            && current.slots.get(index) == expected) {
+            hits.increment();
+            return true;
+        }
+        misses.increment();
+        return false;
+    }
+
+    /**
+     * Remembers that an item with the given key passed every item check.
+     *
+     * @param key        the verdict key of the item
+     * @param check      the measured size and type of the item
+     * @param generation the generation the checks were evaluated in
+     */
+    public void remember(long key, long check, int generation) {
+        Table current = table;
+        if (current.slots == null || current.generation != generation) return;
+
+        int  index    = current.index(key);
+        long stored   = Table.nonZero(key);
+        long previous = current.slots.getAndSet(index, 0L);
+        current.checks.set(index, check);
+        current.slots.set(index, stored);
+        if (previous != 0L && previous != stored) {
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Forgets every remembered item and starts a new generation.
+     *
+     * @param capacity the new maximum amount of remembered items, 0 or less disables the cache
+     */
+    public void invalidate(int capacity) {
+        this.table = new Table(table.generation + 1, capacity);
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the amount of slots of the current table.
+     *
+     * @return the capacity of the cache
+     */
+    public int capacity() {
+        Table current = table;
+        return current.slots == null ? 0 : current.slots.length();
+    }
+
+    /**
+     * One generation of the cache. The slots are replaced as a whole on invalidation, so a concurrent insert can only
+     * ever land in the table of the generation it was evaluated in.
+     */
+    private static final class Table {
+
+        private final int             generation;
+        private final AtomicLongArray slots;
+        private final AtomicLongArray checks;
+        private final int             mask;
+
+        private Table(int generation, int capacity) {
+            this.generation = generation;
+            if (capacity <= 0) {
+                this.slots = null;
+                this.checks = null;
+                this.mask = 0;
+            } else {
+                int size = Integer.highestOneBit(Math.min(capacity, 1 << 24) - 1) << 1;
+                this.slots = new AtomicLongArray(Math.max(size, 16));
+                this.checks = new AtomicLongArray(slots.length());
+                this.mask = slots.length() - 1;
+            }
+        }
+
+        private int index(long key) {
+            return (int) (key ^ (key >>> 32)) & mask;
+        }
+
+        /**
+         * Maps a key to a non-zero value, since zero marks an empty slot.
+         */
+        private static long nonZero(long key) {
+            return key == 0L ? 1L : key;
+        }
+    }
+}
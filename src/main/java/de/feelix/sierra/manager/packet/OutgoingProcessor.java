@@ -1,6 +1,7 @@
 package de.feelix.sierra.manager.packet;
 
 import com.github.retrooper.packetevents.event.PacketSendEvent;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
 import de.feelix.sierra.manager.storage.PlayerData;
 
 /**
@@ -17,4 +18,14 @@ public interface OutgoingProcessor {
      */
     void handle(PacketSendEvent event, PlayerData playerData);
 
+    /**
+     * Returns the outgoing packet types this processor is interested in. The CheckManager builds its dispatch table
+     * from this, so {@link #handle(PacketSendEvent, PlayerData)} is only called for the declared packet types.
+     *
+     * @return the packet types to subscribe to, or {@code null} to receive every outgoing packet
+     */
+    default PacketTypeCommon[] outgoingPacketTypes() {
+        return null;
+    }
+
 }
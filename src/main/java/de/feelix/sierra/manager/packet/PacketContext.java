@@ -0,0 +1,146 @@
+package de.feelix.sierra.manager.packet;
+
+import com.github.retrooper.packetevents.event.PacketReceiveEvent;
+import com.github.retrooper.packetevents.protocol.item.ItemStack;
+import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+import com.github.retrooper.packetevents.protocol.player.ClientVersion;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import de.feelix.sierra.Sierra;
+import de.feelix.sierra.manager.storage.PlayerData;
+import de.feelix.sierra.utilities.CastUtil;
+
+import java.util.function.Function;
+
+/**
+ * The PacketContext class holds the decoded wrapper of the packet a player is currently sending. The wrapper is
+ * decoded lazily on first request and the same instance is handed to every listener, processor and check that asks
+ * for it while the event is being processed. The same applies to the {@link ItemAnalysis} of the item carried by the
+ * packet.
+ * <p>
+ * Incoming packets of a player are always handled on the same netty thread, so a single context per player is reused
+ * for every event without synchronization.
+ */
+public class PacketContext {
+
+    /**
+     * The player this context belongs to, used to disconnect on decoding failures.
+     */
+    private final PlayerData playerData;
+
+    /**
+     * The event the cached wrapper was decoded from.
+     */
+    private PacketReceiveEvent event;
+
+    /**
+     * The wrapper decoded from {@link #event}, or null if nothing was decoded yet.
+     */
+    private PacketWrapper<?> wrapper;
+
+    /**
+     * The analysis reused for every analyzed item of this player.
+     */
+    private final ItemAnalysis itemAnalysis = new ItemAnalysis();
+
+    /**
+     * The event {@link #itemAnalysis} was computed for.
+     */
+    private PacketReceiveEvent analyzedEvent;
+
+    public PacketContext(PlayerData playerData) {
+        this.playerData = playerData;
+    }
+
+    /**
+     * Binds the context to a new event and drops the wrapper of the previous one.
+     *
+     * @param event the event that is about to be processed
+     */
+    public void bind(PacketReceiveEvent event) {
+        this.event = event;
+        this.wrapper = null;
+    }
+
+    /**
+     * Returns the wrapper of the given event, decoding it only if no wrapper of the requested type was decoded
+     * for this event yet. If decoding fails, the player is disconnected and null is returned.
+     *
+     * @param event   the event to decode
+     * @param type    the wrapper class expected for the packet
+     * @param decoder the function creating the wrapper from the event
+     * @param <T>     the type of the wrapper
+     * @return the shared wrapper instance, or null if decoding failed
+     */
+    public <T extends PacketWrapper<?>> T decode(PacketReceiveEvent event, Class<T> type,
+                                                 Function<PacketReceiveEvent, T> decoder) {
+        if (this.event != event) {
+            bind(event);
+        }
+
+        if (type.isInstance(wrapper)) {
+            return type.cast(wrapper);
+        }
+
+        T decoded = CastUtil.getSupplier(() -> decoder.apply(event), playerData::exceptionDisconnect);
+        if (decoded != null) {
+            this.wrapper = decoded;
+        }
+        return decoded;
+    }
+
+    /**
+     * Returns the analysis of the given item, walking its nbt only if it was not analyzed for this event yet or its
+     * nbt was replaced since.
+     *
+     * @param event     the event carrying the item
+     * @param itemStack the item to analyze, must not be null
+     * @return the shared analysis of the item
+     */
+    public ItemAnalysis analyze(PacketReceiveEvent event, ItemStack itemStack) {
+        if (analyzedEvent != event || !itemAnalysis.describes(itemStack)) {
+            boolean       genericNbtLimit = Sierra.getPlugin().getSierraConfigEngine().settings().isGenericNbtLimit();
+            ClientVersion clientVersion   = playerData.getClientVersion();
+            itemAnalysis.analyze(
+                itemStack, ItemAnalysis.byteBudget(itemStack, genericNbtLimit, clientVersion), genericNbtLimit,
+                verdictContext(event.getPacketType(), genericNbtLimit, clientVersion)
+            );
+            itemAnalysis.resolveVerdict(Sierra.getPlugin().getItemVerdictCache());
+            analyzedEvent = event;
+        }
+        return itemAnalysis;
+    }
+
+    /**
+     * Remembers the item analyzed for the given event as good, if the event survived every check. Called once all
+     * checks processed the event. Only packets whose item runs through every item check can produce a verdict, an
+     * item read from a plugin message payload for example only passed the book checks.
+     *
+     * @param event the processed event
+     */
+    public void rememberVerdict(PacketReceiveEvent event) {
+        if (analyzedEvent == event && !event.isCancelled() && carriesCheckedItem(event.getPacketType())) {
+            itemAnalysis.rememberVerdict(Sierra.getPlugin().getItemVerdictCache());
+        }
+    }
+
+    /**
+     * Packs the context an item is checked in, since the checks judge the same item differently per packet type,
+     * game mode, client version and generic limit.
+     */
+    private long verdictContext(PacketTypeCommon packetType, boolean genericNbtLimit, ClientVersion clientVersion) {
+        long packet = packetType instanceof PacketType.Play.Client
+            ? ((PacketType.Play.Client) packetType).ordinal()
+            : 0xFF;
+        return packet
+               | (long) playerData.getGameMode().ordinal() << 8
+               | (long) clientVersion.getProtocolVersion() << 16
+               | (genericNbtLimit ? 1L : 0L) << 48;
+    }
+
+    private static boolean carriesCheckedItem(PacketTypeCommon packetType) {
+        return packetType == PacketType.Play.Client.CREATIVE_INVENTORY_ACTION
+               || packetType == PacketType.Play.Client.CLICK_WINDOW
+               || packetType == PacketType.Play.Client.PLAYER_BLOCK_PLACEMENT;
+    }
+}
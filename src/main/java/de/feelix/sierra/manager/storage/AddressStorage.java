@@ -1,85 +1,292 @@
 package de.feelix.sierra.manager.storage;
 
 import de.feelix.sierra.Sierra;
+import io.github.retrooper.packetevents.util.folia.FoliaScheduler;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.io.*;
+import java.net.InetAddress;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
- * The AddressStorage class is responsible for storing and managing IP addresses
- * along with their corresponding added time.
+ * The AddressStorage class keeps the addresses that are blocked from connecting after a ban.
+ * <p>
+ * Addresses are stored in their packed binary form as two longs, IPv4 addresses as IPv4-mapped IPv6 addresses, and
+ * every block carries its expiry as a plain timestamp. A block either covers a single address or, if configured, the
+ * /24 network of an IPv4 address or the /64 network of an IPv6 address. Lookups check both granularities.
+ * <p>
+ * The storage is safe to use from any thread. Expired blocks are removed by a timing wheel that is advanced once per
+ * second, and the blocks are written to disk periodically and on shutdown, so they survive a restart. The snapshot is
+ * only written once it was loaded, so a storage that never started cannot overwrite it with nothing.
  */
 public class AddressStorage {
 
+    public static final File SNAPSHOT_FILE = new File("plugins/Sierra/blocked-addresses.dat");
+
+    private static final int  MAGIC          = 0x53424C31;
+    private static final int  WHEEL_SLOTS    = 1024;
+    private static final long WHEEL_TICK     = TimeUnit.SECONDS.toMillis(1);
+    private static final int  SNAPSHOT_TICKS = 60;
+
+    private static final long IPV4_MAPPED  = 0xFFFF00000000L;
+    private static final long IPV4_NETWORK = 0xFFFFFFFFFFFFFF00L;
+    private static final int  EXACT        = 128;
+    private static final int  IPV4_PREFIX  = 120;
+    private static final int  IPV6_PREFIX  = 64;
+
+    private final Map<Address, Block>            blocks = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Block>[] wheel;
+
+    private volatile long    wheelCursor = System.currentTimeMillis() / WHEEL_TICK;
+    private int              ticksSinceSnapshot;
+    private volatile boolean dirty;
+    private volatile boolean loaded;
+
     /**
-     * The ipAddresses variable is a private final Map object that stores the IP addresses along with their
-     * corresponding added time.
-     * The Map is implemented using the HashMap class.
-     * The keys in the Map represent the IP addresses, while the values represent the corresponding added time in
-     * LocalDateTime format.
-     * The variable is declared with the "private" access modifier, which means it can only be accessed within the
-     * class it is defined in.
-     * It is also declared with the "final" modifier, which means its value cannot be changed after initialization.
-     * <p>
-     * Example usage:
-     * <p>
-     * private final Map<String, LocalDateTime> ipAddresses = new HashMap<>();
+     * Creates an empty storage.
      */
-    private final Map<String, LocalDateTime> ipAddresses = new HashMap<>();
+    @SuppressWarnings("unchecked")
+    public AddressStorage() {
+        this.wheel = new ConcurrentLinkedQueue[WHEEL_SLOTS];
+        for (int i = 0; i < WHEEL_SLOTS; i++) {
+            this.wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
 
     /**
-     * Adds the given IP address to the AddressStorage object.
-     * The IP address is associated with the current LocalDateTime.
-     *
-     * @param ipAddress the IP address to be added
+     * Loads the blocks of the last snapshot and starts advancing the timing wheel.
      */
-    public void addIPAddress(String ipAddress) {
-        if (ipAddress.equalsIgnoreCase("127.0.0.1")) return;
-        ipAddresses.put(ipAddress, LocalDateTime.now());
+    public void start() {
+        load();
+        loaded = true;
+        FoliaScheduler.getAsyncScheduler().runAtFixedRate(Sierra.getPlugin(), o -> tick(), 20, 20);
     }
 
     /**
-     * Checks if the given IP address is considered invalid based on its added time.
+     * Blocks the given address, or its network if subnet blocking is enabled, for the configured block time.
+     * Loopback addresses are never blocked.
      *
-     * @param ipAddress the IP address to check
-     * @return true if the IP address is invalid, false otherwise
+     * @param inetAddress the address to block
      */
-    public boolean invalid(String ipAddress) {
-        LocalDateTime addedTime = ipAddresses.get(ipAddress);
-        if (addedTime == null) {
-            return false;
-        }
+    public void block(InetAddress inetAddress) {
+        if (inetAddress.isLoopbackAddress()) return;
 
-        if (isOlderThanFifteenMinutes(addedTime)) {
-            removeIPAddress(ipAddress);
-            return false;
+        long minutes = Sierra.getPlugin().getSierraConfigEngine().settings().getConnectionBlockTime();
+        long expiry  = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(minutes);
+
+        Address address = Address.of(inetAddress);
+        if (Sierra.getPlugin().getSierraConfigEngine().settings().isConnectionBlockSubnet()) {
+            address = address.network();
         }
-        return true;
+        add(new Block(address, expiry));
+        dirty = true;
     }
 
     /**
-     * Checks if the given addedTime is older than fifteen minutes.
+     * Checks if the given address, or its network, is currently blocked.
      *
-     * @param addedTime the LocalDateTime representing the time the IP address was added
-     * @return true if the addedTime is older than fifteen minutes, false otherwise
+     * @param inetAddress the address to check
+     * @return true if the address is blocked, false otherwise
      */
-    private boolean isOlderThanFifteenMinutes(LocalDateTime addedTime) {
-        Duration duration = Duration.between(addedTime, LocalDateTime.now());
-        return duration.toMinutes() > Sierra.getPlugin()
-            .getSierraConfigEngine()
-            .config()
-            .getInt("connection-block-time", 15);
+    public boolean blocked(InetAddress inetAddress) {
+        if (blocks.isEmpty()) return false;
+
+        long    now     = System.currentTimeMillis();
+        Address address = Address.of(inetAddress);
+        return active(address, now) || active(address.network(), now);
     }
 
     /**
-     * Removes the given IP address from the AddressStorage object.
-     * The IP address will no longer be associated with its corresponding added time.
+     * Returns the amount of stored blocks, including expired blocks the wheel did not reach yet.
      *
-     * @param ipAddress the IP address to be removed
+     * @return the amount of blocks
      */
-    private void removeIPAddress(String ipAddress) {
-        ipAddresses.remove(ipAddress);
+    public int size() {
+        return blocks.size();
+    }
+
+    /**
+     * Writes every active block to disk, unless the snapshot was never loaded.
+     */
+    public void shutdown() {
+        if (loaded) save();
+    }
+
+    /**
+     * Returns whether the address is blocked, and removes its block right away if it already expired.
+     */
+    private boolean active(Address address, long now) {
+        Block block = blocks.get(address);
+        if (block == null) return false;
+        if (block.expiry > now) return true;
+
+        blocks.remove(address, block);
+        return false;
+    }
+
+    /**
+     * Stores a block and schedules its removal. A block whose expiry second the wheel already passed is put into the
+     * next slot the wheel reaches, instead of waiting a full rotation for its own slot.
+     */
+    private void add(Block block) {
+        blocks.put(block.address, block);
+        long slot = Math.max(block.expiry / WHEEL_TICK, wheelCursor + 1);
+        wheel[(int) (slot & (WHEEL_SLOTS - 1))].add(block);
+    }
+
+    /**
+     * Advances the timing wheel to the current second and removes every block that expired on the way. Blocks that
+     * expire in a later round of the wheel stay in their slot.
+     */
+    private synchronized void tick() {
+        long now    = System.currentTimeMillis();
+        long target = now / WHEEL_TICK;
+        long from   = Math.max(wheelCursor + 1, target - WHEEL_SLOTS + 1);
+
+        for (long slot = from; slot <= target; slot++) {
+            Iterator<Block> iterator = wheel[(int) (slot & (WHEEL_SLOTS - 1))].iterator();
+            while (iterator.hasNext()) {
+                Block block = iterator.next();
+                if (block.expiry <= now) {
+                    blocks.remove(block.address, block);
+                    iterator.remove();
+                } else if (blocks.get(block.address) != block) {
+                    iterator.remove();
+                }
+            }
+        }
+        wheelCursor = Math.max(wheelCursor, target);
+
+        if (++ticksSinceSnapshot >= SNAPSHOT_TICKS && dirty) {
+            save();
+        }
+    }
+
+    private synchronized void save() {
+        ticksSinceSnapshot = 0;
+        dirty = false;
+
+        File directory = SNAPSHOT_FILE.getParentFile();
+        if (!directory.exists() && !directory.mkdirs()) {
+            Sierra.getPlugin().getLogger().warning("Failed to create directory: " + directory);
+            return;
+        }
+
+        long now       = System.currentTimeMillis();
+        File temporary = new File(directory, SNAPSHOT_FILE.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            for (Block block : blocks.values()) {
+                if (block.expiry <= now) continue;
+                out.writeLong(block.address.high);
+                out.writeLong(block.address.low);
+                out.writeByte(block.address.prefix);
+                out.writeLong(block.expiry);
+            }
+        } catch (IOException e) {
+            Sierra.getPlugin().getLogger().warning("Unable to save blocked addresses: " + e.getMessage());
+            return;
+        }
+        boolean replaced = (!SNAPSHOT_FILE.exists() || SNAPSHOT_FILE.delete()) && temporary.renameTo(SNAPSHOT_FILE);
+        if (!replaced) {
+            Sierra.getPlugin().getLogger().warning("Unable to replace " + SNAPSHOT_FILE);
+        }
+    }
+
+    private void load() {
+        if (!SNAPSHOT_FILE.isFile()) return;
+
+        long now = System.currentTimeMillis();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(SNAPSHOT_FILE)))) {
+            if (in.readInt() != MAGIC) {
+                Sierra.getPlugin().getLogger().warning("Ignoring invalid snapshot " + SNAPSHOT_FILE);
+                return;
+            }
+            while (true) {
+                long high   = in.readLong();
+                long low    = in.readLong();
+                int  prefix = in.readUnsignedByte();
+                long expiry = in.readLong();
+                if (expiry > now) add(new Block(new Address(high, low, prefix), expiry));
+            }
+        } catch (EOFException ignored) {
+            // End of snapshot, a truncated last block is skipped
+        } catch (IOException e) {
+            Sierra.getPlugin().getLogger().warning("Unable to load blocked addresses: " + e.getMessage());
+        }
+    }
+
+    /**
+     * A packed address or network. Networks have every bit after their prefix cleared.
+     */
+    private static final class Address {
+
+        private final long high;
+        private final long low;
+        private final int  prefix;
+
+        private Address(long high, long low, int prefix) {
+            this.high = high;
+            this.low = low;
+            this.prefix = prefix;
+        }
+
+        private static Address of(InetAddress inetAddress) {
+            byte[] bytes = inetAddress.getAddress();
+            if (bytes.length == 4) {
+                return new Address(0L, IPV4_MAPPED | (readInt(bytes, 0) & 0xFFFFFFFFL), EXACT);
+            }
+            return new Address(readLong(bytes, 0), readLong(bytes, 8), EXACT);
+        }
+
+        /**
+         * Returns the /24 network of an IPv4 address or the /64 network of an IPv6 address.
+         */
+        private Address network() {
+            if (high == 0L && (low & ~0xFFFFFFFFL) == IPV4_MAPPED) {
+                return new Address(0L, low & IPV4_NETWORK, IPV4_PREFIX);
+            }
+            return new Address(high, 0L, IPV6_PREFIX);
+        }
+
+        private static int readInt(byte[] bytes, int offset) {
+            return (bytes[offset] & 0xFF) << 24 | (bytes[offset + 1] & 0xFF) << 16
+                   | (bytes[offset + 2] & 0xFF) << 8 | bytes[offset + 3] & 0xFF;
+        }
+
+        private static long readLong(byte[] bytes, int offset) {
+            return (long) readInt(bytes, offset) << 32 | readInt(bytes, offset + 4) & 0xFFFFFFFFL;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Address)) return false;
+            Address address = (Address) o;
+            return high == address.high && low == address.low && prefix == address.prefix;
+        }
+
+        @Override
+        public int hashCode() {
+            long hash = high * 31 + low;
+            return (int) (hash ^ (hash >>> 32)) * 31 + prefix;
+        }
+    }
+
+    /**
+     * A block of an address until its expiry, in epoch milliseconds.
+     */
+    private static final class Block {
+
+        private final Address address;
+        private final long    expiry;
+
+        private Block(Address address, long expiry) {
+            this.address = address;
+            this.expiry = expiry;
+        }
     }
 }
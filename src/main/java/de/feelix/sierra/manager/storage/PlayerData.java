@@ -8,6 +8,7 @@ import com.github.retrooper.packetevents.protocol.player.User;
 import com.github.retrooper.packetevents.protocol.world.Location;
 import de.feelix.sierra.Sierra;
 import de.feelix.sierra.check.CheckManager;
+import de.feelix.sierra.manager.packet.PacketContext;
 import de.feelix.sierra.manager.storage.alert.AbstractAlertSetting;
 import de.feelix.sierra.manager.storage.logger.SierraLogger;
 import de.feelix.sierra.manager.storage.processor.*;
@@ -32,9 +33,9 @@ import java.util.UUID;
 @Data
 public class PlayerData implements SierraUser {
 
-    private Object bukkitPlayer;
+    private volatile Object bukkitPlayer;
     private User user;
-    private GameMode gameMode;
+    private GameMode gameMode = GameMode.SURVIVAL;
     private Location lastLocation;
     private ClientVersion clientVersion;
 
@@ -47,14 +48,18 @@ public class PlayerData implements SierraUser {
     private boolean receivedPunishment = false;
     private boolean exempt = false;
     private boolean nameChecked = false;
-    private boolean bypassPermission = false;
+    private volatile boolean bypassPermission = false;
 
-    private double bytesSent = 0;
+    /**
+     * The entity id this player is indexed under in the {@link SierraDataManager}, or -1 if not indexed yet.
+     */
+    private int indexedEntityId = -1;
 
-    private final AlertSettings alertSettings = new AbstractAlertSetting();
-    private final AlertSettings mitigationSettings = new AbstractAlertSetting();
+    private final AlertSettings alertSettings;
+    private final AlertSettings mitigationSettings;
 
     private SierraLogger sierraLogger;
+    private final PacketContext packetContext = new PacketContext(this);
     private final CheckManager checkManager = new CheckManager(this);
     private final BrandProcessor brandProcessor = new BrandProcessor(this);
     private final GameModeProcessor gameModeProcessor = new GameModeProcessor(this);
@@ -63,20 +68,35 @@ public class PlayerData implements SierraUser {
     private final TransactionProcessor transactionProcessor = new TransactionProcessor(this);
     private final TimingHandler timingProcessor = new TimingProcessor(this);
 
-    public PlayerData(User user) {
+    public PlayerData(User user, SierraDataManager dataManager) {
         this.user = user;
+        this.alertSettings = new AbstractAlertSetting(dataManager.getAlertSubscribers(), user);
+        this.mitigationSettings = new AbstractAlertSetting(dataManager.getMitigationSubscribers(), user);
         this.clientVersion = user.getClientVersion();
         this.sierraLogger = new SierraLogger("INVALID");
     }
 
-    public void pollData(Player bukkitPlayer) {
+    /**
+     * Binds the Bukkit player once it joined and caches its permissions.
+     *
+     * @param bukkitPlayer the joined player
+     */
+    public void bind(Player bukkitPlayer) {
         this.bukkitPlayer = bukkitPlayer;
-        bypassPermission = bukkitPlayer.hasPermission("sierra.bypass");
+        refreshPermissions(bukkitPlayer);
         if (this.sierraLogger.getPlayerName().equalsIgnoreCase("INVALID")) {
             this.sierraLogger.close();
             sierraLogger = new SierraLogger(bukkitPlayer.getName());
         }
-        sendTransaction();
+    }
+
+    /**
+     * Re-reads the cached permissions of the player. Called on join and whenever the permissions may have changed.
+     *
+     * @param bukkitPlayer the player
+     */
+    public void refreshPermissions(Player bukkitPlayer) {
+        this.bypassPermission = bukkitPlayer.hasPermission("sierra.bypass");
     }
 
     public ClientVersion getClientVersion() {
@@ -99,10 +119,6 @@ public class PlayerData implements SierraUser {
         return this.clientVersion;
     }
 
-    public void sendTransaction() {
-        this.transactionProcessor.sendTransaction(true);
-    }
-
     public void exceptionDisconnect(Exception exception) {
 
         // To prevent future console spam cause thread is not fast enough
@@ -122,7 +138,7 @@ public class PlayerData implements SierraUser {
     }
 
     private void ban() {
-        SierraDataManager.increaseBanValue();
+        Sierra.getPlugin().getMetricsRegistry().ban();
         FoliaScheduler.getGlobalRegionScheduler().run(Sierra.getPlugin(), o -> Bukkit.dispatchCommand(
             Bukkit.getConsoleSender(),
             new ConfigValue("punish-command", "ban {username} Crashing", false)
@@ -196,7 +212,7 @@ public class PlayerData implements SierraUser {
     @Override
     public boolean kick() {
         if (user != null) {
-            SierraDataManager.increaseKickValue();
+            Sierra.getPlugin().getMetricsRegistry().kick();
             user.closeConnection();
             return true;
         }
@@ -4,11 +4,13 @@ import com.github.retrooper.packetevents.PacketEvents;
 import com.github.retrooper.packetevents.event.PacketListenerCommon;
 import com.github.retrooper.packetevents.event.UserConnectEvent;
 import com.github.retrooper.packetevents.event.UserDisconnectEvent;
+import com.github.retrooper.packetevents.event.UserLoginEvent;
 import com.github.retrooper.packetevents.protocol.player.User;
 import de.feelix.sierra.Sierra;
+import de.feelix.sierra.manager.config.SierraSettings;
 import de.feelix.sierra.manager.storage.history.HistoryDocument;
+import de.feelix.sierra.manager.storage.history.HistoryStore;
 import de.feelix.sierra.utilities.update.UpdateChecker;
-import de.feelix.sierraapi.check.CheckType;
 import de.feelix.sierraapi.events.impl.AsyncHistoryCreateEvent;
 import de.feelix.sierraapi.history.History;
 import de.feelix.sierraapi.history.HistoryType;
@@ -18,6 +20,8 @@ import io.github.retrooper.packetevents.util.folia.FoliaScheduler;
 import lombok.Getter;
 import de.feelix.sierraapi.user.UserRepository;
 import de.feelix.sierraapi.user.impl.SierraUser;
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.event.ClickEvent;
 import net.kyori.adventure.text.event.HoverEvent;
@@ -25,9 +29,12 @@ import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
 import java.lang.ref.WeakReference;
+import java.net.InetAddress;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * The SierraDataManager class represents a singleton instance that manages player data in the application.
@@ -41,21 +48,47 @@ public class SierraDataManager implements UserRepository {
     private static final String GITHUB_API_RELEASES = "/releases/latest";
 
     public static final String UNKNOWN_VERSION = "UNKNOWN";
-    public static final Map<String, Integer> violationCount = new HashMap<>();
-    public static int KICKS = 0;
-    public static int BANS = 0;
     public static boolean skipSkullUUIDCheck = false;
     public static boolean skipModelCheck = false;
     public static boolean skipAnvilCheck = false;
     public static boolean skipDeltaPositionCheck = false;
 
+    /**
+     * Channel attribute holding the PlayerData of a connection. It is typed as Object, since a channel may outlive a
+     * plugin reload and still carry a PlayerData of the previous class loader.
+     */
+    private static final AttributeKey<Object> PLAYER_DATA_KEY = AttributeKey.valueOf("sierra:player_data");
+
     @Getter
     private static SierraDataManager instance;
     private final Map<User, PlayerData> playerData = new ConcurrentHashMap<>();
-    private final List<History> histories = new ArrayList<>();
+
+    /**
+     * Secondary indexes answering the {@link UserRepository} queries in constant time. They are filled once the
+     * corresponding value of a user becomes known and cleared on disconnect.
+     */
+    private final Map<UUID, PlayerData>    uuidIndex     = new ConcurrentHashMap<>();
+    private final Map<Integer, PlayerData> entityIdIndex = new ConcurrentHashMap<>();
+    private final Map<String, PlayerData>  nameIndex     = new ConcurrentHashMap<>();
+
+    /**
+     * The persistent punishment and mitigation history.
+     */
+    private final HistoryStore historyStore;
+
+    /**
+     * The users that have alerts, respectively mitigation alerts, enabled. Maintained by the
+     * {@link de.feelix.sierra.manager.storage.alert.AbstractAlertSetting} of every player.
+     */
+    private final Set<User> alertSubscribers      = ConcurrentHashMap.newKeySet();
+    private final Set<User> mitigationSubscribers = ConcurrentHashMap.newKeySet();
 
     public SierraDataManager() {
         instance = this;
+        SierraSettings settings = Sierra.getPlugin().getSierraConfigEngine().settings();
+        this.historyStore = new HistoryStore(
+            settings.getHistoryMemorySize(), settings.getHistoryMaxEntries(), settings.getHistoryRetentionDays());
+        FoliaScheduler.getAsyncScheduler().runAtFixedRate(Sierra.getPlugin(), o -> historyStore.flush(), 20, 20);
         initializePacketListeners();
     }
 
@@ -69,6 +102,11 @@ public class SierraDataManager implements UserRepository {
                 checkForUpdate(user);
             }
 
+            @Override
+            public void onUserLogin(UserLoginEvent event) {
+                indexIdentity(event.getUser());
+            }
+
             @Override
             public void onUserDisconnect(UserDisconnectEvent event) {
                 removePlayerData(event.getUser());
@@ -77,9 +115,10 @@ public class SierraDataManager implements UserRepository {
     }
 
     private void checkIfBlocked(User user) {
-        if (Sierra.getPlugin().getSierraConfigEngine().config().getBoolean("block-connections-after-ban", true)) {
-            String hostAddress = user.getAddress().getAddress().getHostAddress();
-            if (Sierra.getPlugin().getAddressStorage().invalid(hostAddress)) {
+        if (Sierra.getPlugin().getSierraConfigEngine().settings().isBlockConnectionsAfterBan()) {
+            InetAddress address = user.getAddress().getAddress();
+            if (Sierra.getPlugin().getAddressStorage().blocked(address)) {
+                String hostAddress = address.getHostAddress();
                 Sierra.getPlugin()
                     .getLogger()
                     .info("Connection of " + hostAddress + " got blocked, cause it was punished recently");
@@ -136,11 +175,6 @@ public class SierraDataManager implements UserRepository {
         return player.hasPermission("sierra.update") || player.isOp();
     }
 
-    public void addKick(CheckType checkType) {
-        String name = checkType.getFriendlyName().replace(" ", "");
-        violationCount.merge(name, 1, Integer::sum);
-    }
-
     private void sendMessage(User user) {
         String localVersion = Sierra.getPlugin().getDescription().getVersion();
         String latestReleaseVersion = Sierra.getPlugin().getUpdateChecker().getLatestReleaseVersion();
@@ -181,7 +215,7 @@ public class SierraDataManager implements UserRepository {
                         Sierra.getPlugin().getEventBus().publish(event);
 
                         if (!event.isCancelled()) {
-                            histories.add(document);
+                            historyStore.add(document);
                         }
                     }
             );
@@ -191,8 +225,33 @@ public class SierraDataManager implements UserRepository {
         return new WeakReference<>(playerData.get(user));
     }
 
+    /**
+     * Returns the PlayerData attached to the channel of the given user. This is the lookup used on the packet path:
+     * it reads the channel attribute set on connect and allocates nothing. The registry map is only consulted if the
+     * channel carries no data, for example for channels that connected before a plugin reload.
+     *
+     * @param user the user whose data is requested
+     * @return the PlayerData of the user, or null if the user is not registered
+     */
+    public PlayerData resolvePlayerData(User user) {
+        Object channel = user.getChannel();
+        if (channel instanceof Channel) {
+            Object data = ((Channel) channel).attr(PLAYER_DATA_KEY).get();
+            if (data instanceof PlayerData) {
+                return (PlayerData) data;
+            }
+        }
+        return playerData.get(user);
+    }
+
     public void addPlayerData(User user) {
-        playerData.put(user, new PlayerData(user));
+        PlayerData data = new PlayerData(user, this);
+        playerData.put(user, data);
+
+        Object channel = user.getChannel();
+        if (channel instanceof Channel) {
+            ((Channel) channel).attr(PLAYER_DATA_KEY).set(data);
+        }
     }
 
     public void removePlayerData(User user) {
@@ -202,42 +261,98 @@ public class SierraDataManager implements UserRepository {
             data.getSierraLogger().close();
         }
         playerData.remove(user);
+        alertSubscribers.remove(user);
+        mitigationSubscribers.remove(user);
+
+        if (data != null) {
+            unindex(user, data);
+        }
+
+        Object channel = user.getChannel();
+        if (channel instanceof Channel) {
+            ((Channel) channel).attr(PLAYER_DATA_KEY).set(null);
+        }
+    }
+
+    /**
+     * Indexes the uuid and name of a user. Called once the login of the user completed.
+     *
+     * @param user the user whose profile is known now
+     */
+    public void indexIdentity(User user) {
+        PlayerData data = playerData.get(user);
+        if (data == null) return;
+
+        if (user.getUUID() != null) uuidIndex.put(user.getUUID(), data);
+        if (user.getName() != null) nameIndex.put(nameKey(user.getName()), data);
+    }
+
+    /**
+     * Indexes the entity id of a player, replacing the previously indexed one. Called whenever the server assigns
+     * the player an entity id.
+     *
+     * @param data     the player
+     * @param entityId the new entity id of the player
+     */
+    public void indexEntityId(PlayerData data, int entityId) {
+        int previous = data.getIndexedEntityId();
+        if (previous == entityId) return;
+
+        if (previous != -1) entityIdIndex.remove(previous, data);
+        data.setIndexedEntityId(entityId);
+        entityIdIndex.put(entityId, data);
     }
 
-    public static void increaseKickValue() {
-        SierraDataManager.KICKS++;
+    private void unindex(User user, PlayerData data) {
+        if (user.getUUID() != null) uuidIndex.remove(user.getUUID(), data);
+        if (user.getName() != null) nameIndex.remove(nameKey(user.getName()), data);
+        entityIdIndex.remove(data.getIndexedEntityId(), data);
     }
 
-    public static void increaseBanValue() {
-        SierraDataManager.BANS++;
+    private static String nameKey(String name) {
+        return name.toLowerCase(Locale.ROOT);
     }
 
     @Override
     public Optional<SierraUser> queryUserByUuid(UUID uuid) {
-        return playerData.keySet().stream()
-            .filter(user -> user.getUUID().equals(uuid))
-            .map(user -> (SierraUser) playerData.get(user))
-            .findFirst();
+        if (uuid == null) return Optional.empty();
+        return Optional.ofNullable(uuidIndex.get(uuid));
     }
 
     @Override
     public Optional<SierraUser> queryUserByEntityId(int id) {
-        return playerData.keySet().stream()
-            .filter(user -> user.getEntityId() == id)
-            .map(user -> (SierraUser) playerData.get(user))
-            .findFirst();
+        return Optional.ofNullable(entityIdIndex.get(id));
     }
 
     @Override
     public Optional<SierraUser> queryUserByName(String name) {
-        return playerData.keySet().stream()
-            .filter(user -> user.getName().equalsIgnoreCase(name))
-            .map(user -> (SierraUser) playerData.get(user))
-            .findFirst();
+        if (name == null) return Optional.empty();
+        return Optional.ofNullable(nameIndex.get(nameKey(name)));
     }
 
+    /**
+     * Returns a snapshot of the whole history, oldest first. Prefer {@link #streamLocalActionHistory()} or the paged
+     * queries, which do not load every entry at once.
+     */
     @Override
+    @Deprecated
     public List<History> getLocalActionHistory() {
-        return histories;
+        return historyStore.stream().collect(Collectors.toList());
+    }
+
+    @Override
+    public Stream<History> streamLocalActionHistory() {
+        return historyStore.stream();
+    }
+
+    @Override
+    public List<History> queryLocalActionHistory(int offset, int limit) {
+        return historyStore.page(offset, limit);
+    }
+
+    @Override
+    public List<History> queryLocalActionHistory(String username, int offset, int limit) {
+        if (username == null) return Collections.emptyList();
+        return historyStore.page(username, offset, limit);
     }
 }
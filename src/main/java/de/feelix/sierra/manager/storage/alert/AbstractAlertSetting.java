@@ -1,10 +1,16 @@
 package de.feelix.sierra.manager.storage.alert;
 
+import com.github.retrooper.packetevents.protocol.player.User;
 import de.feelix.sierraapi.user.settings.AlertSettings;
 
+import java.util.Set;
+
 /**
  * {@code AbstractAlertSetting} is a class that implements the {@code AlertSettings} interface.
  * It provides a basic implementation of the methods in the {@code AlertSettings} interface.
+ * <p>
+ * Every toggle keeps the owner's membership in a shared subscriber set in sync, so alerts are fanned out to the
+ * subscribers directly instead of scanning every online player.
  *
  * @see AlertSettings
  */
@@ -20,7 +26,28 @@ public class AbstractAlertSetting implements AlertSettings {
      * @see AlertSettings
      * @see AbstractAlertSetting
      */
-    private boolean enabled = false;
+    private volatile boolean enabled = false;
+
+    /**
+     * The users that currently have this kind of alert enabled, shared by all settings of the same kind.
+     */
+    private final Set<User> subscribers;
+
+    /**
+     * The user owning this setting.
+     */
+    private final User owner;
+
+    /**
+     * Creates a disabled alert setting.
+     *
+     * @param subscribers the shared set of users that have this kind of alert enabled
+     * @param owner       the user owning this setting
+     */
+    public AbstractAlertSetting(Set<User> subscribers, User owner) {
+        this.subscribers = subscribers;
+        this.owner = owner;
+    }
 
     /**
      * Returns whether the alert is enabled or disabled.
@@ -40,5 +67,10 @@ public class AbstractAlertSetting implements AlertSettings {
     @Override
     public void toggle(boolean enabled) {
         this.enabled = enabled;
+        if (enabled) {
+            subscribers.add(owner);
+        } else {
+            subscribers.remove(owner);
+        }
     }
 }
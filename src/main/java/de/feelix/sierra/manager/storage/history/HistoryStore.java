@@ -0,0 +1,645 @@
+package de.feelix.sierra.manager.storage.history;
+
+import de.feelix.sierra.Sierra;
+import de.feelix.sierraapi.history.History;
+import de.feelix.sierraapi.history.HistoryType;
+import de.feelix.sierraapi.violation.MitigationStrategy;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The HistoryStore class keeps the punishment and mitigation history across restarts.
+ * <p>
+ * Every entry gets a sequence number in the order it was added, which is also its time order. Entries are appended
+ * to segment files of {@link #SEGMENT_ENTRIES} entries each, and the most recent entries are additionally kept in an
+ * in-memory ring. The store indexes the file offset of every entry and the sequence numbers of every username, so a
+ * page of the whole history or of a single player is read in time proportional to the page size.
+ * <p>
+ * Appended entries are flushed to their segment in batches of at most {@link #FLUSH_ENTRIES} entries and by
+ * {@link #flush()}. Entries that are not flushed yet are always among the most recent ones, which are read from memory.
+ * Reads keep one channel per segment open while they iterate and read the segment in blocks.
+ * <p>
+ * Retention drops whole segments once their newest entry is older than the configured amount of days, or once the
+ * store holds more than the configured amount of entries.
+ * <p>
+ * The store is thread-safe. Readers run concurrently and only wait while an entry is appended.
+ */
+public class HistoryStore {
+
+    public static final File HISTORY_DIRECTORY = new File("plugins/Sierra/history/");
+
+    static final int SEGMENT_ENTRIES = 4096;
+    static final int FLUSH_ENTRIES   = 32;
+
+    private static final String SEGMENT_PREFIX = "history-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+    private static final int    MAGIC          = 0x53484931;
+    private static final int    STREAM_BLOCK   = 65536;
+    private static final int    PAGE_BLOCK     = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Deque<Segment>              segments  = new ArrayDeque<>();
+    private final Map<String, SequenceList>   usernames = new HashMap<>();
+    private final HistoryDocument[]           recent;
+
+    private final int  maxEntries;
+    private final long retention;
+    private final int  flushEntries;
+
+    private long             firstSequence;
+    private long             nextSequence;
+    private DataOutputStream output;
+    private int              unflushed;
+
+    /**
+     * Creates a store and loads every persisted entry that is still within the retention.
+     *
+     * @param memoryEntries  the amount of recent entries kept in memory
+     * @param maxEntries     the maximum amount of stored entries, 0 or less for no limit
+     * @param retentionDays  the amount of days entries are kept, 0 or less to keep them forever
+     */
+    public HistoryStore(int memoryEntries, int maxEntries, int retentionDays) {
+        this.recent = new HistoryDocument[Math.max(memoryEntries, 1)];
+        this.maxEntries = maxEntries;
+        this.retention = retentionDays > 0 ? TimeUnit.DAYS.toMillis(retentionDays) : 0L;
+        // Unflushed entries must stay within the memory ring, as they cannot be read from their segment yet
+        this.flushEntries = Math.min(FLUSH_ENTRIES, recent.length);
+
+        if (!HISTORY_DIRECTORY.exists() && !HISTORY_DIRECTORY.mkdirs()) {
+            Sierra.getPlugin().getLogger().warning("Failed to create history directory: " + HISTORY_DIRECTORY);
+        }
+        load();
+    }
+
+    /**
+     * Appends an entry to the store.
+     *
+     * @param document the entry to append
+     */
+    public void add(HistoryDocument document) {
+        lock.writeLock().lock();
+        try {
+            Segment segment = activeSegment();
+            if (segment != null) {
+                byte[] record = encode(document);
+                try {
+                    output.writeInt(record.length);
+                    output.write(record);
+                    if (++unflushed >= flushEntries) {
+                        output.flush();
+                        unflushed = 0;
+                    }
+                    segment.append(document.timestamp(), record.length + 4);
+                } catch (IOException e) {
+                    Sierra.getPlugin().getLogger().warning("Unable to write history: " + e.getMessage());
+                    closeOutput();
+                    return;
+                }
+            }
+
+            long sequence = nextSequence++;
+            recent[(int) (sequence % recent.length)] = document;
+            usernames.computeIfAbsent(key(document.username()), name -> new SequenceList()).add(sequence);
+
+            if (segment == null) {
+                firstSequence = Math.max(firstSequence, nextSequence - recent.length);
+            }
+            applyRetention();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the amount of stored entries.
+     *
+     * @return the size of the store
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return (int) (nextSequence - firstSequence);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the amount of stored entries of a player.
+     *
+     * @param username the name of the player
+     * @return the amount of entries of the player
+     */
+    public int size(String username) {
+        lock.readLock().lock();
+        try {
+            SequenceList sequences = usernames.get(key(username));
+            return sequences == null ? 0 : sequences.size - sequences.lowerBound(firstSequence);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a page of entries, newest first.
+     *
+     * @param offset the amount of newer entries to skip
+     * @param limit  the maximum amount of entries
+     * @return the entries of the page
+     */
+    public List<History> page(int offset, int limit) {
+        if (offset < 0 || limit <= 0) return Collections.emptyList();
+
+        lock.readLock().lock();
+        try (Cursor cursor = new Cursor(PAGE_BLOCK)) {
+            List<History> page = new ArrayList<>(Math.min(limit, 64));
+            for (long sequence = nextSequence - 1 - offset;
+                 sequence >= firstSequence && page.size() < limit; sequence--) {
+                HistoryDocument document = get(sequence, cursor);
+                if (document != null) page.add(document);
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a page of the entries of a player, newest first.
+     *
+     * @param username the name of the player
+     * @param offset   the amount of newer entries to skip
+     * @param limit    the maximum amount of entries
+     * @return the entries of the page
+     */
+    public List<History> page(String username, int offset, int limit) {
+        if (offset < 0 || limit <= 0) return Collections.emptyList();
+
+        lock.readLock().lock();
+        try (Cursor cursor = new Cursor(PAGE_BLOCK)) {
+            SequenceList sequences = usernames.get(key(username));
+            if (sequences == null) return Collections.emptyList();
+
+            int           lowest = sequences.lowerBound(firstSequence);
+            List<History> page   = new ArrayList<>(Math.min(limit, 64));
+            for (int index = sequences.size - 1 - offset; index >= lowest && page.size() < limit; index--) {
+                HistoryDocument document = get(sequences.values[index], cursor);
+                if (document != null) page.add(document);
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Streams every stored entry, oldest first. The stream reads the store lazily and skips entries dropped by the
+     * retention while it is consumed. It keeps the segment it currently reads open until it is exhausted or closed.
+     *
+     * @return a stream of the stored entries
+     */
+    public Stream<History> stream() {
+        long from;
+        long to;
+        lock.readLock().lock();
+        try {
+            from = firstSequence;
+            to = nextSequence;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Cursor cursor = new Cursor(STREAM_BLOCK);
+        Iterator<History> iterator = new Iterator<History>() {
+            private long    sequence = from;
+            private History next     = advance();
+
+            private History advance() {
+                while (sequence < to) {
+                    HistoryDocument document = read(sequence++, cursor);
+                    if (document != null) return document;
+                }
+                cursor.close();
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public History next() {
+                if (next == null) throw new NoSuchElementException();
+                History current = next;
+                next = advance();
+                return current;
+            }
+        };
+        return StreamSupport.stream(
+            Spliterators.spliterator(iterator, to - from, Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .onClose(cursor::close);
+    }
+
+    /**
+     * Flushes the appended entries that are still buffered to the active segment.
+     */
+    public void flush() {
+        lock.writeLock().lock();
+        try {
+            if (output == null || unflushed == 0) return;
+            output.flush();
+            unflushed = 0;
+        } catch (IOException e) {
+            Sierra.getPlugin().getLogger().warning("Unable to write history: " + e.getMessage());
+            closeOutput();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Closes the active segment.
+     */
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            closeOutput();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private HistoryDocument read(long sequence, Cursor cursor) {
+        lock.readLock().lock();
+        try {
+            return sequence >= firstSequence ? get(sequence, cursor) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the entry with the given sequence, from memory if it is recent enough, otherwise from its segment.
+     * Must be called with the lock held.
+     */
+    private HistoryDocument get(long sequence, Cursor cursor) {
+        if (sequence >= nextSequence - recent.length) {
+            HistoryDocument document = recent[(int) (sequence % recent.length)];
+            if (document != null) return document;
+        }
+
+        for (Segment segment : segments) {
+            if (sequence < segment.firstSequence) break;
+            if (sequence < segment.firstSequence + segment.count) {
+                return cursor.read(segment, segment.offsets.values[(int) (sequence - segment.firstSequence)]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the segment new entries are appended to, starting a new one if the last one is full.
+     * Returns null if the history cannot be written to disk, in which case only the memory ring is used.
+     */
+    private Segment activeSegment() {
+        Segment last = segments.peekLast();
+        if (last != null && output != null && last.count < SEGMENT_ENTRIES) return last;
+
+        closeOutput();
+        Segment segment = new Segment(new File(HISTORY_DIRECTORY, SEGMENT_PREFIX + nextSequence + SEGMENT_SUFFIX),
+                                      nextSequence);
+        try {
+            output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(segment.file)));
+            output.writeInt(MAGIC);
+            output.flush();
+        } catch (IOException e) {
+            Sierra.getPlugin().getLogger().warning("Unable to create history segment: " + e.getMessage());
+            closeOutput();
+            return null;
+        }
+        segment.length = 4;
+        segments.addLast(segment);
+        return segment;
+    }
+
+    /**
+     * Drops the oldest segments that are past the retention or exceed the maximum amount of entries. The active
+     * segment is never dropped. Must be called with the write lock held.
+     */
+    private void applyRetention() {
+        long    now     = System.currentTimeMillis();
+        boolean dropped = false;
+        while (segments.size() > 1) {
+            Segment oldest  = segments.peekFirst();
+            boolean expired = retention > 0 && oldest.newestTime < now - retention;
+            boolean full    = maxEntries > 0 && nextSequence - oldest.firstSequence - oldest.count >= maxEntries;
+            if (!expired && !full) break;
+
+            segments.pollFirst();
+            oldest.delete();
+            firstSequence = segments.peekFirst().firstSequence;
+            dropped = true;
+        }
+
+        if (dropped) {
+            usernames.values().removeIf(sequences -> sequences.trim(firstSequence));
+        }
+    }
+
+    private void load() {
+        File[] files = HISTORY_DIRECTORY.listFiles(
+            (dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (files == null || files.length == 0) return;
+
+        List<Segment> found = new ArrayList<>();
+        for (File file : files) {
+            String name = file.getName();
+            try {
+                long first = Long.parseLong(
+                    name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                found.add(new Segment(file, first));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        found.sort(Comparator.comparingLong(segment -> segment.firstSequence));
+
+        for (Segment segment : found) {
+            if (!segments.isEmpty() && segment.firstSequence != nextSequence) {
+                Sierra.getPlugin().getLogger().warning("Skipping out of order history segment " + segment.file);
+                continue;
+            }
+            try {
+                scan(segment);
+            } catch (IOException e) {
+                Sierra.getPlugin().getLogger().warning("Unable to read history segment " + segment.file + ": "
+                                                       + e.getMessage());
+                continue;
+            }
+            if (segment.count == 0) {
+                segment.delete();
+                continue;
+            }
+            if (segments.isEmpty()) {
+                firstSequence = segment.firstSequence;
+                nextSequence = segment.firstSequence;
+            }
+            segments.addLast(segment);
+            nextSequence += segment.count;
+        }
+
+        applyRetention();
+    }
+
+    /**
+     * Reads every entry of a segment to index it, and truncates a partially written last entry.
+     */
+    private void scan(Segment segment) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(segment.file)))) {
+            if (segment.file.length() < 4 || in.readInt() != MAGIC) return;
+
+            long position = 4;
+            long length   = segment.file.length();
+            while (position + 4 <= length) {
+                int size = in.readInt();
+                if (size <= 0 || position + 4 + size > length) break;
+
+                byte[] record = new byte[size];
+                in.readFully(record);
+                HistoryDocument document = decode(record);
+                if (document == null) break;
+
+                long sequence = segment.firstSequence + segment.count;
+                segment.offsets.add(position);
+                segment.count++;
+                segment.newestTime = Math.max(segment.newestTime, document.timestamp());
+                recent[(int) (sequence % recent.length)] = document;
+                usernames.computeIfAbsent(key(document.username()), name -> new SequenceList()).add(sequence);
+                position += 4 + size;
+            }
+            segment.length = position;
+        }
+
+        if (segment.length < segment.file.length()) {
+            try (RandomAccessFile file = new RandomAccessFile(segment.file, "rw")) {
+                file.setLength(segment.length);
+            }
+        }
+    }
+
+    private void closeOutput() {
+        unflushed = 0;
+        if (output == null) return;
+        try {
+            output.close();
+        } catch (IOException e) {
+            Sierra.getPlugin().getLogger().warning("Unable to close history segment: " + e.getMessage());
+        }
+        output = null;
+    }
+
+    private static String key(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    private static byte[] encode(HistoryDocument document) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(document.timestamp());
+            out.writeLong(document.ping());
+            out.writeByte(document.mitigationStrategy().ordinal());
+            out.writeByte(document.historyType().ordinal());
+            out.writeUTF(document.username());
+            out.writeUTF(truncate(document.clientVersion()));
+            out.writeUTF(truncate(document.description()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static HistoryDocument decode(byte[] record) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+            long timestamp = in.readLong();
+            long ping      = in.readLong();
+            int  strategy  = in.readUnsignedByte();
+            int  type      = in.readUnsignedByte();
+            if (strategy >= MitigationStrategy.values().length || type >= HistoryType.values().length) return null;
+
+            String username      = in.readUTF();
+            String clientVersion = in.readUTF();
+            String description   = in.readUTF();
+            return new HistoryDocument(username, description, clientVersion, ping,
+                                       MitigationStrategy.values()[strategy], HistoryType.values()[type], timestamp);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Limits a string to what {@link DataOutputStream#writeUTF(String)} can encode in the worst case.
+     */
+    private static String truncate(String value) {
+        if (value == null) return "";
+        return value.length() > 16384 ? value.substring(0, 16384) : value;
+    }
+
+    /**
+     * An append-only segment file and the offsets of its entries.
+     */
+    private static final class Segment {
+
+        private final File         file;
+        private final long         firstSequence;
+        private final SequenceList offsets = new SequenceList();
+        private       int          count;
+        private       long         length;
+        private       long         newestTime = Long.MIN_VALUE;
+
+        private Segment(File file, long firstSequence) {
+            this.file = file;
+            this.firstSequence = firstSequence;
+        }
+
+        private void append(long timestamp, int size) {
+            offsets.add(length);
+            length += size;
+            count++;
+            newestTime = Math.max(newestTime, timestamp);
+        }
+
+        private void delete() {
+            if (!file.delete()) {
+                Sierra.getPlugin().getLogger().warning("Unable to delete history segment " + file);
+            }
+        }
+    }
+
+    /**
+     * Reads entries of one segment at a time through a single open channel. The bytes are read in blocks, so entries
+     * read in ascending order, as by {@link #stream()}, mostly come from the block read before. A cursor belongs to a
+     * single reader and must be closed after use.
+     */
+    private static final class Cursor implements Closeable {
+
+        private final ByteBuffer block;
+
+        private Segment     segment;
+        private FileChannel channel;
+        private long        blockStart;
+
+        private Cursor(int blockSize) {
+            this.block = ByteBuffer.allocate(blockSize);
+            this.block.limit(0);
+        }
+
+        private HistoryDocument read(Segment segment, long position) {
+            try {
+                if (segment != this.segment) open(segment);
+                if (!buffered(position, 4) && !fill(position, 4)) return null;
+
+                int size = block.getInt((int) (position - blockStart));
+                if (size <= 0) return null;
+                if (size + 4 > block.capacity()) {
+                    ByteBuffer record = ByteBuffer.allocate(size);
+                    if (channel.read(record, position + 4) != size) return null;
+                    return decode(record.array());
+                }
+                if (!buffered(position, size + 4) && !fill(position, size + 4)) return null;
+
+                int start = (int) (position - blockStart) + 4;
+                return decode(Arrays.copyOfRange(block.array(), start, start + size));
+            } catch (IOException e) {
+                close();
+                return null;
+            }
+        }
+
+        private boolean buffered(long position, int length) {
+            return position >= blockStart && position + length <= blockStart + block.limit();
+        }
+
+        /**
+         * Reads a block starting at the given position and returns whether it holds at least the given length.
+         */
+        private boolean fill(long position, int length) throws IOException {
+            block.clear();
+            blockStart = position;
+            while (block.hasRemaining()) {
+                if (channel.read(block, position + block.position()) <= 0) break;
+            }
+            block.flip();
+            return block.limit() >= length;
+        }
+
+        private void open(Segment segment) throws IOException {
+            close();
+            this.channel = FileChannel.open(segment.file.toPath(), StandardOpenOption.READ);
+            this.segment = segment;
+        }
+
+        @Override
+        public void close() {
+            segment = null;
+            block.limit(0);
+            if (channel == null) return;
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+            channel = null;
+        }
+    }
+
+    /**
+     * A growable, ascending list of primitive longs.
+     */
+    private static final class SequenceList {
+
+        private long[] values = new long[8];
+        private int    size;
+
+        private void add(long value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        /**
+         * Returns the index of the first value that is greater than or equal to the given value.
+         */
+        private int lowerBound(long value) {
+            int low  = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (values[middle] < value) low = middle + 1;
+                else high = middle;
+            }
+            return low;
+        }
+
+        /**
+         * Removes every value lower than the given value.
+         *
+         * @return true if the list is empty afterwards
+         */
+        private boolean trim(long value) {
+            int from = lowerBound(value);
+            if (from > 0) {
+                System.arraycopy(values, from, values, 0, size - from);
+                size -= from;
+            }
+            return size == 0;
+        }
+    }
+}
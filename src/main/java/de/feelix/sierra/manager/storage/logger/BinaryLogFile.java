@@ -0,0 +1,273 @@
+package de.feelix.sierra.manager.storage.logger;
+
+import de.feelix.sierra.Sierra;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A player log in the binary format. Entries are appended to a segment file as fixed-size record headers followed
+ * by their UTF-8 payload:
+ * <pre>
+ *   segment := MAGIC:int VERSION:int record*
+ *   record  := time:long tag:byte playerId:int length:int payload:byte[length]
+ * </pre>
+ * Records are grouped into blocks of {@link #BLOCK_RECORDS}. When the segment is closed, an index file is written
+ * next to it holding the time range and tag mask of the whole segment and of every block, so readers can skip
+ * everything that cannot match a query:
+ * <pre>
+ *   index := MAGIC:int VERSION:int records:int minTime:long maxTime:long tagMask:long blocks:int block*
+ *   block := offset:long minTime:long maxTime:long tagMask:long
+ * </pre>
+ * A segment without an index is either still being written or was left behind by a crash, readers scan it fully.
+ * When a player logs again, the newest segment is continued as long as it is smaller than the maximum file size, so
+ * closing idle logs does not leave a trail of small segments behind. Its index is removed while it is written.
+ */
+final class BinaryLogFile extends LogFile {
+
+    static final int    MAGIC          = 0x534C4731;
+    static final int    VERSION        = 1;
+    static final int    FILE_HEADER    = 8;
+    static final int    RECORD_HEADER  = 17;
+    static final int    BLOCK_RECORDS  = 128;
+    static final String SEGMENT_SUFFIX = ".slog";
+    static final String INDEX_SUFFIX   = ".slidx";
+
+    private final File             segment;
+    private final DataOutputStream out;
+    private final int              playerId;
+
+    private int  records;
+    private long minTime = Long.MAX_VALUE;
+    private long maxTime = Long.MIN_VALUE;
+    private long tagMask;
+
+    private int    blocks;
+    private long[] blockOffsets  = new long[16];
+    private long[] blockMinTimes = new long[16];
+    private long[] blockMaxTimes = new long[16];
+    private long[] blockMasks    = new long[16];
+
+    BinaryLogFile(File directory, String playerName, long maxSize) throws IOException {
+        super(directory);
+        this.playerId = playerId(playerName);
+        recover(directory);
+
+        List<File> segments = BinaryLogReader.segments(directory);
+        File       last     = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        long       end      = last != null && last.length() < maxSize ? resume(last) : -1;
+        if (end > 0) {
+            this.segment = last;
+            this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(last, true), 16 * 1024));
+            this.size = end;
+            return;
+        }
+
+        long stamp = System.currentTimeMillis();
+        File file  = new File(directory, "segment-" + stamp + SEGMENT_SUFFIX);
+        while (file.exists()) {
+            file = new File(directory, "segment-" + (++stamp) + SEGMENT_SUFFIX);
+        }
+        this.segment = file;
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 16 * 1024));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        this.size = FILE_HEADER;
+    }
+
+    /**
+     * Returns the id written into every record of a player.
+     *
+     * @param playerName the name of the player
+     * @return a stable id derived from the case-insensitive name
+     */
+    static int playerId(String playerName) {
+        return playerName.toLowerCase(Locale.ROOT).hashCode();
+    }
+
+    /**
+     * Returns the index file belonging to a segment.
+     *
+     * @param segment the segment file
+     * @return the index file, which may not exist
+     */
+    static File indexOf(File segment) {
+        String name = segment.getName();
+        return new File(segment.getParentFile(),
+                        name.substring(0, name.length() - SEGMENT_SUFFIX.length()) + INDEX_SUFFIX);
+    }
+
+    @Override
+    int append(long time, LogTag tag, String message) throws IOException {
+        byte[] payload = message.getBytes(StandardCharsets.UTF_8);
+        long   bit     = 1L << tag.ordinal();
+
+        if (records % BLOCK_RECORDS == 0) {
+            startBlock();
+        }
+        int block = blocks - 1;
+        blockMinTimes[block] = Math.min(blockMinTimes[block], time);
+        blockMaxTimes[block] = Math.max(blockMaxTimes[block], time);
+        blockMasks[block] |= bit;
+
+        out.writeLong(time);
+        out.writeByte(tag.ordinal());
+        out.writeInt(playerId);
+        out.writeInt(payload.length);
+        out.write(payload);
+
+        records++;
+        minTime = Math.min(minTime, time);
+        maxTime = Math.max(maxTime, time);
+        tagMask |= bit;
+
+        int written = RECORD_HEADER + payload.length;
+        size += written;
+        return written;
+    }
+
+    @Override
+    void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            Sierra.getPlugin().getLogger().warning("Unable to flush log " + segment + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Closes the segment and writes its index. The next entry of the player starts a new segment.
+     */
+    @Override
+    void close() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            Sierra.getPlugin().getLogger().warning("Unable to close log " + segment + ": " + e.getMessage());
+            return;
+        }
+        if (records == 0) {
+            if (!segment.delete()) {
+                Sierra.getPlugin().getLogger().warning("Unable to delete empty log " + segment);
+            }
+            return;
+        }
+        writeIndex(segment, records, minTime, maxTime, tagMask, blocks, blockOffsets, blockMinTimes,
+                   blockMaxTimes, blockMasks);
+    }
+
+    @Override
+    void rotate() {
+        close();
+    }
+
+    /**
+     * Restores the index state of a closed segment, cuts off anything behind its last complete record and removes
+     * its index, so the segment can be continued.
+     *
+     * @return the size of the segment, or -1 if it cannot be continued
+     */
+    private long resume(File segment) {
+        BinaryLogReader.Scan scan;
+        try {
+            scan = BinaryLogReader.readScan(segment, BLOCK_RECORDS);
+            if (scan == null || scan.getRecords() == 0) return -1;
+            truncate(segment, scan.getEnd());
+        } catch (IOException e) {
+            return -1;
+        }
+        if (!indexOf(segment).delete()) return -1;
+
+        records = scan.getRecords();
+        minTime = scan.getMinTime();
+        maxTime = scan.getMaxTime();
+        tagMask = scan.getTagMask();
+        blocks = scan.getBlocks();
+        blockOffsets = scan.getBlockOffsets();
+        blockMinTimes = scan.getBlockMinTimes();
+        blockMaxTimes = scan.getBlockMaxTimes();
+        blockMasks = scan.getBlockMasks();
+        return scan.getEnd();
+    }
+
+    private void startBlock() {
+        if (blocks == blockOffsets.length) {
+            int length = blocks * 2;
+            blockOffsets = Arrays.copyOf(blockOffsets, length);
+            blockMinTimes = Arrays.copyOf(blockMinTimes, length);
+            blockMaxTimes = Arrays.copyOf(blockMaxTimes, length);
+            blockMasks = Arrays.copyOf(blockMasks, length);
+        }
+        blockOffsets[blocks] = size;
+        blockMinTimes[blocks] = Long.MAX_VALUE;
+        blockMaxTimes[blocks] = Long.MIN_VALUE;
+        blockMasks[blocks] = 0L;
+        blocks++;
+    }
+
+    /**
+     * Writes the index of every segment in the directory that was left without one, for example after a crash. A
+     * record that was only partly written before the crash is cut off, so records appended later stay readable.
+     */
+    private static void recover(File directory) {
+        File[] segments = directory.listFiles((dir, name) -> name.endsWith(SEGMENT_SUFFIX));
+        if (segments == null) return;
+
+        for (File segment : segments) {
+            if (indexOf(segment).exists()) continue;
+            try {
+                BinaryLogReader.Scan scan = BinaryLogReader.scan(segment, BLOCK_RECORDS);
+                if (scan.getRecords() == 0) {
+                    if (!segment.delete()) {
+                        Sierra.getPlugin().getLogger().warning("Unable to delete empty log " + segment);
+                    }
+                    continue;
+                }
+                truncate(segment, scan.getEnd());
+                writeIndex(segment, scan.getRecords(), scan.getMinTime(), scan.getMaxTime(), scan.getTagMask(),
+                           scan.getBlocks(), scan.getBlockOffsets(), scan.getBlockMinTimes(),
+                           scan.getBlockMaxTimes(), scan.getBlockMasks());
+            } catch (IOException e) {
+                Sierra.getPlugin().getLogger().warning("Unable to recover log " + segment + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static void truncate(File segment, long end) throws IOException {
+        if (segment.length() <= end) return;
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.setLength(end);
+        }
+    }
+
+    private static void writeIndex(File segment, int records, long minTime, long maxTime, long tagMask, int blocks,
+                                   long[] offsets, long[] minTimes, long[] maxTimes, long[] masks) {
+        File index     = indexOf(segment);
+        File temporary = new File(index.getParentFile(), index.getName() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(records);
+            out.writeLong(minTime);
+            out.writeLong(maxTime);
+            out.writeLong(tagMask);
+            out.writeInt(blocks);
+            for (int i = 0; i < blocks; i++) {
+                out.writeLong(offsets[i]);
+                out.writeLong(minTimes[i]);
+                out.writeLong(maxTimes[i]);
+                out.writeLong(masks[i]);
+            }
+        } catch (IOException e) {
+            Sierra.getPlugin().getLogger().warning("Unable to write log index " + index + ": " + e.getMessage());
+            return;
+        }
+        if (!temporary.renameTo(index)) {
+            Sierra.getPlugin().getLogger().warning("Unable to write log index " + index);
+        }
+    }
+}
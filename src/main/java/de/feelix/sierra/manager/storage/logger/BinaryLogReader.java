@@ -0,0 +1,398 @@
+package de.feelix.sierra.manager.storage.logger;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.UtilityClass;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.*;
+
+/**
+ * The BinaryLogReader class queries the segments written by {@link BinaryLogFile}. Segments are read through
+ * memory-mapped buffers and their indexes are used to skip every segment and block whose time range or tags cannot
+ * match, so only the relevant records are visited and only the returned ones are decoded.
+ * <p>
+ * The reader may run concurrently with the log writer. The segment that is still being written has no index and is
+ * scanned up to the last complete record.
+ */
+@UtilityClass
+public class BinaryLogReader {
+
+    private static final LogTag[] TAGS = LogTag.values();
+
+    /**
+     * A decoded log entry.
+     */
+    @Getter
+    public static final class Record {
+
+        private final long   time;
+        private final LogTag tag;
+        private final String message;
+
+        private Record(long time, LogTag tag, String message) {
+            this.time = time;
+            this.tag = tag;
+            this.message = message;
+        }
+    }
+
+    /**
+     * Finds the log directory of a player, ignoring the case of the name.
+     *
+     * @param playerName the name of the player
+     * @return the directory, or null if the player never logged anything
+     */
+    public File directoryOf(String playerName) {
+        File exact = LogService.playerDirectory(playerName);
+        if (exact == null) return null;
+        if (exact.isDirectory()) return exact;
+
+        File[] directories = LogService.LOG_DIRECTORY.listFiles(File::isDirectory);
+        if (directories == null) return null;
+        for (File directory : directories) {
+            if (directory.getName().equalsIgnoreCase(playerName)) return directory;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the newest entries of a player matching the given tag and time.
+     *
+     * @param directory the log directory of the player
+     * @param tag       the tag to match, or null to match every tag
+     * @param since     the earliest time to match, in milliseconds
+     * @param limit     the maximum amount of returned entries
+     * @return the matching entries, oldest first
+     * @throws IOException if a segment could not be read
+     */
+    public List<Record> search(File directory, LogTag tag, long since, int limit) throws IOException {
+        if (limit <= 0) return Collections.emptyList();
+
+        long                   tagBit    = tag == null ? -1L : 1L << tag.ordinal();
+        ArrayDeque<int[]>      positions = new ArrayDeque<>(limit);
+        ArrayDeque<ByteBuffer> buffers   = new ArrayDeque<>(limit);
+
+        for (File segment : segments(directory)) {
+            Index index = readIndex(BinaryLogFile.indexOf(segment));
+            if (index != null && (index.maxTime < since || (index.tagMask & tagBit) == 0)) continue;
+
+            ByteBuffer buffer = map(segment);
+            if (buffer == null) continue;
+
+            RecordConsumer consumer = (position, time, tagOrdinal, length) -> {
+                if (time < since || (tagBit & (1L << tagOrdinal)) == 0) return;
+                if (positions.size() == limit) {
+                    positions.pollFirst();
+                    buffers.pollFirst();
+                }
+                positions.addLast(new int[]{position, length});
+                buffers.addLast(buffer);
+            };
+
+            if (index == null) {
+                forEachRecord(buffer, BinaryLogFile.FILE_HEADER, buffer.limit(), consumer);
+                continue;
+            }
+            for (int block = 0; block < index.blocks; block++) {
+                if (index.blockMaxTimes[block] < since || (index.blockMasks[block] & tagBit) == 0) continue;
+                int from = (int) index.blockOffsets[block];
+                int to   = block + 1 < index.blocks ? (int) index.blockOffsets[block + 1] : buffer.limit();
+                forEachRecord(buffer, from, to, consumer);
+            }
+        }
+
+        List<Record> records = new ArrayList<>(positions.size());
+        while (!positions.isEmpty()) {
+            int[]      position = positions.pollFirst();
+            ByteBuffer buffer   = buffers.pollFirst();
+            records.add(decode(buffer, position[0], position[1]));
+        }
+        return records;
+    }
+
+    /**
+     * Exports every entry of a player in the text format.
+     *
+     * @param directory the log directory of the player
+     * @param target    the text file to write
+     * @return the amount of exported entries
+     * @throws IOException if a segment could not be read or the export could not be written
+     */
+    public int export(File directory, File target) throws IOException {
+        SimpleDateFormat format  = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        StringBuilder    line    = new StringBuilder(256);
+        int              entries = 0;
+
+        try (Writer writer = new BufferedWriter(
+            new OutputStreamWriter(new FileOutputStream(target), StandardCharsets.UTF_8))) {
+            for (File segment : segments(directory)) {
+                ByteBuffer buffer = map(segment);
+                if (buffer == null) continue;
+
+                List<int[]> positions = new ArrayList<>();
+                forEachRecord(buffer, BinaryLogFile.FILE_HEADER, buffer.limit(),
+                              (position, time, tag, length) -> positions.add(new int[]{position, length}));
+
+                for (int[] position : positions) {
+                    Record record = decode(buffer, position[0], position[1]);
+                    line.setLength(0);
+                    TextLogFile.formatLine(line, format.format(new Date(record.time)), record.tag, record.message);
+                    writer.append(line);
+                    entries++;
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Scans a segment without an index and computes the index it would have.
+     *
+     * @param segment      the segment to scan
+     * @param blockRecords the amount of records per block
+     * @return the computed index
+     * @throws IOException if the segment could not be read
+     */
+    Scan scan(File segment, int blockRecords) throws IOException {
+        Scan       scan   = new Scan();
+        ByteBuffer buffer = read(segment, 0);
+        if (buffer != null) {
+            forEachRecord(buffer, BinaryLogFile.FILE_HEADER, buffer.limit(), (position, time, tag, length) -> {
+                scan.add(position, time, tag, blockRecords);
+                scan.end = position + BinaryLogFile.RECORD_HEADER + length;
+            });
+        }
+        return scan;
+    }
+
+    /**
+     * Reads the index of a closed segment, including the time ranges of its blocks, so the writer can continue it.
+     * The records of the last block are walked to find where the last complete record ends.
+     *
+     * @param segment      the segment whose index is read
+     * @param blockRecords the amount of records per block
+     * @return the index, or null if the segment has no valid index or is shorter than its index
+     * @throws IOException if the index or the segment could not be read
+     */
+    Scan readScan(File segment, int blockRecords) throws IOException {
+        File file = BinaryLogFile.indexOf(segment);
+        if (!file.isFile()) return null;
+
+        Scan scan;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != BinaryLogFile.MAGIC || in.readInt() != BinaryLogFile.VERSION) return null;
+
+            scan = new Scan();
+            scan.records = in.readInt();
+            scan.minTime = in.readLong();
+            scan.maxTime = in.readLong();
+            scan.tagMask = in.readLong();
+            scan.blocks = in.readInt();
+            int length = Math.max(16, scan.blocks);
+            scan.blockOffsets = new long[length];
+            scan.blockMinTimes = new long[length];
+            scan.blockMaxTimes = new long[length];
+            scan.blockMasks = new long[length];
+            for (int i = 0; i < scan.blocks; i++) {
+                scan.blockOffsets[i] = in.readLong();
+                scan.blockMinTimes[i] = in.readLong();
+                scan.blockMaxTimes[i] = in.readLong();
+                scan.blockMasks[i] = in.readLong();
+            }
+        } catch (EOFException e) {
+            return null;
+        }
+        if (scan.blocks == 0) return null;
+
+        long       from   = scan.blockOffsets[scan.blocks - 1];
+        ByteBuffer buffer = read(segment, from);
+        if (buffer == null) return null;
+
+        int[] remaining = {scan.records - (scan.blocks - 1) * blockRecords};
+        forEachRecord(buffer, 0, buffer.limit(), (position, time, tag, length) -> {
+            if (remaining[0] <= 0) return;
+            remaining[0]--;
+            scan.end = from + position + BinaryLogFile.RECORD_HEADER + length;
+        });
+        return remaining[0] == 0 ? scan : null;
+    }
+
+    /**
+     * Returns the segments of a player, oldest first.
+     */
+    List<File> segments(File directory) {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(BinaryLogFile.SEGMENT_SUFFIX));
+        if (files == null) return Collections.emptyList();
+
+        List<File> segments = new ArrayList<>(Arrays.asList(files));
+        segments.sort(Comparator.comparingLong(BinaryLogReader::segmentStamp));
+        return segments;
+    }
+
+    private long segmentStamp(File segment) {
+        String name = segment.getName();
+        try {
+            return Long.parseLong(name.substring("segment-".length(), name.length() - BinaryLogFile.SEGMENT_SUFFIX.length()));
+        } catch (RuntimeException e) {
+            return segment.lastModified();
+        }
+    }
+
+    /**
+     * Maps a segment into memory and checks its header.
+     *
+     * @return the mapped segment, or null if it is not a valid segment
+     */
+    private ByteBuffer map(File segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < BinaryLogFile.FILE_HEADER || size > Integer.MAX_VALUE) return null;
+
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != BinaryLogFile.MAGIC || buffer.getInt(4) != BinaryLogFile.VERSION) return null;
+            return buffer;
+        }
+    }
+
+    /**
+     * Reads a segment from the given offset into a heap buffer, so the file is not held by a mapping and can still be
+     * truncated. The header is checked when reading from the start.
+     *
+     * @return the read bytes, or null if it is not a valid segment
+     */
+    private ByteBuffer read(File segment, long from) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < Math.max(from, BinaryLogFile.FILE_HEADER) || size - from > Integer.MAX_VALUE) return null;
+
+            ByteBuffer buffer = ByteBuffer.allocate((int) (size - from));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, from + buffer.position()) < 0) break;
+            }
+            buffer.flip();
+            if (from == 0 && (buffer.getInt(0) != BinaryLogFile.MAGIC || buffer.getInt(4) != BinaryLogFile.VERSION)) {
+                return null;
+            }
+            return buffer;
+        }
+    }
+
+    private Index readIndex(File file) throws IOException {
+        if (!file.isFile()) return null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != BinaryLogFile.MAGIC || in.readInt() != BinaryLogFile.VERSION) return null;
+
+            Index index = new Index();
+            in.readInt();
+            in.readLong();
+            index.maxTime = in.readLong();
+            index.tagMask = in.readLong();
+            index.blocks = in.readInt();
+            index.blockOffsets = new long[index.blocks];
+            index.blockMaxTimes = new long[index.blocks];
+            index.blockMasks = new long[index.blocks];
+            for (int i = 0; i < index.blocks; i++) {
+                index.blockOffsets[i] = in.readLong();
+                in.readLong();
+                index.blockMaxTimes[i] = in.readLong();
+                index.blockMasks[i] = in.readLong();
+            }
+            return index;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Visits every complete record between the given offsets. A truncated record ends the visit.
+     */
+    private void forEachRecord(ByteBuffer buffer, int from, int to, RecordConsumer consumer) {
+        int position = from;
+        while (position + BinaryLogFile.RECORD_HEADER <= to) {
+            long time   = buffer.getLong(position);
+            int  tag    = buffer.get(position + 8);
+            int  length = buffer.getInt(position + 13);
+            if (length < 0 || tag < 0 || tag >= TAGS.length || position + BinaryLogFile.RECORD_HEADER + length > to) {
+                return;
+            }
+            consumer.accept(position, time, tag, length);
+            position += BinaryLogFile.RECORD_HEADER + length;
+        }
+    }
+
+    private Record decode(ByteBuffer buffer, int position, int length) {
+        byte[] payload = new byte[length];
+        ByteBuffer view = buffer.duplicate();
+        view.position(position + BinaryLogFile.RECORD_HEADER);
+        view.get(payload);
+        return new Record(buffer.getLong(position), TAGS[buffer.get(position + 8)],
+                          new String(payload, StandardCharsets.UTF_8));
+    }
+
+    private interface RecordConsumer {
+        void accept(int position, long time, int tag, int length);
+    }
+
+    private static final class Index {
+        private long   maxTime;
+        private long   tagMask;
+        private int    blocks;
+        private long[] blockOffsets;
+        private long[] blockMaxTimes;
+        private long[] blockMasks;
+    }
+
+    /**
+     * The index of a segment computed by scanning it.
+     */
+    @Getter
+    static final class Scan {
+
+        private int    records;
+        private long   minTime = Long.MAX_VALUE;
+        private long   maxTime = Long.MIN_VALUE;
+        private long   tagMask;
+        private int    blocks;
+        private long[] blockOffsets  = new long[16];
+        private long[] blockMinTimes = new long[16];
+        private long[] blockMaxTimes = new long[16];
+        private long[] blockMasks    = new long[16];
+        // The offset right after the last complete record, everything behind it is a torn write
+        private long   end           = BinaryLogFile.FILE_HEADER;
+
+        @Getter(AccessLevel.NONE)
+        private int currentBlock = -1;
+
+        private void add(int position, long time, int tag, int blockRecords) {
+            if (records % blockRecords == 0) {
+                if (blocks == blockOffsets.length) {
+                    int length = blocks * 2;
+                    blockOffsets = Arrays.copyOf(blockOffsets, length);
+                    blockMinTimes = Arrays.copyOf(blockMinTimes, length);
+                    blockMaxTimes = Arrays.copyOf(blockMaxTimes, length);
+                    blockMasks = Arrays.copyOf(blockMasks, length);
+                }
+                currentBlock = blocks++;
+                blockOffsets[currentBlock] = position;
+                blockMinTimes[currentBlock] = Long.MAX_VALUE;
+                blockMaxTimes[currentBlock] = Long.MIN_VALUE;
+            }
+            long bit = 1L << tag;
+            blockMinTimes[currentBlock] = Math.min(blockMinTimes[currentBlock], time);
+            blockMaxTimes[currentBlock] = Math.max(blockMaxTimes[currentBlock], time);
+            blockMasks[currentBlock] |= bit;
+
+            records++;
+            minTime = Math.min(minTime, time);
+            maxTime = Math.max(maxTime, time);
+            tagMask |= bit;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package de.feelix.sierra.manager.storage.logger;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * An open log of a single player. Instances are only accessed by the writer thread of the {@link LogService}.
+ */
+abstract class LogFile {
+
+    protected final File directory;
+    protected long       size;
+    protected long       lastUsed = System.nanoTime();
+
+    protected LogFile(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Appends an entry to the log.
+     *
+     * @param time    the time the entry was logged at, in milliseconds
+     * @param tag     the tag of the entry
+     * @param message the message of the entry
+     * @return the amount of bytes written
+     * @throws IOException if the entry could not be written
+     */
+    abstract int append(long time, LogTag tag, String message) throws IOException;
+
+    abstract void flush();
+
+    /**
+     * Closes the log. It is opened again on the next entry of the player.
+     */
+    abstract void close();
+
+    /**
+     * Closes the log and moves its content out of the way, so the next entry of the player starts a new file.
+     */
+    abstract void rotate();
+}
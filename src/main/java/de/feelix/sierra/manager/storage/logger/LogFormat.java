@@ -0,0 +1,27 @@
+package de.feelix.sierra.manager.storage.logger;
+
+/**
+ * The on-disk format of the player logs.
+ */
+public enum LogFormat {
+
+    /**
+     * One human-readable line per entry, rotated into gzip archives.
+     */
+    TEXT,
+
+    /**
+     * Compact binary records in append-only, indexed segments, searchable with /sierra logs.
+     */
+    BINARY;
+
+    /**
+     * Parses a configured format, falling back to {@link #TEXT} for unknown values.
+     *
+     * @param name the configured name
+     * @return the matching format
+     */
+    public static LogFormat parse(String name) {
+        return "binary".equalsIgnoreCase(name) ? BINARY : TEXT;
+    }
+}
@@ -0,0 +1,376 @@
+package de.feelix.sierra.manager.storage.logger;
+
+import de.feelix.sierra.Sierra;
+import de.feelix.sierra.manager.config.SierraSettings;
+import de.feelix.sierra.utilities.MpscRingBuffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The LogService class writes the log files of every player from a single background thread.
+ * <p>
+ * Netty threads only hand their entries to a lock-free ring buffer. The writer thread drains it in batches, keeps
+ * the file of every recently active player open and flushes all of them together once enough data is pending or the
+ * flush interval passed, so a burst of logged packets costs a few syscalls instead of one per line. Log directories
+ * and files are only created when a player actually logs something.
+ * <p>
+ * Logs are written as text or, if configured, in the indexed {@link BinaryLogFile binary format}. Once a log file
+ * grows beyond the configured size it is rotated: text logs into a gzip archive next to them, binary logs into a new
+ * segment. Whenever the logs directory exceeds the configured disk budget, the oldest archives, segments and exports
+ * are deleted.
+ */
+public class LogService {
+
+    public static final File   LOG_DIRECTORY = new File("plugins/Sierra/logs/");
+    public static final String EXPORT_PREFIX = "export-";
+    public static final String EXPORT_SUFFIX = ".txt";
+
+    private static final int  BATCH_SIZE       = 1024;
+    private static final int  FLUSH_BYTES      = 64 * 1024;
+    private static final int  MAX_OPEN_FILES   = 128;
+    private static final long FLUSH_INTERVAL   = TimeUnit.MILLISECONDS.toNanos(250);
+    private static final long IDLE_PARK        = TimeUnit.MILLISECONDS.toNanos(20);
+    private static final long IDLE_CLOSE_AFTER = TimeUnit.SECONDS.toNanos(60);
+    private static final long MEGABYTE         = 1024L * 1024L;
+
+    private final MpscRingBuffer<Entry> buffer;
+    private final Thread                writer;
+
+    private final LongAdder written       = new LongAdder();
+    private final LongAdder dropped       = new LongAdder();
+    private final LongAdder delayedCloses = new LongAdder();
+
+    // Players whose close request did not fit into the buffer, closed on the next idle pass of the writer
+    private final Set<String> pendingCloses = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean running = true;
+
+    // Time of the last written line, to tell how far the writer lags behind
+    private volatile long lastWrittenTime;
+
+    // Writer thread state
+    private final Map<String, LogFile> openLogs     = new HashMap<>();
+    private final SimpleDateFormat     format       = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    private       long                 cachedSecond = Long.MIN_VALUE;
+    private       String               cachedTimestamp;
+    private       int                  pendingBytes;
+
+    /**
+     * Creates a new log service and starts its writer thread.
+     *
+     * @param capacity the maximum amount of entries waiting for the writer
+     */
+    public LogService(int capacity) {
+        this.buffer = new MpscRingBuffer<>(capacity);
+        this.writer = new Thread(this::run, "Sierra Log Writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues a line for the log of the given player. Never blocks, lines are dropped if the writer falls behind.
+     *
+     * @param playerName the name of the player
+     * @param tag        the tag of the line
+     * @param message    the message of the line
+     */
+    public void log(String playerName, LogTag tag, String message) {
+        if (!running || !buffer.offer(new Entry(playerName, tag, System.currentTimeMillis(), message))) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Closes the log file of the given player once every queued line of the player is written. If the buffer is
+     * full, the file is closed once the writer caught up instead.
+     *
+     * @param playerName the name of the player
+     */
+    public void close(String playerName) {
+        if (running && !buffer.offer(new Entry(playerName, null, 0L, null))) {
+            pendingCloses.add(playerName);
+            delayedCloses.increment();
+        }
+    }
+
+    /**
+     * Stops the writer thread after it wrote every queued line.
+     */
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long written() {
+        return written.sum();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    public long delayedCloses() {
+        return delayedCloses.sum();
+    }
+
+    public int pending() {
+        return buffer.size();
+    }
+
+    /**
+     * Returns how far the writer lags behind, the age of the last written line while lines are still pending.
+     *
+     * @return the lag in milliseconds, or 0 if nothing is pending
+     */
+    public long lag() {
+        if (buffer.size() == 0 || lastWrittenTime == 0) return 0;
+        return Math.max(0, System.currentTimeMillis() - lastWrittenTime);
+    }
+
+    private void run() {
+        enforceDiskBudget();
+        long lastFlush     = System.nanoTime();
+        long lastIdleCheck = lastFlush;
+
+        while (true) {
+            boolean stopping = !running;
+            int     drained  = 0;
+            Entry   entry;
+            while (drained < BATCH_SIZE && (entry = buffer.poll()) != null) {
+                handle(entry);
+                drained++;
+            }
+
+            long now = System.nanoTime();
+            if (pendingBytes >= FLUSH_BYTES || (pendingBytes > 0 && now - lastFlush >= FLUSH_INTERVAL)) {
+                flushAll();
+                lastFlush = now;
+            }
+            if (now - lastIdleCheck >= FLUSH_INTERVAL) {
+                closeIdle(now);
+                lastIdleCheck = now;
+            }
+
+            if (drained == 0) {
+                // The buffer is empty, so every line queued before a delayed close request is written by now
+                closePending();
+                if (stopping) break;
+                LockSupport.parkNanos(IDLE_PARK);
+            }
+        }
+
+        for (LogFile log : openLogs.values()) {
+            log.close();
+        }
+        openLogs.clear();
+    }
+
+    private void handle(Entry entry) {
+        if (entry.message == null) {
+            LogFile log = openLogs.remove(entry.playerName);
+            if (log != null) log.close();
+            return;
+        }
+
+        LogFile log = open(entry.playerName);
+        if (log == null) return;
+
+        try {
+            pendingBytes += log.append(entry.time, entry.tag, entry.message);
+            log.lastUsed = System.nanoTime();
+            written.increment();
+            lastWrittenTime = entry.time;
+        } catch (IOException e) {
+            Sierra.getPlugin().getLogger().warning("Unable to write log: " + e.getMessage());
+            openLogs.remove(entry.playerName);
+            log.close();
+            return;
+        }
+
+        if (log.size >= settings().getLogMaxFileSize() * MEGABYTE) {
+            openLogs.remove(entry.playerName);
+            log.rotate();
+            enforceDiskBudget();
+        }
+    }
+
+    /**
+     * Returns the log directory of a player, or null if the name would resolve to a path outside of
+     * {@link #LOG_DIRECTORY}, for example because it contains a path separator or is "..".
+     *
+     * @param playerName the name of the player
+     * @return the directory, which may not exist
+     */
+    static File playerDirectory(String playerName) {
+        File directory = new File(LOG_DIRECTORY, playerName);
+        try {
+            File parent = directory.getCanonicalFile().getParentFile();
+            return LOG_DIRECTORY.getCanonicalFile().equals(parent) ? directory : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private LogFile open(String playerName) {
+        LogFile log = openLogs.get(playerName);
+        if (log != null) return log;
+
+        if (openLogs.size() >= MAX_OPEN_FILES) {
+            closeLeastRecentlyUsed();
+        }
+
+        File directory = playerDirectory(playerName);
+        if (directory == null) {
+            Sierra.getPlugin().getLogger().warning("Refusing to log for invalid player name: " + playerName);
+            return null;
+        }
+        if (!directory.exists() && !directory.mkdirs()) {
+            Sierra.getPlugin().getLogger().warning("Failed to create log directory: " + directory);
+            return null;
+        }
+
+        try {
+            log = settings().getLogFormat() == LogFormat.BINARY
+                ? new BinaryLogFile(directory, playerName, settings().getLogMaxFileSize() * MEGABYTE)
+                : new TextLogFile(directory, this::timestamp);
+        } catch (IOException e) {
+            Sierra.getPlugin().getLogger().warning("Unable to open log: " + e.getMessage());
+            return null;
+        }
+        openLogs.put(playerName, log);
+        return log;
+    }
+
+    /**
+     * Deletes the oldest archives until the logs directory fits into the disk budget.
+     */
+    private void enforceDiskBudget() {
+        long budget = settings().getLogDiskBudget() * MEGABYTE;
+        if (budget <= 0) return;
+
+        File[] directories = LOG_DIRECTORY.listFiles(File::isDirectory);
+        if (directories == null) return;
+
+        long       total    = 0;
+        List<File> archives = new ArrayList<>();
+        for (File directory : directories) {
+            File[] files = directory.listFiles(File::isFile);
+            if (files == null) continue;
+            for (File file : files) {
+                total += file.length();
+                if (isArchive(file)) archives.add(file);
+            }
+        }
+        if (total <= budget) return;
+
+        archives.sort(Comparator.comparingLong(File::lastModified));
+        for (File archive : archives) {
+            if (total <= budget) break;
+            long length = archive.length();
+            if (archive.delete()) total -= length;
+
+            File index = BinaryLogFile.indexOf(archive);
+            if (archive.getName().endsWith(BinaryLogFile.SEGMENT_SUFFIX) && index.exists()) {
+                length = index.length();
+                if (index.delete()) total -= length;
+            }
+        }
+    }
+
+    /**
+     * Returns whether a file is a finished log that may be deleted to stay within the disk budget: a gzip archive
+     * of a text log, an export, or a binary segment that was closed and indexed.
+     */
+    private boolean isArchive(File file) {
+        String name = file.getName();
+        if (name.endsWith(TextLogFile.ARCHIVE_SUFFIX)) return true;
+        if (name.startsWith(EXPORT_PREFIX) && name.endsWith(EXPORT_SUFFIX)) return true;
+        return name.endsWith(BinaryLogFile.SEGMENT_SUFFIX) && BinaryLogFile.indexOf(file).exists();
+    }
+
+    private void flushAll() {
+        for (LogFile log : openLogs.values()) {
+            log.flush();
+        }
+        pendingBytes = 0;
+    }
+
+    private void closePending() {
+        if (pendingCloses.isEmpty()) return;
+
+        Iterator<String> iterator = pendingCloses.iterator();
+        while (iterator.hasNext()) {
+            LogFile log = openLogs.remove(iterator.next());
+            iterator.remove();
+            if (log != null) log.close();
+        }
+    }
+
+    private void closeIdle(long now) {
+        Iterator<LogFile> iterator = openLogs.values().iterator();
+        while (iterator.hasNext()) {
+            LogFile log = iterator.next();
+            if (now - log.lastUsed >= IDLE_CLOSE_AFTER) {
+                log.close();
+                iterator.remove();
+            }
+        }
+    }
+
+    private void closeLeastRecentlyUsed() {
+        Map.Entry<String, LogFile> oldest = null;
+        for (Map.Entry<String, LogFile> entry : openLogs.entrySet()) {
+            if (oldest == null || entry.getValue().lastUsed < oldest.getValue().lastUsed) oldest = entry;
+        }
+        if (oldest != null) {
+            oldest.getValue().close();
+            openLogs.remove(oldest.getKey());
+        }
+    }
+
+    /**
+     * Returns the formatted timestamp of the given time, formatting at most once per second.
+     */
+    private String timestamp(long time) {
+        long second = time / 1000L;
+        if (second != cachedSecond) {
+            cachedSecond = second;
+            cachedTimestamp = format.format(new Date(time));
+        }
+        return cachedTimestamp;
+    }
+
+    private SierraSettings settings() {
+        return Sierra.getPlugin().getSierraConfigEngine().settings();
+    }
+
+    /**
+     * A queued log line, or a close request if the message is null.
+     */
+    private static final class Entry {
+
+        private final String playerName;
+        private final LogTag tag;
+        private final long   time;
+        private final String message;
+
+        private Entry(String playerName, LogTag tag, long time, String message) {
+            this.playerName = playerName;
+            this.tag = tag;
+            this.time = time;
+            this.message = message;
+        }
+    }
+}
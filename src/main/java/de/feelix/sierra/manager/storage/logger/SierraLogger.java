@@ -1,72 +1,38 @@
 package de.feelix.sierra.manager.storage.logger;
 
 import de.feelix.sierra.Sierra;
-import de.feelix.sierraapi.exceptions.SierraException;
 import lombok.Data;
 
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-
+/**
+ * The SierraLogger class is the log handle of a single player. Lines are handed to the {@link LogService}, which
+ * writes them to plugins/Sierra/logs/&lt;player&gt;/logs.sierra on its own thread.
+ */
 @Data
 public class SierraLogger {
 
-    private BufferedWriter writer;
-    private String playerName;
+    private final String playerName;
 
     public SierraLogger(String playerName) {
         this.playerName = playerName;
-
-        File sierraLogs = new File("plugins/Sierra/logs/");
-
-        if (!sierraLogs.exists()) {
-            if (!sierraLogs.mkdirs()) {
-                throw new SierraException("Failed to create directory " + sierraLogs.getAbsolutePath());
-            }
-        }
-
-        File pluginDir = new File("plugins/Sierra/logs/" + playerName);
-        if (!pluginDir.exists()) {
-            if (!pluginDir.mkdirs()) {
-                throw new RuntimeException("Failed to create plugin directory: " + pluginDir);
-            }
-        }
-        try {
-            writer = new BufferedWriter(new FileWriter(new File(pluginDir, "logs.sierra"), true));
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
     }
 
-    public synchronized void log(LogTag tag, String message) {
+    public void log(LogTag tag, String message) {
 
         // Don't log empty ItemStack NBT Tags
         if (message.equalsIgnoreCase("{}")) {
             return;
         }
 
-        String timestamp = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date());
-        String logMessage = String.format("[%s] %s: %s", timestamp, tag.name(), message);
-
-        try {
-            writer.write(logMessage);
-            writer.newLine();
-            writer.flush();
-        } catch (IOException e) {
-            Sierra.getPlugin().getLogger().warning("Unable to write log: " + e.getMessage());
+        LogService logService = Sierra.getPlugin().getLogService();
+        if (logService != null) {
+            logService.log(playerName, tag, message);
         }
     }
 
     public void close() {
-        try {
-            if (writer != null) {
-                writer.close();
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+        LogService logService = Sierra.getPlugin().getLogService();
+        if (logService != null) {
+            logService.close(playerName);
         }
     }
 }
@@ -0,0 +1,105 @@
+package de.feelix.sierra.manager.storage.logger;
+
+import de.feelix.sierra.Sierra;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.function.LongFunction;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A player log in the text format: one "[timestamp] TAG: message" line per entry in logs.sierra. Rotated logs are
+ * compressed into gzip archives next to it.
+ */
+final class TextLogFile extends LogFile {
+
+    static final String ACTIVE_FILE    = "logs.sierra";
+    static final String ARCHIVE_SUFFIX = ".sierra.gz";
+
+    private final File                 file;
+    private final Writer               writer;
+    private final LongFunction<String> timestamps;
+    private final StringBuilder        line = new StringBuilder(256);
+
+    TextLogFile(File directory, LongFunction<String> timestamps) throws IOException {
+        super(directory);
+        this.file = new File(directory, ACTIVE_FILE);
+        this.size = file.length();
+        this.timestamps = timestamps;
+        this.writer = new BufferedWriter(
+            new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8), 16 * 1024);
+    }
+
+    /**
+     * Formats an entry the way it is written to a text log.
+     *
+     * @param builder   the builder to append to
+     * @param timestamp the formatted time of the entry
+     * @param tag       the tag of the entry
+     * @param message   the message of the entry
+     * @return the given builder
+     */
+    static StringBuilder formatLine(StringBuilder builder, String timestamp, LogTag tag, String message) {
+        return builder.append('[').append(timestamp).append("] ")
+            .append(tag.name()).append(": ")
+            .append(message)
+            .append(System.lineSeparator());
+    }
+
+    @Override
+    int append(long time, LogTag tag, String message) throws IOException {
+        line.setLength(0);
+        formatLine(line, timestamps.apply(time), tag, message);
+        writer.append(line);
+        size += line.length();
+        return line.length();
+    }
+
+    @Override
+    void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            Sierra.getPlugin().getLogger().warning("Unable to flush log " + file + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            Sierra.getPlugin().getLogger().warning("Unable to close log " + file + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    void rotate() {
+        close();
+
+        String stamp   = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        File   archive = new File(directory, "logs-" + stamp + ARCHIVE_SUFFIX);
+        for (int i = 1; archive.exists(); i++) {
+            archive = new File(directory, "logs-" + stamp + "-" + i + ARCHIVE_SUFFIX);
+        }
+
+        try (InputStream in = Files.newInputStream(file.toPath());
+             OutputStream out = new GZIPOutputStream(new FileOutputStream(archive))) {
+            byte[] chunk = new byte[8192];
+            int    read;
+            while ((read = in.read(chunk)) != -1) {
+                out.write(chunk, 0, read);
+            }
+        } catch (IOException e) {
+            Sierra.getPlugin().getLogger().warning("Unable to archive log " + file + ": " + e.getMessage());
+            return;
+        }
+
+        if (!file.delete()) {
+            Sierra.getPlugin().getLogger().warning("Unable to delete rotated log " + file);
+        }
+    }
+}
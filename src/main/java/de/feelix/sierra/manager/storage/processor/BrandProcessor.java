@@ -5,7 +5,6 @@ import com.github.retrooper.packetevents.protocol.packettype.PacketType;
 import com.github.retrooper.packetevents.wrapper.play.client.WrapperPlayClientPluginMessage;
 import de.feelix.sierra.Sierra;
 import de.feelix.sierra.manager.storage.PlayerData;
-import de.feelix.sierra.utilities.CastUtil;
 import de.feelix.sierraapi.events.impl.UserBrandEvent;
 import lombok.Getter;
 
@@ -21,10 +20,8 @@ public class BrandProcessor {
 
     public void process(PacketReceiveEvent event) {
         if (event.getPacketType() == PacketType.Play.Client.PLUGIN_MESSAGE) {
-            WrapperPlayClientPluginMessage wrapper = CastUtil.getSupplier(
-                () -> new WrapperPlayClientPluginMessage(event),
-                playerData::exceptionDisconnect
-            );
+            WrapperPlayClientPluginMessage wrapper = playerData.getPacketContext().decode(
+                event, WrapperPlayClientPluginMessage.class, WrapperPlayClientPluginMessage::new);
             handleChannelMessage(wrapper.getChannelName(), wrapper.getData());
         }
     }
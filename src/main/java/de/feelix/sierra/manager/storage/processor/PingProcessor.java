@@ -34,10 +34,8 @@ public class PingProcessor {
 
     public void handlePacketReceive(PacketReceiveEvent event) {
         if (event.getPacketType() == PacketType.Play.Client.KEEP_ALIVE) {
-            WrapperPlayClientKeepAlive wrapper = CastUtil.getSupplier(
-                () -> new WrapperPlayClientKeepAlive(event),
-                playerData::exceptionDisconnect
-            );
+            WrapperPlayClientKeepAlive wrapper = playerData.getPacketContext().decode(
+                event, WrapperPlayClientKeepAlive.class, WrapperPlayClientKeepAlive::new);
             if (wrapper.getId() == this.lastId) {
                 this.ping = System.currentTimeMillis() - this.lastTime;
             }
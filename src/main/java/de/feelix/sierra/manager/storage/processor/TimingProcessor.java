@@ -1,7 +1,10 @@
 package de.feelix.sierra.manager.storage.processor;
 
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+import de.feelix.sierra.Sierra;
 import de.feelix.sierra.manager.storage.PlayerData;
 import de.feelix.sierra.manager.storage.timings.SierraTiming;
+import de.feelix.sierraapi.check.CheckType;
 import de.feelix.sierraapi.timing.Timing;
 import de.feelix.sierraapi.timing.TimingHandler;
 import lombok.Getter;
@@ -59,6 +62,11 @@ public class TimingProcessor implements TimingHandler {
      */
     private final Timing movementProcessor = new SierraTiming();
 
+    /**
+     * Counts the outgoing packets since the last sampled one. Only used on the event loop of the player.
+     */
+    private int outgoingSinceSample;
+
     /**
      * Constructs a TimingProcessor object with the given PlayerData.
      *
@@ -116,4 +124,32 @@ public class TimingProcessor implements TimingHandler {
     public Timing getFrequencyTask() {
         return frequencyTiming;
     }
+
+    /**
+     * Retrieves the Timing object measuring a check while it handles a packet type. Check timings are shared by all
+     * players.
+     *
+     * @param checkType  the type of the check
+     * @param packetType the type of the handled packet
+     * @return the Timing object for measuring the check on the packet type
+     *
+     * @see TimingHandler#getCheckTiming(CheckType, PacketTypeCommon)
+     */
+    @Override
+    public Timing getCheckTiming(CheckType checkType, PacketTypeCommon packetType) {
+        return Sierra.getPlugin().getCheckTimings().timing(checkType, packetType);
+    }
+
+    /**
+     * Decides whether the current outgoing packet is timed. Outgoing packets are far more frequent than incoming
+     * ones, so only one in every {@code timings-outgoing-sample-rate} packets is measured.
+     *
+     * @return true if the current outgoing packet should be timed
+     */
+    public boolean sampleOutgoing() {
+        int rate = Sierra.getPlugin().getSierraConfigEngine().settings().getTimingsOutgoingSampleRate();
+        if (++outgoingSinceSample < rate) return false;
+        outgoingSinceSample = 0;
+        return true;
+    }
 }
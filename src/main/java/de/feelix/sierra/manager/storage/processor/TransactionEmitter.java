@@ -0,0 +1,55 @@
+package de.feelix.sierra.manager.storage.processor;
+
+import de.feelix.sierra.manager.storage.PlayerData;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoop;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The TransactionEmitter class sends the transaction of every player once per tick.
+ * <p>
+ * Instead of one event loop task per player, the players are grouped by the event loop of their channel and every
+ * loop receives a single task. That task writes the transactions of all of its players first and flushes their
+ * channels afterward, so the packets leave in one batch per loop and tick.
+ */
+public class TransactionEmitter {
+
+    /**
+     * Sends a transaction to every player that is bound and should receive one.
+     *
+     * @param players the players to send transactions to
+     */
+    public void emit(Iterable<PlayerData> players) {
+        Map<EventLoop, List<TransactionProcessor>> groups = new IdentityHashMap<>();
+
+        for (PlayerData playerData : players) {
+            if (playerData.getBukkitPlayer() == null) continue;
+
+            TransactionProcessor processor = playerData.getTransactionProcessor();
+            if (!processor.shouldSendTransaction()) continue;
+
+            Object channel = playerData.getUser().getChannel();
+            if (!(channel instanceof Channel) || !((Channel) channel).isActive()) continue;
+
+            groups.computeIfAbsent(((Channel) channel).eventLoop(), eventLoop -> new ArrayList<>()).add(processor);
+        }
+
+        for (Map.Entry<EventLoop, List<TransactionProcessor>> entry : groups.entrySet()) {
+            List<TransactionProcessor> processors = entry.getValue();
+            entry.getKey().execute(() -> write(processors));
+        }
+    }
+
+    private void write(List<TransactionProcessor> processors) {
+        for (TransactionProcessor processor : processors) {
+            processor.writeTransaction();
+        }
+        for (TransactionProcessor processor : processors) {
+            ((Channel) processor.getPlayer().getUser().getChannel()).flush();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package de.feelix.sierra.manager.storage.processor;
+
+import java.util.Locale;
+
+/**
+ * The TransactionOverflowPolicy enum decides what happens when a player has as many outstanding transactions as the
+ * {@link TransactionTracker} holds.
+ */
+public enum TransactionOverflowPolicy {
+
+    /**
+     * No new transactions are sent until the client answers.
+     */
+    SKIP,
+
+    /**
+     * The oldest outstanding transaction is treated as skipped to make room for the new one.
+     */
+    EVICT_OLDEST,
+
+    /**
+     * The player is kicked.
+     */
+    KICK;
+
+    /**
+     * Parses a policy, ignoring the case.
+     *
+     * @param input the name of the policy
+     * @return the policy, or SKIP if the input is unknown
+     */
+    public static TransactionOverflowPolicy parse(String input) {
+        try {
+            return valueOf(input.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return SKIP;
+        }
+    }
+}
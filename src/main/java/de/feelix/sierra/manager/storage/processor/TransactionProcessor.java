@@ -18,9 +18,10 @@ import de.feelix.sierra.manager.storage.PlayerData;
 import de.feelix.sierra.manager.storage.logger.LogTag;
 import de.feelix.sierra.utilities.CastUtil;
 import de.feelix.sierra.utilities.Pair;
+import de.feelix.sierraapi.violation.MitigationStrategy;
 import lombok.Getter;
 
-import java.util.*;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -29,12 +30,18 @@ public class TransactionProcessor {
 
     private final PlayerData player;
 
-    public final Queue<Pair<Short, Long>> transactionsSent = new ConcurrentLinkedQueue<>();
     public final Queue<Pair<Long, Long>> keepAlivesSent = new ConcurrentLinkedQueue<>();
-    private final LinkedList<Pair<Integer, Runnable>> transactionMap = new LinkedList<>();
-    public final List<Short> didWeSendThatTrans = Collections.synchronizedList(new ArrayList<>());
 
-    private final AtomicInteger transactionIDCounter = new AtomicInteger(0);
+    /**
+     * The tasks waiting for a transaction, drained on the event loop of the player.
+     */
+    private final TransactionTaskQueue transactionTasks = new TransactionTaskQueue();
+
+    /**
+     * The outstanding transactions, only mutated on the event loop of the player.
+     */
+    private final TransactionTracker tracker;
+
     public AtomicInteger lastTransactionSent = new AtomicInteger(0);
     public AtomicInteger lastTransactionReceived = new AtomicInteger(0);
 
@@ -45,6 +52,8 @@ public class TransactionProcessor {
 
     public TransactionProcessor(PlayerData playerData) {
         this.player = playerData;
+        this.tracker = new TransactionTracker(
+            Sierra.getPlugin().getSierraConfigEngine().settings().getTransactionCapacity());
     }
 
     // Players can get 0 ping by repeatedly sending invalid transaction packets, but that will only hurt them
@@ -52,60 +61,48 @@ public class TransactionProcessor {
     // But if some error made a client miss a packet, then it won't hurt them too bad.
     // Also it forces players to take knockback
     public boolean addTransactionResponse(short id) {
-        Pair<Short, Long> data = null;
-        boolean hasID = false;
-        int skipped = 0;
-        for (Pair<Short, Long> iterator : transactionsSent) {
-            if (iterator.getFirst() == id) {
-                hasID = true;
-                break;
-            }
-            skipped++;
-        }
-
-        if (hasID) {
-
-            if (skipped > 0 && System.currentTimeMillis() - player.getJoinTime() > 5000) {
-                player.getSierraLogger().log(LogTag.SKIP, "Skipped transaction: " + id + " (" + skipped + ")");
-            }
-
-            do {
-                data = transactionsSent.poll();
-                if (data == null) break;
-
-                lastTransactionReceived.incrementAndGet();
-                lastTransReceived = System.currentTimeMillis();
-                this.player.setPlayerClock(System.nanoTime());
-                transactionPing = (System.nanoTime() - data.getSecond());
-                playerClockAtLeast = data.getSecond();
-            } while (data.getFirst() != id);
+        if (!tracker.acknowledge(id)) return false;
 
-            handleNettySyncTransaction(lastTransactionReceived.get());
+        int skipped = tracker.skippedCount();
+        if (skipped > 0 && System.currentTimeMillis() - player.getJoinTime() > 5000) {
+            player.getSierraLogger().log(LogTag.SKIP, "Skipped transaction: " + id + " (" + skipped + ")");
         }
 
-        // Were we the ones who sent the packet?
-        return data != null && data.getFirst() == id;
-    }
+        long now = System.nanoTime();
+        lastTransactionReceived.addAndGet(tracker.acknowledgedCount());
+        lastTransReceived = System.currentTimeMillis();
+        this.player.setPlayerClock(now);
+        transactionPing = now - tracker.acknowledgedSentAt();
+        playerClockAtLeast = tracker.acknowledgedSentAt();
 
-    public void sendTransaction() {
-        sendTransaction(false);
+        handleNettySyncTransaction(lastTransactionReceived.get());
+        return true;
     }
 
-    public void sendTransaction(boolean async) {
+    /**
+     * Checks whether a transaction should be sent to the player right now.
+     *
+     * @return true if the player is in the PLAY phase and answered a transaction recently
+     */
+    boolean shouldSendTransaction() {
 
         // don't send transactions outside PLAY phase
         // Sending in non-play corrupts the pipeline, don't waste bandwidth when anticheat disabled
-        if (player.getUser().getEncoderState() != ConnectionState.PLAY) return;
+        if (player.getUser().getEncoderState() != ConnectionState.PLAY) return false;
 
         // Send a packet once every 15 seconds to avoid any memory leaks
-        if ((System.nanoTime() - getPlayerClockAtLeast()) > 15e9) {
-            return;
-        }
+        return (System.nanoTime() - getPlayerClockAtLeast()) <= 15e9;
+    }
+
+    /**
+     * Registers and writes a transaction without flushing it. Must be called on the event loop of the player.
+     */
+    void writeTransaction() {
+        short transactionID = registerTransaction();
+        if (transactionID == TransactionTracker.NONE) return;
 
         lastTransSent = System.currentTimeMillis();
-        short transactionID = (short) (-1 * (transactionIDCounter.getAndIncrement() & 0x7FFF));
         try {
-
             PacketWrapper<?> packet;
             if (PacketEvents.getAPI().getServerManager().getVersion().isNewerThanOrEquals(ServerVersion.V_1_17)) {
                 packet = CastUtil.getSupplier(
@@ -116,21 +113,39 @@ public class TransactionProcessor {
                     player::exceptionDisconnect
                 );
             }
-
-            if (async) {
-                ChannelHelper.runInEventLoop(player.getUser().getChannel(), () -> {
-                    addTransactionSend(transactionID);
-                    player.getUser().writePacket(packet);
-                });
-            } else {
-                addTransactionSend(transactionID);
-                player.getUser().writePacket(packet);
-            }
+            player.getUser().writePacket(packet);
         } catch (Exception exception) {
             player.getSierraLogger().log(LogTag.TRANS_EXCEP, "Error: " + exception.getMessage());
         }
     }
 
+    /**
+     * Registers a new transaction, applying the configured overflow policy if the tracker is full.
+     *
+     * @return the id of the transaction, or {@link TransactionTracker#NONE} if none should be sent
+     */
+    private short registerTransaction() {
+        short id = tracker.register();
+        if (id != TransactionTracker.NONE) return id;
+
+        switch (Sierra.getPlugin().getSierraConfigEngine().settings().getTransactionOverflowPolicy()) {
+            case EVICT_OLDEST:
+                if (tracker.evictOldest()) {
+                    handleNettySyncTransaction(lastTransactionReceived.incrementAndGet());
+                }
+                return tracker.register();
+            case KICK:
+                if (!player.isReceivedPunishment()) {
+                    player.getSierraLogger().log(
+                        LogTag.SKIP, "Too many outstanding transactions (" + tracker.outstanding() + ")");
+                    player.punish(MitigationStrategy.KICK);
+                }
+                return TransactionTracker.NONE;
+            default:
+                return TransactionTracker.NONE;
+        }
+    }
+
     public void handleTransactionClient(PacketReceiveEvent event) {
         PacketTypeCommon packetType = event.getPacketType();
         if (packetType == PacketType.Play.Client.WINDOW_CONFIRMATION) {
@@ -141,8 +156,8 @@ public class TransactionProcessor {
     }
 
     private void handleWindowConfirmation(PacketReceiveEvent event) {
-        WrapperPlayClientWindowConfirmation wrapper = CastUtil.getSupplier(
-            () -> new WrapperPlayClientWindowConfirmation(event), player::exceptionDisconnect);
+        WrapperPlayClientWindowConfirmation wrapper = player.getPacketContext().decode(
+            event, WrapperPlayClientWindowConfirmation.class, WrapperPlayClientWindowConfirmation::new);
         short id = wrapper.getActionId();
         if (id <= 0 && addTransactionResponse(id)) {
             event.setCancelled(true);
@@ -150,8 +165,8 @@ public class TransactionProcessor {
     }
 
     private void handlePong(PacketReceiveEvent event) {
-        WrapperPlayClientPong wrapper = CastUtil.getSupplier(
-            () -> new WrapperPlayClientPong(event), player::exceptionDisconnect);
+        WrapperPlayClientPong wrapper = player.getPacketContext().decode(
+            event, WrapperPlayClientPong.class, WrapperPlayClientPong::new);
         int id = wrapper.getId();
         if (id == (short) id && addTransactionResponse((short) id)) {
             event.setCancelled(true);
@@ -172,14 +187,8 @@ public class TransactionProcessor {
 
         int id = wrapper.getId();
         // Check if in the short range, we only use short range
-        if (id == (short) id) {
-            // Cast ID twice so we can use the list
-            Short shortID = ((short) id);
-            if (didWeSendThatTrans.remove(shortID)) {
-                Pair<Short, Long> solarPair = new Pair<>(shortID, System.nanoTime());
-                transactionsSent.add(solarPair);
-                lastTransactionSent.getAndIncrement();
-            }
+        if (id == (short) id && tracker.markWritten((short) id, System.nanoTime())) {
+            lastTransactionSent.getAndIncrement();
         }
     }
 
@@ -190,12 +199,8 @@ public class TransactionProcessor {
         short id = wrapper.getActionId();
 
         // Vanilla always uses an ID starting from 1
-        if (id <= 0) {
-            if (didWeSendThatTrans.remove((Short) id)) {
-                Pair<Short, Long> solarPair = new Pair<>(id, System.nanoTime());
-                transactionsSent.add(solarPair);
-                lastTransactionSent.getAndIncrement();
-            }
+        if (id <= 0 && tracker.markWritten(id, System.nanoTime())) {
+            lastTransactionSent.getAndIncrement();
         }
     }
 
@@ -208,38 +213,24 @@ public class TransactionProcessor {
             }
             return;
         }
-        synchronized (this) {
-            transactionMap.add(new Pair<>(transaction, runnable));
-        }
+        transactionTasks.add(transaction, runnable);
     }
 
+    /**
+     * Runs every task waiting for at most the given transaction. Must be called on the event loop of the player.
+     *
+     * @param transaction the last answered transaction
+     */
     public void handleNettySyncTransaction(int transaction) {
-        synchronized (this) {
-            for (ListIterator<Pair<Integer, Runnable>> iterator = transactionMap.listIterator(); iterator.hasNext(); ) {
-                Pair<Integer, Runnable> pair = iterator.next();
-
-                // We are at most a tick ahead when running tasks based on transactions, meaning this is too far
-                if (transaction + 1 < pair.getFirst()) return;
-
-                // This is at most tick ahead of what we want
-                if (transaction == pair.getFirst() - 1) continue;
-
-
-                try {
-                    // Run the task
-                    pair.getSecond().run();
-                } catch (Exception e) {
-                    Sierra.getPlugin().getLogger().severe("An error has occurred when running "
-                                                          + "transactions for player: " + player.username());
-                    e.printStackTrace();
-                }
-                // We ran a task, remove it from the list
-                iterator.remove();
+        for (Runnable task; (task = transactionTasks.poll(transaction)) != null; ) {
+            try {
+                // Run the task
+                task.run();
+            } catch (Exception e) {
+                Sierra.getPlugin().getLogger().severe("An error has occurred when running "
+                                                      + "transactions for player: " + player.username());
+                e.printStackTrace();
             }
         }
     }
-
-    public void addTransactionSend(short id) {
-        didWeSendThatTrans.add(id);
-    }
 }
@@ -0,0 +1,124 @@
+package de.feelix.sierra.manager.storage.processor;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The TransactionTaskQueue class holds the tasks that wait for a player to answer a transaction.
+ * <p>
+ * Any thread may add a task: it is pushed onto a lock-free intake stack with a single compare-and-set. The event loop
+ * of the player is the only consumer. It moves the intake into a binary min-heap of primitive keys ordered by the
+ * transaction and then by the order the tasks were added, so polling the due tasks never walks tasks that are not due
+ * yet and needs no monitor.
+ */
+public final class TransactionTaskQueue {
+
+    private final AtomicReference<Node> intake = new AtomicReference<>();
+
+    // Heap owned by the consumer, the key is the transaction in the high and the insertion order in the low bits
+    private long[]     keys  = new long[16];
+    private Runnable[] tasks = new Runnable[16];
+    private int        size;
+    private int        order;
+
+    /**
+     * Adds a task that runs once the given transaction was answered. May be called from any thread.
+     *
+     * @param transaction the transaction to wait for
+     * @param task        the task to run
+     */
+    public void add(int transaction, Runnable task) {
+        Node node = new Node(transaction, task);
+        Node head;
+        do {
+            head = intake.get();
+            node.next = head;
+        } while (!intake.compareAndSet(head, node));
+    }
+
+    /**
+     * Removes the next task that is due once the given transaction was answered. Must only be called on the event
+     * loop of the player.
+     *
+     * @param transaction the last answered transaction
+     * @return the oldest task waiting for at most this transaction, or null if none is due
+     */
+    public Runnable poll(int transaction) {
+        if (intake.get() != null) transfer();
+        if (size == 0 || (int) (keys[0] >> 32) > transaction) return null;
+
+        Runnable task = tasks[0];
+        size--;
+        long     lastKey  = keys[size];
+        Runnable lastTask = tasks[size];
+        tasks[size] = null;
+        if (size > 0) siftDown(lastKey, lastTask);
+        return task;
+    }
+
+    /**
+     * Returns the amount of tasks the consumer already took from the intake.
+     *
+     * @return the amount of queued tasks
+     */
+    public int size() {
+        return size;
+    }
+
+    private void transfer() {
+        // The intake is a stack, reverse it to keep the order the tasks were added in
+        Node reversed = null;
+        for (Node node = intake.getAndSet(null); node != null; ) {
+            Node next = node.next;
+            node.next = reversed;
+            reversed = node;
+            node = next;
+        }
+        for (Node node = reversed; node != null; node = node.next) {
+            offer(((long) node.transaction << 32) | (order++ & 0xFFFFFFFFL), node.task);
+        }
+    }
+
+    private void offer(long key, Runnable task) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size << 1);
+            tasks = Arrays.copyOf(tasks, size << 1);
+        }
+        int index = size++;
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (keys[parent] <= key) break;
+            keys[index] = keys[parent];
+            tasks[index] = tasks[parent];
+            index = parent;
+        }
+        keys[index] = key;
+        tasks[index] = task;
+    }
+
+    private void siftDown(long key, Runnable task) {
+        int index = 0;
+        int half  = size >>> 1;
+        while (index < half) {
+            int child = (index << 1) + 1;
+            if (child + 1 < size && keys[child + 1] < keys[child]) child++;
+            if (key <= keys[child]) break;
+            keys[index] = keys[child];
+            tasks[index] = tasks[child];
+            index = child;
+        }
+        keys[index] = key;
+        tasks[index] = task;
+    }
+
+    private static final class Node {
+        private final int      transaction;
+        private final Runnable task;
+        private       Node     next;
+
+        private Node(int transaction, Runnable task) {
+            this.transaction = transaction;
+            this.task = task;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package de.feelix.sierra.manager.storage.processor;
+
+/**
+ * The TransactionTracker class keeps the outstanding transactions of a player in a fixed-capacity ring of primitive
+ * arrays.
+ * <p>
+ * Transactions are numbered by a sequence, and the id sent to the client is derived from it: the sequence modulo
+ * 32768, negated. Because the capacity is a power of two of at most 32768, the ring slot of a transaction follows
+ * directly from its id, so registering, marking as written, acknowledging and skipping are all constant time per
+ * transaction and allocate nothing.
+ * <p>
+ * A transaction is registered when it is created, marked as written once the packet passes the outgoing packet
+ * listener, and acknowledged when the client answers. Answering a transaction also acknowledges every older one,
+ * which counts as skipped.
+ * <p>
+ * The tracker is not thread-safe. It is only mutated on the event loop of the player; the metrics may be read from
+ * any thread.
+ */
+public final class TransactionTracker {
+
+    /**
+     * Returned by {@link #register()} if the ring is full. Transaction ids are never positive.
+     */
+    public static final short NONE = 1;
+
+    private static final int ID_MASK = 0x7FFF;
+
+    private final long[]    sentAt;
+    private final boolean[] written;
+    private final int       mask;
+
+    private volatile long head;
+    private volatile long tail;
+
+    private volatile int  maxOutstanding;
+    private volatile long skipped;
+    private volatile long overflows;
+
+    // Result of the last acknowledge
+    private long acknowledgedSentAt;
+    private int  acknowledgedCount;
+    private int  skippedCount;
+
+    /**
+     * Creates an empty tracker.
+     *
+     * @param capacity the maximum amount of outstanding transactions, rounded up to a power of two of at most 32768
+     */
+    public TransactionTracker(int capacity) {
+        int size = Math.min(ID_MASK + 1, Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1);
+        this.sentAt = new long[size];
+        this.written = new boolean[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Registers a new transaction.
+     *
+     * @return the id of the transaction, or {@link #NONE} if the ring is full
+     */
+    public short register() {
+        long sequence = tail;
+        if (sequence - head > mask) {
+            overflows++;
+            return NONE;
+        }
+        int slot = (int) (sequence & mask);
+        written[slot] = false;
+        sentAt[slot] = 0L;
+        tail = sequence + 1;
+
+        int outstanding = (int) (sequence + 1 - head);
+        if (outstanding > maxOutstanding) maxOutstanding = outstanding;
+        return idOf(sequence);
+    }
+
+    /**
+     * Forgets the oldest outstanding transaction to make room for a new one.
+     *
+     * @return true if the forgotten transaction was already written
+     */
+    public boolean evictOldest() {
+        long sequence = head;
+        if (sequence == tail) return false;
+        head = sequence + 1;
+        overflows++;
+        return written[(int) (sequence & mask)];
+    }
+
+    /**
+     * Marks a registered transaction as written to the client.
+     *
+     * @param id  the id of the transaction
+     * @param now the current {@link System#nanoTime()}
+     * @return true if the transaction was registered by this tracker and not written yet
+     */
+    public boolean markWritten(short id, long now) {
+        long sequence = sequenceOf(id);
+        if (sequence < 0) return false;
+
+        int slot = (int) (sequence & mask);
+        if (written[slot]) return false;
+        written[slot] = true;
+        sentAt[slot] = now;
+        return true;
+    }
+
+    /**
+     * Acknowledges a written transaction and every older one. The result is available through
+     * {@link #acknowledgedSentAt()}, {@link #acknowledgedCount()} and {@link #skippedCount()}.
+     *
+     * @param id the id answered by the client
+     * @return true if the transaction was written by this tracker and not acknowledged yet
+     */
+    public boolean acknowledge(short id) {
+        long sequence = sequenceOf(id);
+        if (sequence < 0 || !written[(int) (sequence & mask)]) return false;
+
+        int count = 0;
+        for (long current = head; current <= sequence; current++) {
+            if (written[(int) (current & mask)]) count++;
+        }
+
+        this.acknowledgedSentAt = sentAt[(int) (sequence & mask)];
+        this.acknowledgedCount = count;
+        this.skippedCount = (int) (sequence - head);
+        this.skipped += skippedCount;
+        this.head = sequence + 1;
+        return true;
+    }
+
+    /**
+     * Returns the time the last acknowledged transaction was written.
+     *
+     * @return the {@link System#nanoTime()} of the write
+     */
+    public long acknowledgedSentAt() {
+        return acknowledgedSentAt;
+    }
+
+    /**
+     * Returns the amount of written transactions the last acknowledge completed, including the answered one.
+     *
+     * @return the amount of completed transactions
+     */
+    public int acknowledgedCount() {
+        return acknowledgedCount;
+    }
+
+    /**
+     * Returns the amount of older transactions the last acknowledge skipped.
+     *
+     * @return the amount of skipped transactions
+     */
+    public int skippedCount() {
+        return skippedCount;
+    }
+
+    /**
+     * Returns the amount of transactions waiting for an answer.
+     *
+     * @return the outstanding transactions
+     */
+    public int outstanding() {
+        return (int) (tail - head);
+    }
+
+    /**
+     * Returns the highest amount of outstanding transactions so far.
+     *
+     * @return the maximum outstanding transactions
+     */
+    public int maxOutstanding() {
+        return maxOutstanding;
+    }
+
+    /**
+     * Returns the amount of transactions that were skipped by answering a newer one.
+     *
+     * @return the skipped transactions
+     */
+    public long skipped() {
+        return skipped;
+    }
+
+    /**
+     * Returns how often a transaction did not fit into the ring.
+     *
+     * @return the amount of overflows
+     */
+    public long overflows() {
+        return overflows;
+    }
+
+    /**
+     * Returns the maximum amount of outstanding transactions.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    private static short idOf(long sequence) {
+        return (short) -(sequence & ID_MASK);
+    }
+
+    /**
+     * Returns the outstanding sequence with the given id, or -1 if no outstanding transaction has it.
+     */
+    private long sequenceOf(short id) {
+        if (id > 0) return -1;
+
+        long first    = head;
+        long sequence = first + ((-id - first) & ID_MASK);
+        return sequence < tail ? sequence : -1;
+    }
+}
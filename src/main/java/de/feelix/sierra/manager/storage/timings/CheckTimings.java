@@ -0,0 +1,118 @@
+package de.feelix.sierra.manager.storage.timings;
+
+import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+import de.feelix.sierraapi.check.CheckType;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The CheckTimings class keeps one {@link SierraTiming} per check and packet type, shared by all players.
+ * <p>
+ * The timings live in a flat table indexed by the check type and the packet type ordinal and are created on the first
+ * recorded event, so pairs that never occur cost nothing. Packet types outside the play state share one slot per
+ * direction and checks without a check type share one row. Every netty event loop records into every timing, so the
+ * histograms are striped by thread and only merged when read.
+ */
+public class CheckTimings {
+
+    private static final int CLIENT_SLOTS = PacketType.Play.Client.values().length + 1;
+    private static final int SERVER_SLOTS = PacketType.Play.Server.values().length + 1;
+    private static final int SLOTS        = CLIENT_SLOTS + SERVER_SLOTS;
+    private static final int CHECK_ROWS   = CheckType.values().length + 1;
+    private static final int STRIPES      = Math.min(32, Runtime.getRuntime().availableProcessors());
+
+    private final AtomicReferenceArray<Entry> entries = new AtomicReferenceArray<>(CHECK_ROWS * SLOTS);
+
+    /**
+     * Records how long a check took to handle an incoming packet.
+     *
+     * @param checkType  the type of the check, or null if unknown
+     * @param packetType the type of the packet
+     * @param nanos      the duration in nanoseconds
+     */
+    public void recordIngoing(CheckType checkType, PacketTypeCommon packetType, long nanos) {
+        timing(checkType, packetType, clientSlot(packetType)).record(nanos);
+    }
+
+    /**
+     * Records how long a check took to handle an outgoing packet.
+     *
+     * @param checkType  the type of the check, or null if unknown
+     * @param packetType the type of the packet
+     * @param nanos      the duration in nanoseconds
+     */
+    public void recordOutgoing(CheckType checkType, PacketTypeCommon packetType, long nanos) {
+        timing(checkType, packetType, serverSlot(packetType)).record(nanos);
+    }
+
+    /**
+     * Returns the timing of a check on a packet type, creating it if nothing was recorded yet.
+     *
+     * @param checkType  the type of the check, or null if unknown
+     * @param packetType the type of the packet
+     * @return the timing
+     */
+    public SierraTiming timing(CheckType checkType, PacketTypeCommon packetType) {
+        return timing(
+            checkType, packetType,
+            packetType instanceof PacketType.Play.Server ? serverSlot(packetType) : clientSlot(packetType)
+        );
+    }
+
+    /**
+     * Returns every timing that recorded at least one event.
+     *
+     * @return the recorded timings
+     */
+    public List<Entry> recorded() {
+        List<Entry> recorded = new ArrayList<>();
+        for (int i = 0; i < entries.length(); i++) {
+            Entry entry = entries.get(i);
+            if (entry != null && entry.getTiming().count() > 0) recorded.add(entry);
+        }
+        return recorded;
+    }
+
+    private SierraTiming timing(CheckType checkType, PacketTypeCommon packetType, int slot) {
+        int   row   = checkType == null ? CHECK_ROWS - 1 : checkType.ordinal();
+        int   index = row * SLOTS + slot;
+        Entry entry = entries.get(index);
+        if (entry == null) {
+            entries.compareAndSet(index, null, new Entry(checkType, packetType, new SierraTiming(STRIPES)));
+            entry = entries.get(index);
+        }
+        return entry.getTiming();
+    }
+
+    private static int clientSlot(PacketTypeCommon packetType) {
+        return packetType instanceof PacketType.Play.Client
+            ? ((PacketType.Play.Client) packetType).ordinal()
+            : CLIENT_SLOTS - 1;
+    }
+
+    private static int serverSlot(PacketTypeCommon packetType) {
+        return CLIENT_SLOTS + (packetType instanceof PacketType.Play.Server
+            ? ((PacketType.Play.Server) packetType).ordinal()
+            : SERVER_SLOTS - 1);
+    }
+
+    /**
+     * The timing of a check on a packet type.
+     */
+    @Getter
+    public static class Entry {
+        private final CheckType        checkType;
+        private final PacketTypeCommon packetType;
+        private final SierraTiming     timing;
+
+        private Entry(CheckType checkType, PacketTypeCommon packetType, SierraTiming timing) {
+            this.checkType = checkType;
+            this.packetType = packetType;
+            this.timing = timing;
+        }
+    }
+}
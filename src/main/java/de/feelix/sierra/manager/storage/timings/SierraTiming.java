@@ -5,9 +5,17 @@ import de.feelix.sierraapi.timing.Timing;
 /**
  * The SierraTiming class is an implementation of the Timing interface.
  * It provides methods to measure and track the timing of an event.
+ * Every measured event is recorded in a {@link TimingHistogram}, so percentiles describe all events and not only the
+ * most recent one. {@link #prepare()} and {@link #end()} must be called by a single thread, {@link #record(long)} may
+ * be called by any thread.
  */
 public class SierraTiming implements Timing {
 
+    /**
+     * The histogram of all measured delays in nanoseconds.
+     */
+    private final TimingHistogram histogram;
+
     /**
      * The delay variable represents the delay in milliseconds between the start and end of a timed event.
      * The delay is calculated by subtracting the start time from the end time.
@@ -23,6 +31,22 @@ public class SierraTiming implements Timing {
      */
     private long startTime = -1;
 
+    /**
+     * Creates a timing measured by a single thread at a time.
+     */
+    public SierraTiming() {
+        this(1);
+    }
+
+    /**
+     * Creates a timing whose histogram is striped for recording from many threads.
+     *
+     * @param stripes the amount of histogram stripes
+     */
+    public SierraTiming(int stripes) {
+        this.histogram = new TimingHistogram(stripes);
+    }
+
     /**
      * Prepares the Timing object for measuring the timing of an event.
      * This method should be called before starting the event that needs to be timed.
@@ -36,12 +60,23 @@ public class SierraTiming implements Timing {
      * Marks the end of the timing measurement and calculates the duration of the event.
      * This method should be called after finishing the event that needs to be timed.
      * It subtracts the start time from the current time to calculate the delay in milliseconds.
-     *
-     * @throws IllegalStateException if called before calling the {@code prepare()} method
+     * Calling it without a preceding {@code prepare()} records nothing.
      */
     @Override
     public void end() {
-        this.delay = System.nanoTime() - startTime;
+        if (startTime == -1) return;
+        record(System.nanoTime() - startTime);
+        this.startTime = -1;
+    }
+
+    /**
+     * Records the delay of an event that was measured elsewhere.
+     *
+     * @param nanos the delay in nanoseconds
+     */
+    public void record(long nanos) {
+        this.delay = nanos;
+        histogram.record(nanos);
     }
 
     /**
@@ -56,4 +91,35 @@ public class SierraTiming implements Timing {
     public double delay() {
         return (this.delay / 1000000);
     }
+
+    /**
+     * Returns the amount of measured events.
+     *
+     * @return the amount of measured events
+     */
+    @Override
+    public long count() {
+        return histogram.count();
+    }
+
+    /**
+     * Returns the delay in milliseconds at the given quantile of all measured events.
+     *
+     * @param quantile the quantile between 0 and 1
+     * @return the delay in milliseconds
+     */
+    @Override
+    public double percentile(double quantile) {
+        return histogram.percentile(quantile) / 1000000.0;
+    }
+
+    /**
+     * Returns the longest delay in milliseconds of all measured events.
+     *
+     * @return the maximum delay in milliseconds
+     */
+    @Override
+    public double max() {
+        return histogram.max() / 1000000.0;
+    }
 }
@@ -0,0 +1,157 @@
+package de.feelix.sierra.manager.storage.timings;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The TimingHistogram class is a lock-free log-linear histogram of durations in nanoseconds.
+ * <p>
+ * Every power of two is split into eight linear buckets, so a recorded value lands in a bucket at most 12.5% wider
+ * than the value itself. Recording is a single atomic increment and, for a new maximum, a compare-and-set, so any
+ * thread may record without locking. Durations of 2^36 nanoseconds (about 68 seconds) and more share the last bucket.
+ * <p>
+ * A histogram recorded from many threads can be striped: every thread increments the buckets of its own stripe, which
+ * is created on its first record, and the stripes are only merged when the histogram is read. Netty event loops keep
+ * their thread, so each loop effectively records into a stripe of its own instead of contending on shared buckets.
+ */
+public class TimingHistogram {
+
+    private static final int SUB_BITS     = 3;
+    private static final int SUB_BUCKETS  = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 36;
+    // Linear buckets below 2^SUB_BITS, eight buckets per power of two and one bucket for everything longer
+    private static final int BUCKETS      = (MAX_EXPONENT - SUB_BITS + 1) * SUB_BUCKETS + 1;
+
+    private static final AtomicLongFieldUpdater<TimingHistogram> MAX =
+        AtomicLongFieldUpdater.newUpdater(TimingHistogram.class, "max");
+
+    private final AtomicReferenceArray<AtomicLongArray> stripes;
+    private final int                                   mask;
+
+    private volatile long max;
+
+    /**
+     * Creates a histogram recorded by a single thread at a time.
+     */
+    public TimingHistogram() {
+        this(1);
+    }
+
+    /**
+     * Creates a histogram with the given amount of stripes.
+     *
+     * @param stripes the amount of stripes, rounded up to a power of two
+     */
+    public TimingHistogram(int stripes) {
+        int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        stripe().incrementAndGet(bucketOf(nanos));
+
+        long current;
+        while (nanos > (current = max)) {
+            if (MAX.compareAndSet(this, current, nanos)) break;
+        }
+    }
+
+    /**
+     * Returns the amount of recorded durations.
+     *
+     * @return the count
+     */
+    public long count() {
+        long count = 0;
+        for (long bucket : merge()) {
+            count += bucket;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the longest recorded duration.
+     *
+     * @return the maximum in nanoseconds
+     */
+    public long max() {
+        return max;
+    }
+
+    /**
+     * Returns the duration at the given quantile, as the upper bound of its bucket.
+     *
+     * @param quantile the quantile between 0 and 1, for example 0.99
+     * @return the duration in nanoseconds, or 0 if nothing was recorded
+     */
+    public long percentile(double quantile) {
+        long[] counts = merge();
+        long   total  = 0;
+        for (long bucket : counts) {
+            total += bucket;
+        }
+        if (total == 0) return 0;
+
+        long rank       = Math.max(1, (long) Math.ceil(quantile * total));
+        long cumulative = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulative += counts[i];
+            if (cumulative >= rank) return Math.min(upperBound(i), max);
+        }
+        return max;
+    }
+
+    private AtomicLongArray stripe() {
+        int             index  = mask == 0 ? 0 : (int) mix(Thread.currentThread().getId()) & mask;
+        AtomicLongArray stripe = stripes.get(index);
+        if (stripe == null) {
+            stripes.compareAndSet(index, null, new AtomicLongArray(BUCKETS));
+            stripe = stripes.get(index);
+        }
+        return stripe;
+    }
+
+    private long[] merge() {
+        long[] counts = new long[BUCKETS];
+        for (int s = 0; s < stripes.length(); s++) {
+            AtomicLongArray stripe = stripes.get(s);
+            if (stripe == null) continue;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] += stripe.get(i);
+            }
+        }
+        return counts;
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        return value ^ (value >>> 33);
+    }
+
+    private static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) return (int) nanos;
+
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent >= MAX_EXPONENT) return BUCKETS - 1;
+
+        int sub = (int) (nanos >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        if (bucket == BUCKETS - 1) return Long.MAX_VALUE;
+
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        int sub      = bucket % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub) << (exponent - SUB_BITS)) + (1L << (exponent - SUB_BITS)) - 1;
+    }
+}
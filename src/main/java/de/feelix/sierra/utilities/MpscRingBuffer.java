@@ -0,0 +1,97 @@
+package de.feelix.sierra.utilities;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The MpscRingBuffer class is a bounded, lock-free queue for many producer threads and a single consumer thread.
+ * <p>
+ * Every slot carries a sequence number telling whether it is free for the producer of a given position or filled
+ * for the consumer. Producers claim a position with a single compare-and-set and never wait for each other, offering
+ * to a full buffer fails immediately instead of blocking.
+ *
+ * @param <T> the type of the elements
+ */
+public class MpscRingBuffer<T> {
+
+    private final AtomicReferenceArray<T> elements;
+    private final AtomicLongArray         sequences;
+    private final AtomicLong              tail = new AtomicLong();
+    private final int                     mask;
+
+    /**
+     * Only written by the consumer thread, read by any thread for {@link #size()}.
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * Creates a new ring buffer.
+     *
+     * @param capacity the minimum capacity, rounded up to the next power of two
+     */
+    public MpscRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element without blocking. May be called from any thread.
+     *
+     * @param element the element to add
+     * @return false if the buffer is full
+     */
+    public boolean offer(T element) {
+        while (true) {
+            long position = tail.get();
+            int  index    = (int) position & mask;
+            long sequence = sequences.get(index);
+
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+            } else if (sequence < position) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest element. Must only be called from the consumer thread.
+     *
+     * @return the oldest element, or null if the buffer is empty
+     */
+    public T poll() {
+        long position = head.get();
+        int  index    = (int) position & mask;
+        if (sequences.get(index) != position + 1) return null;
+
+        T element = elements.get(index);
+        elements.lazySet(index, null);
+        sequences.lazySet(index, position + mask + 1);
+        head.lazySet(position + 1);
+        return element;
+    }
+
+    /**
+     * Returns an estimate of the amount of buffered elements.
+     *
+     * @return the approximate size
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, mask + 1));
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,119 @@
+package de.feelix.sierra.utilities;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The RateLimit class is an immutable rate and burst compiled into the arithmetic of a token bucket.
+ * <p>
+ * A bucket under this limit is stored as a single long: the {@link System#nanoTime()} at which it is full again.
+ * Taking tokens pushes that time into the future by their refill time, and they are only granted if the bucket does
+ * not have to be emptied beyond its burst. {@link TokenBucket} and {@link RateLimiter} store their buckets this way.
+ */
+@Getter
+public final class RateLimit {
+
+    /**
+     * The amount of tokens refilled per second.
+     */
+    private final double rate;
+
+    /**
+     * The maximum amount of tokens a bucket holds.
+     */
+    private final long burst;
+
+    @Getter(AccessLevel.NONE)
+    private final long nanosPerToken;
+
+    @Getter(AccessLevel.NONE)
+    private final long burstNanos;
+
+    /**
+     * Creates a rate limit.
+     *
+     * @param rate  the amount of tokens refilled per second
+     * @param burst the maximum amount of tokens a bucket holds
+     */
+    public RateLimit(double rate, long burst) {
+        this.rate = Math.max(rate, 1e-9);
+        this.burst = Math.max(1, burst);
+        this.nanosPerToken = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / this.rate));
+        // Saturate, a huge burst of slow tokens must not wrap around into a bucket that never admits anything
+        this.burstNanos = this.burst > Long.MAX_VALUE / this.nanosPerToken
+            ? Long.MAX_VALUE
+            : this.burst * this.nanosPerToken;
+    }
+
+    /**
+     * Parses a limit in the form "Rate" or "Rate:Burst". Without a burst, the bucket holds one second of tokens.
+     *
+     * @param input the limit
+     * @return the parsed limit
+     * @throws NumberFormatException if the input is not a valid limit or its rate is not greater than 0
+     */
+    public static RateLimit parse(String input) {
+        return parse(input, 1);
+    }
+
+    /**
+     * Parses a limit in the form "Rate" or "Rate:Burst" whose rate is counted in a unit other than seconds. Without a
+     * burst, the bucket holds one second of tokens.
+     *
+     * @param input     the limit
+     * @param perSecond how many units of the rate fit into one second
+     * @return the parsed limit
+     * @throws NumberFormatException if the input is not a valid limit or its rate is not greater than 0
+     */
+    public static RateLimit parse(String input, int perSecond) {
+        String[] parts = input.split(":");
+        if (parts.length > 2) throw new NumberFormatException("Invalid rate limit: " + input);
+
+        double rate = Double.parseDouble(parts[0].trim()) * perSecond;
+        if (!(rate > 0) || Double.isInfinite(rate)) throw new NumberFormatException("Invalid rate limit: " + input);
+        long burst = parts.length == 2 ? Long.parseLong(parts[1].trim()) : (long) Math.ceil(rate);
+        return new RateLimit(rate, burst);
+    }
+
+    /**
+     * Returns the time at which a bucket is full again after the given tokens were taken from it.
+     *
+     * @param fullAt the time at which the bucket is full again
+     * @param tokens the amount of tokens to take
+     * @param now    the current {@link System#nanoTime()}
+     * @return the new time at which the bucket is full again
+     */
+    public long next(long fullAt, long tokens, long now) {
+        return Math.max(fullAt, now) + tokens * nanosPerToken;
+    }
+
+    /**
+     * Returns whether a bucket stays within the burst, meaning the tokens taken by {@link #next} may be granted.
+     *
+     * @param next the time returned by {@link #next}
+     * @param now  the current {@link System#nanoTime()}
+     * @return true if the tokens may be granted
+     */
+    public boolean admits(long next, long now) {
+        return next - now <= burstNanos;
+    }
+
+    /**
+     * Returns the amount of tokens that were taken from a bucket and not refilled yet.
+     *
+     * @param fullAt the time at which the bucket is full again
+     * @param now    the current {@link System#nanoTime()}
+     * @return the used tokens
+     */
+    public long used(long fullAt, long now) {
+        long pending = fullAt - now;
+        return pending <= 0 ? 0 : (pending + nanosPerToken - 1) / nanosPerToken;
+    }
+
+    @Override
+    public String toString() {
+        return rate + "/s (burst " + burst + ")";
+    }
+}
@@ -0,0 +1,65 @@
+package de.feelix.sierra.utilities;
+
+import java.util.Arrays;
+
+/**
+ * The RateLimiter class holds a fixed amount of token buckets, for example one per packet type of a player, in a
+ * single primitive array. Every bucket is one long, see {@link RateLimit}, so limiting a packet allocates nothing.
+ * <p>
+ * The limiter is not thread-safe. It is meant to be owned by the netty thread of a single player; use
+ * {@link TokenBucket} for a bucket shared between threads.
+ */
+public class RateLimiter {
+
+    private final long[] fullAt;
+
+    /**
+     * Creates a limiter with full buckets.
+     *
+     * @param slots the amount of buckets
+     */
+    public RateLimiter(int slots) {
+        this.fullAt = new long[slots];
+        Arrays.fill(this.fullAt, System.nanoTime());
+    }
+
+    /**
+     * Takes one token from the bucket in the given slot.
+     *
+     * @param slot  the slot of the bucket
+     * @param limit the limit of the bucket
+     * @param now   the current {@link System#nanoTime()}
+     * @return true if the token was taken, false if the bucket is empty
+     */
+    public boolean tryAcquire(int slot, RateLimit limit, long now) {
+        return tryAcquire(slot, limit, 1, now);
+    }
+
+    /**
+     * Takes tokens from the bucket in the given slot.
+     *
+     * @param slot   the slot of the bucket
+     * @param limit  the limit of the bucket
+     * @param tokens the amount of tokens to take
+     * @param now    the current {@link System#nanoTime()}
+     * @return true if the tokens were taken, false if the bucket holds too few
+     */
+    public boolean tryAcquire(int slot, RateLimit limit, long tokens, long now) {
+        long next = limit.next(fullAt[slot], tokens, now);
+        if (!limit.admits(next, now)) return false;
+        fullAt[slot] = next;
+        return true;
+    }
+
+    /**
+     * Returns the amount of tokens that were taken from the bucket in the given slot and not refilled yet.
+     *
+     * @param slot  the slot of the bucket
+     * @param limit the limit of the bucket
+     * @param now   the current {@link System#nanoTime()}
+     * @return the used tokens
+     */
+    public long used(int slot, RateLimit limit, long now) {
+        return limit.used(fullAt[slot], now);
+    }
+}
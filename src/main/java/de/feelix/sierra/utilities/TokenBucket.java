@@ -0,0 +1,87 @@
+package de.feelix.sierra.utilities;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * The TokenBucket class is a lock-free token bucket that refills continuously based on {@link System#nanoTime()}.
+ * <p>
+ * The bucket keeps a single value, the time at which it would be full again, and applies the arithmetic of its
+ * {@link RateLimit}. Both reading and taking are a single volatile read and compare-and-set, so any thread may use
+ * the bucket without locking and there is no window boundary a client could send twice the budget across. For many
+ * buckets owned by a single thread, see {@link RateLimiter}.
+ */
+public class TokenBucket {
+
+    private static final AtomicLongFieldUpdater<TokenBucket> FULL_AT =
+        AtomicLongFieldUpdater.newUpdater(TokenBucket.class, "fullAt");
+
+    private final RateLimit limit;
+
+    private volatile long fullAt;
+
+    /**
+     * Creates a full bucket.
+     *
+     * @param capacity        the maximum amount of tokens the bucket holds
+     * @param tokensPerSecond the amount of tokens refilled per second
+     */
+    public TokenBucket(long capacity, double tokensPerSecond) {
+        this.limit = new RateLimit(tokensPerSecond, capacity);
+        this.fullAt = System.nanoTime();
+    }
+
+    /**
+     * Takes the given amount of tokens if the bucket holds enough.
+     *
+     * @param tokens the amount of tokens to take
+     * @return true if the tokens were taken, false if the bucket holds too few
+     */
+    public boolean tryAcquire(long tokens) {
+        return tryAcquire(tokens, System.nanoTime());
+    }
+
+    /**
+     * Takes the given amount of tokens if the bucket holds enough at the given time.
+     *
+     * @param tokens the amount of tokens to take
+     * @param now    the current {@link System#nanoTime()}
+     * @return true if the tokens were taken, false if the bucket holds too few
+     */
+    public boolean tryAcquire(long tokens, long now) {
+        while (true) {
+            long current = fullAt;
+            long next    = limit.next(current, tokens, now);
+            if (!limit.admits(next, now)) return false;
+            if (FULL_AT.compareAndSet(this, current, next)) return true;
+        }
+    }
+
+    /**
+     * Returns the amount of tokens the bucket holds at the given time.
+     *
+     * @param now the current {@link System#nanoTime()}
+     * @return the available tokens
+     */
+    public long available(long now) {
+        return capacity() - used(now);
+    }
+
+    /**
+     * Returns the amount of tokens that were taken and not refilled yet at the given time.
+     *
+     * @param now the current {@link System#nanoTime()}
+     * @return the used tokens
+     */
+    public long used(long now) {
+        return limit.used(fullAt, now);
+    }
+
+    /**
+     * Returns the maximum amount of tokens the bucket holds.
+     *
+     * @return the capacity
+     */
+    public long capacity() {
+        return limit.getBurst();
+    }
+}
@@ -1,28 +1,25 @@
 package de.feelix.sierra.utilities.message;
 
 import de.feelix.sierra.Sierra;
-import org.bukkit.ChatColor;
 
 public class ConfigValue {
 
-    private String message;
+    private static final String[] NO_VALUES = new String[0];
+
+    private final MessageTemplate template;
+    private final String[]        values;
 
     /**
      * The ConfigValue class represents a configurable message in the plugin.
      * It is used to retrieve and manipulate message values from the plugin configuration.
+     * The message is backed by a {@link MessageTemplate} compiled once per configuration load, replacements only
+     * fill its placeholder slots and the message is rendered once by {@link #message()}.
      */
     public ConfigValue(String messageKey, String messageOnFailure, boolean messageFile) {
-        if (messageFile) {
-            this.message = Sierra.getPlugin()
-                .getSierraConfigEngine()
-                .messages()
-                .getString(messageKey, messageOnFailure);
-        } else {
-            this.message = Sierra.getPlugin()
-                .getSierraConfigEngine()
-                .config()
-                .getString(messageKey, messageOnFailure);
-        }
+        this.template = Sierra.getPlugin()
+            .getSierraConfigEngine()
+            .template(messageKey, messageOnFailure, messageFile);
+        this.values = template.slots() == 0 ? NO_VALUES : new String[template.slots()];
     }
 
     /**
@@ -31,19 +28,19 @@ public class ConfigValue {
      * @return The message value.
      */
     public String message() {
-        this.colorize();
-        return message;
+        return template.render(values);
     }
 
     /**
      * Colorizes the message value by replacing color codes with the corresponding color.
      * Color codes are represented by '&' followed by a color code or color name.
      * For example, '&a' represents the color green.
+     * The template is colorized when it is compiled and replaced values when the message is rendered, so this
+     * method is kept for readability of the call sites only.
      *
      * @return The ConfigMessage object with the colorized message value.
      */
     public ConfigValue colorize() {
-        this.message = ChatColor.translateAlternateColorCodes('&', this.message);
         return this;
     }
 
@@ -61,13 +58,17 @@ public class ConfigValue {
 
     /**
      * Replaces occurrences of a specified key in the message value with a specified value.
+     * Like a plain string replacement, only the first replacement of a key takes effect.
      *
      * @param key   The key to be replaced in the message value.
      * @param value The value to replace the key with in the message value.
      * @return The updated ConfigMessage object after the replacement.
      */
     public ConfigValue replace(String key, String value) {
-        this.message = this.message.replace(key, value);
+        int slot = template.slot(key);
+        if (slot != -1 && values[slot] == null) {
+            values[slot] = value;
+        }
         return this;
     }
 
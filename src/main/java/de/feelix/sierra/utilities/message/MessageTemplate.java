@@ -0,0 +1,170 @@
+package de.feelix.sierra.utilities.message;
+
+import org.bukkit.ChatColor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The MessageTemplate class is the compiled form of a configurable message. The raw text is split once into literal
+ * segments, which are colorized up front, and placeholder slots such as {@code {username}}. Rendering fills the slots
+ * into a single builder sized for the result, instead of running one {@link String#replace} per placeholder.
+ * <p>
+ * Placeholder values are colorized while they are appended, matching the previous behaviour of colorizing the whole
+ * message after every replacement. Placeholders without a value are rendered as written.
+ * <p>
+ * Templates are immutable and shared between threads.
+ */
+public final class MessageTemplate {
+
+    private static final char   COLOR_CHAR  = '&';
+    private static final String COLOR_CODES = "0123456789AaBbCcDdEeFfKkLlMmNnOoRrXx";
+
+    /**
+     * Literal segments around the placeholders, always one more than there are placeholder occurrences.
+     */
+    private final String[] literals;
+
+    /**
+     * The slot of every placeholder occurrence, in order of appearance.
+     */
+    private final int[] occurrences;
+
+    /**
+     * The distinct placeholder names, indexed by slot.
+     */
+    private final String[] names;
+
+    private final int literalLength;
+
+    private MessageTemplate(String[] literals, int[] occurrences, String[] names) {
+        this.literals = literals;
+        this.occurrences = occurrences;
+        this.names = names;
+
+        int length = 0;
+        for (String literal : literals) length += literal.length();
+        this.literalLength = length;
+    }
+
+    /**
+     * Compiles the given raw message.
+     *
+     * @param raw the message text as written in the configuration
+     * @return the compiled template
+     */
+    public static MessageTemplate compile(String raw) {
+        List<String>  literals    = new ArrayList<>();
+        List<Integer> occurrences = new ArrayList<>();
+        List<String>  names       = new ArrayList<>();
+
+        int start = 0;
+        int open  = raw.indexOf('{');
+        while (open != -1) {
+            int close = placeholderEnd(raw, open);
+            if (close == -1) {
+                open = raw.indexOf('{', open + 1);
+                continue;
+            }
+            String name = raw.substring(open + 1, close);
+            int    slot = names.indexOf(name);
+            if (slot == -1) {
+                slot = names.size();
+                names.add(name);
+            }
+            literals.add(ChatColor.translateAlternateColorCodes(COLOR_CHAR, raw.substring(start, open)));
+            occurrences.add(slot);
+            start = close + 1;
+            open = raw.indexOf('{', start);
+        }
+        literals.add(ChatColor.translateAlternateColorCodes(COLOR_CHAR, raw.substring(start)));
+
+        int[] slots = new int[occurrences.size()];
+        for (int i = 0; i < slots.length; i++) slots[i] = occurrences.get(i);
+        return new MessageTemplate(literals.toArray(new String[0]), slots, names.toArray(new String[0]));
+    }
+
+    /**
+     * Returns the amount of distinct placeholders.
+     *
+     * @return the amount of slots a value array needs
+     */
+    public int slots() {
+        return names.length;
+    }
+
+    /**
+     * Returns the slot of the given placeholder.
+     *
+     * @param placeholder the placeholder including its braces, for example {@code {username}}
+     * @return the slot of the placeholder, or -1 if the template does not contain it
+     */
+    public int slot(String placeholder) {
+        int length = placeholder.length();
+        if (length < 2 || placeholder.charAt(0) != '{' || placeholder.charAt(length - 1) != '}') return -1;
+
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i];
+            if (name.length() == length - 2 && placeholder.regionMatches(1, name, 0, name.length())) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Renders the template with the given values.
+     *
+     * @param values the value of every slot, null leaves the placeholder as written
+     * @return the rendered message
+     */
+    public String render(String[] values) {
+        if (occurrences.length == 0) return literals[0];
+
+        int length = literalLength;
+        for (int slot : occurrences) {
+            String value = values[slot];
+            length += value != null ? value.length() : names[slot].length() + 2;
+        }
+
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < occurrences.length; i++) {
+            builder.append(literals[i]);
+            int    slot  = occurrences[i];
+            String value = values[slot];
+            if (value == null) {
+                builder.append('{').append(names[slot]).append('}');
+            } else {
+                appendColorized(builder, value);
+            }
+        }
+        return builder.append(literals[occurrences.length]).toString();
+    }
+
+    /**
+     * Appends the given text and translates its color codes on the fly, like
+     * {@link ChatColor#translateAlternateColorCodes(char, String)} without the intermediate copies.
+     */
+    private static void appendColorized(StringBuilder builder, String text) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == COLOR_CHAR && i + 1 < length && COLOR_CODES.indexOf(text.charAt(i + 1)) > -1) {
+                builder.append(ChatColor.COLOR_CHAR).append(Character.toLowerCase(text.charAt(++i)));
+            } else {
+                builder.append(c);
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the closing brace of the placeholder opened at the given index, or -1 if the brace does
+     * not open a placeholder.
+     */
+    private static int placeholderEnd(String raw, int open) {
+        for (int i = open + 1; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c == '}') return i > open + 1 ? i : -1;
+            if (!Character.isLetterOrDigit(c) && c != '-' && c != '_') return -1;
+        }
+        return -1;
+    }
+}
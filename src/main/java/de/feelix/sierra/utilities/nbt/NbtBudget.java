@@ -0,0 +1,295 @@
+package de.feelix.sierra.utilities.nbt;
+
+import com.github.retrooper.packetevents.protocol.nbt.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The NbtBudget class measures an NBT tree in a single pass without building any intermediate String. While walking,
+ * it keeps running counters for the approximate encoded size, the nesting depth, the longest list and the longest
+ * string, and stops as soon as one of them exceeds its budget. Oversize compounds are therefore rejected after
+ * visiting at most a budget worth of tags, regardless of how big the payload actually is.
+ * <p>
+ * The size and depth budgets always apply, the depth budget matches the nesting limit of the vanilla nbt reader. The
+ * list and string budgets only apply to visits with structural limits. Byte, int and long arrays are only measured by
+ * their size, as vanilla items such as maps and skulls legitimately carry long arrays.
+ * <p>
+ * The same pass also computes a fingerprint of the tree with {@link SipHash}, keyed randomly per process. The tree is
+ * fed as an unambiguous sequence of words, every value is preceded by its type and every compound, list, array and
+ * string by its length, so two different trees never feed the same words. Without the key, trees with colliding
+ * fingerprints cannot be constructed.
+ * <p>
+ * Subclasses can collect additional facts during the same pass by overriding {@link #onList(NBTList, String, String)}
+ * and {@link #onText(String)}.
+ * <p>
+ * An instance is not thread-safe and is meant to be reused for every item of a single player.
+ */
+@Getter
+public class NbtBudget {
+
+    /**
+     * The budget that was exceeded by the last visit.
+     */
+    public enum Violation {
+        NONE, BYTES, DEPTH, LIST_LENGTH, STRING_LENGTH
+    }
+
+    private static final long KEY0;
+    private static final long KEY1;
+
+    static {
+        SecureRandom random = new SecureRandom();
+        KEY0 = random.nextLong();
+        KEY1 = random.nextLong();
+    }
+
+    private final int maxDepth;
+    private final int maxListLength;
+    private final int maxStringLength;
+
+    private int       maxBytes;
+    private boolean   structuralLimits;
+    private int       bytes;
+    private int       depth;
+    private int       longestList;
+    private int       longestString;
+    private long      fingerprint;
+    private Violation violation = Violation.NONE;
+
+    @Getter(AccessLevel.NONE)
+    private final SipHash hash = keyedHash();
+
+    /**
+     * Creates a new budget with the given structural limits.
+     *
+     * @param maxDepth        the maximum nesting depth of compounds and lists
+     * @param maxListLength   the maximum amount of elements of a single list
+     * @param maxStringLength the maximum length of a single string or key
+     */
+    public NbtBudget(int maxDepth, int maxListLength, int maxStringLength) {
+        this.maxDepth = maxDepth;
+        this.maxListLength = maxListLength;
+        this.maxStringLength = maxStringLength;
+    }
+
+    /**
+     * Walks the given compound and measures it against the budget. The walk stops at the first exceeded budget,
+     * in which case the counters only reflect the visited part of the tree.
+     *
+     * @param compound the compound to measure
+     * @param maxBytes the maximum approximate encoded size in bytes
+     * @return true if the compound stayed within every budget
+     */
+    public boolean visit(NBTCompound compound, int maxBytes) {
+        return visit(compound, maxBytes, true);
+    }
+
+    /**
+     * Walks the given compound and measures it against the budget, optionally without the list and string budgets.
+     * The longest list and string are measured either way.
+     *
+     * @param compound         the compound to measure
+     * @param maxBytes         the maximum approximate encoded size in bytes
+     * @param structuralLimits whether the list and string budgets apply
+     * @return true if the compound stayed within every budget
+     */
+    public boolean visit(NBTCompound compound, int maxBytes, boolean structuralLimits) {
+        this.maxBytes = maxBytes;
+        this.structuralLimits = structuralLimits;
+        this.bytes = 0;
+        this.depth = 0;
+        this.longestList = 0;
+        this.longestString = 0;
+        this.violation = Violation.NONE;
+
+        hash.reset();
+        boolean within = compound == null || visitCompound(compound, null, 1);
+        this.fingerprint = hash.digest();
+        return within;
+    }
+
+    /**
+     * Returns a new hash with the process-wide key of the fingerprints, so values derived from a fingerprint stay
+     * just as hard to collide.
+     *
+     * @return a new keyed hash
+     */
+    protected static SipHash keyedHash() {
+        return new SipHash(KEY0, KEY1);
+    }
+
+    /**
+     * Returns whether the last visit stayed within every budget.
+     *
+     * @return true if no budget was exceeded
+     */
+    public boolean isWithinBudget() {
+        return violation == Violation.NONE;
+    }
+
+    /**
+     * Called once for every list before its elements are visited.
+     *
+     * @param list     the list
+     * @param key      the key the list is stored under
+     * @param ownerKey the key of the compound holding the list, or null for the root compound
+     */
+    protected void onList(NBTList<?> list, String key, String ownerKey) {
+    }
+
+    /**
+     * Called for every key and every string value of the tree.
+     *
+     * @param text the key or string value
+     */
+    protected void onText(String text) {
+    }
+
+    private boolean visitCompound(NBTCompound compound, String key, int level) {
+        if (!enter(level)) return false;
+
+        Map<String, NBT> tags = compound.getTags();
+        hash.update(tags.size());
+        for (Map.Entry<String, NBT> entry : tags.entrySet()) {
+            // Tag type, key length prefix and key
+            if (!addBytes(3) || !addString(entry.getKey())) return false;
+            if (!visitTag(entry.getValue(), entry.getKey(), key, level)) return false;
+        }
+        // End tag
+        return addBytes(1);
+    }
+
+    private boolean visitList(NBTList<?> list, String key, String ownerKey, int level) {
+        if (!enter(level)) return false;
+
+        List<? extends NBT> tags = list.getTags();
+        // Element type and length prefix
+        if (!addList(tags.size()) || !addBytes(5)) return false;
+
+        hash.update(tags.size());
+        onList(list, key, ownerKey);
+        for (NBT tag : tags) {
+            if (!visitTag(tag, key, ownerKey, level)) return false;
+        }
+        return true;
+    }
+
+    private boolean visitTag(NBT tag, String key, String ownerKey, int level) {
+        if (tag instanceof NBTCompound) {
+            hash.update(10);
+            return visitCompound((NBTCompound) tag, key, level + 1);
+        }
+        if (tag instanceof NBTList) {
+            hash.update(9);
+            return visitList((NBTList<?>) tag, key, ownerKey, level + 1);
+        }
+        if (tag instanceof NBTString) {
+            hash.update(8);
+            return addBytes(2) && addString(((NBTString) tag).getValue());
+        }
+        if (tag instanceof NBTByteArray) {
+            byte[] value = ((NBTByteArray) tag).getValue();
+            if (!addBytes(4 + (long) value.length)) return false;
+            hash.update(7).update(value.length);
+            for (int i = 0; i < value.length; i += 8) {
+                long word = 0;
+                for (int j = i; j < Math.min(i + 8, value.length); j++) word = word << 8 | (value[j] & 0xFF);
+                hash.update(word);
+            }
+            return true;
+        }
+        if (tag instanceof NBTIntArray) {
+            int[] value = ((NBTIntArray) tag).getValue();
+            if (!addBytes(4 + 4L * value.length)) return false;
+            hash.update(11).update(value.length);
+            for (int i = 0; i < value.length; i += 2) {
+                long word = value[i] & 0xFFFFFFFFL;
+                if (i + 1 < value.length) word = word << 32 | (value[i + 1] & 0xFFFFFFFFL);
+                hash.update(word);
+            }
+            return true;
+        }
+        if (tag instanceof NBTLongArray) {
+            long[] value = ((NBTLongArray) tag).getValue();
+            if (!addBytes(4 + 8L * value.length)) return false;
+            hash.update(12).update(value.length);
+            for (long element : value) hash.update(element);
+            return true;
+        }
+        if (tag instanceof NBTFloat || tag instanceof NBTDouble) {
+            hash.update(tag instanceof NBTFloat ? 5 : 6);
+            hash.update(Double.doubleToLongBits(((NBTNumber) tag).getAsDouble()));
+            return addBytes(tag instanceof NBTFloat ? 4 : 8);
+        }
+        if (tag instanceof NBTNumber) {
+            hash.update(tag instanceof NBTLong ? 4 : tag instanceof NBTInt ? 3 : tag instanceof NBTShort ? 2 : 1);
+            hash.update(((NBTNumber) tag).getAsLong());
+            return addBytes(tag instanceof NBTLong ? 8 : tag instanceof NBTInt ? 4 : tag instanceof NBTShort ? 2 : 1);
+        }
+        hash.update(0);
+        return addBytes(1);
+    }
+
+    private boolean enter(int level) {
+        if (level > depth) depth = level;
+        if (level > maxDepth) {
+            violation = Violation.DEPTH;
+            return false;
+        }
+        return true;
+    }
+
+    private boolean addList(int length) {
+        if (length > longestList) longestList = length;
+        if (structuralLimits && length > maxListLength) {
+            violation = Violation.LIST_LENGTH;
+            return false;
+        }
+        return true;
+    }
+
+    private boolean addString(String value) {
+        int length = value.length();
+        if (length > longestString) longestString = length;
+        if (structuralLimits && length > maxStringLength) {
+            violation = Violation.STRING_LENGTH;
+            return false;
+        }
+        onText(value);
+
+        // Four characters per word, after the length so the words of consecutive strings cannot be shifted
+        hash.update(length);
+        int  utf8Length = length;
+        long word       = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x800) {
+                utf8Length += 2;
+            } else if (c >= 0x80 || c == 0) {
+                utf8Length += 1;
+            }
+            word = word << 16 | c;
+            if ((i & 3) == 3) {
+                hash.update(word);
+                word = 0;
+            }
+        }
+        if ((length & 3) != 0) hash.update(word);
+        return addBytes(utf8Length);
+    }
+
+    private boolean addBytes(long amount) {
+        long total = bytes + amount;
+        if (total > maxBytes) {
+            bytes = (int) Math.min(total, Integer.MAX_VALUE);
+            violation = Violation.BYTES;
+            return false;
+        }
+        bytes = (int) total;
+        return true;
+    }
+}
@@ -0,0 +1,98 @@
+package de.feelix.sierra.utilities.nbt;
+
+/**
+ * The SipHash class computes SipHash-2-4, a keyed hash designed so that colliding inputs cannot be found without
+ * knowing the 128-bit key. The input is fed as a sequence of 64-bit words, each word is one message block.
+ * <p>
+ * An instance is not thread-safe. It is reset and reused for every hashed value, so hashing allocates nothing.
+ */
+public class SipHash {
+
+    private final long key0;
+    private final long key1;
+
+    private long v0;
+    private long v1;
+    private long v2;
+    private long v3;
+    private long words;
+
+    /**
+     * Creates a new hash with the given key.
+     *
+     * @param key0 the first half of the key
+     * @param key1 the second half of the key
+     */
+    public SipHash(long key0, long key1) {
+        this.key0 = key0;
+        this.key1 = key1;
+        reset();
+    }
+
+    /**
+     * Starts a new value, forgetting every word fed so far.
+     *
+     * @return this hash
+     */
+    public SipHash reset() {
+        v0 = key0 ^ 0x736F6D6570736575L;
+        v1 = key1 ^ 0x646F72616E646F6DL;
+        v2 = key0 ^ 0x6C7967656E657261L;
+        v3 = key1 ^ 0x7465646279746573L;
+        words = 0;
+        return this;
+    }
+
+    /**
+     * Feeds a word of the value.
+     *
+     * @param word the word
+     * @return this hash
+     */
+    public SipHash update(long word) {
+        v3 ^= word;
+        round();
+        round();
+        v0 ^= word;
+        words++;
+        return this;
+    }
+
+    /**
+     * Finishes the value and returns its hash. The hash must be reset before it is used again.
+     *
+     * @return the hash of every word fed since the last reset
+     */
+    public long digest() {
+        // The final block of SipHash holds the message length in bytes in its top byte
+        long last = (words << 3) << 56;
+        v3 ^= last;
+        round();
+        round();
+        v0 ^= last;
+
+        v2 ^= 0xFF;
+        round();
+        round();
+        round();
+        round();
+        return v0 ^ v1 ^ v2 ^ v3;
+    }
+
+    private void round() {
+        v0 += v1;
+        v1 = Long.rotateLeft(v1, 13);
+        v1 ^= v0;
+        v0 = Long.rotateLeft(v0, 32);
+        v2 += v3;
+        v3 = Long.rotateLeft(v3, 16);
+        v3 ^= v2;
+        v0 += v3;
+        v3 = Long.rotateLeft(v3, 21);
+        v3 ^= v0;
+        v2 += v1;
+        v1 = Long.rotateLeft(v1, 17);
+        v1 ^= v2;
+        v2 = Long.rotateLeft(v2, 32);
+    }
+}